@@ -0,0 +1,77 @@
+package com.example.stockgame.benchmarks;
+
+import com.example.stockgame.FactorModel;
+import com.example.stockgame.GeometricBrownianMotionModel;
+import com.example.stockgame.JumpDiffusionModel;
+import com.example.stockgame.MarketBook;
+import com.example.stockgame.MarketEngine;
+import com.example.stockgame.MeanReversionModel;
+import com.example.stockgame.PriceModel;
+import com.example.stockgame.Stock;
+import com.example.stockgame.UniformFluctuationModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price update costs of a single stock and of a whole market tick, for each price model.
+ * Prices are regenerated before every iteration so they never drift into the price floor or denormal range.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class MarketBenchmark {
+
+    @Param({"99", "10000", "1000000", "10000000"})
+    public int universeSize;
+
+    @Param({"uniform", "gbm", "jump", "meanReversion", "factor"})
+    public String priceModel;
+
+    private final MarketBook book = new MarketBook();
+    private Stock stock;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Markets.fill(book, universeSize, 42);
+        book.setPriceModel(priceModel(priceModel));
+        stock = book.stock(universeSize / 2);
+    }
+
+    private static PriceModel priceModel(String name) {
+        return switch (name) {
+            case "uniform" -> UniformFluctuationModel.INSTANCE;
+            case "gbm" -> new GeometricBrownianMotionModel(0.07, 0.3);
+            case "jump" -> new JumpDiffusionModel(0.07, 0.25, 2, -0.1, 0.15);
+            case "meanReversion" -> new MeanReversionModel(4, 0.3);
+            case "factor" -> new FactorModel(MarketEngine.SECTOR_COUNT, 0.07, 0.18, 0.12);
+            default -> throw new IllegalArgumentException("Unknown price model: " + name);
+        };
+    }
+
+    @Benchmark
+    public double stockUpdatePrice() {
+        stock.updatePrice();
+        return stock.getPrice();
+    }
+
+    @Benchmark
+    public MarketBook updatePrices() {
+        book.updatePrices();
+        return book;
+    }
+}
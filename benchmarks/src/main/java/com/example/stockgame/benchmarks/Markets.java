@@ -0,0 +1,34 @@
+package com.example.stockgame.benchmarks;
+
+import com.example.stockgame.MarketBook;
+import com.example.stockgame.MarketEngine;
+import com.example.stockgame.RiskLevel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Builds markets of arbitrary size for the benchmarks.
+ */
+final class Markets {
+    // Risk levels assigned to the rows in turn, like MarketEngine does.
+    private static final RiskLevel[] RISK_LEVELS = RiskLevel.values();
+
+    private Markets() {
+    }
+
+    /**
+     * Clears a book and fills it with randomly named and priced stocks of every risk level and sector.
+     *
+     * @param book The book to fill.
+     * @param size The number of stocks.
+     * @param seed The seed of the names, prices and price streams.
+     */
+    static void fill(MarketBook book, int size, long seed) {
+        book.clear(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int row = 0; row < size; row++) {
+            book.add(book.getSymbols().allocate(random), random.nextDouble() * 1000, RISK_LEVELS[row % RISK_LEVELS.length]);
+        }
+        MarketEngine.assignFactorExposures(book, seed);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.stockgame.benchmarks;
+
+import com.example.stockgame.OrderBook;
+import com.example.stockgame.OrderSide;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order operations per second on one book, replaying a precomputed mix of limit orders around the mid price,
+ * cancels of the oldest placed orders and market orders. Cancels also kick in whenever {@code depth} orders
+ * are outstanding, so the book stays at a steady size. The target is at least one million operations per second.
+ * Run with {@code -prof gc} to check that the steady state allocates nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+    // Operations replayed per invocation, and length of the precomputed cycle.
+    private static final int BATCH = 1_024;
+    private static final int CYCLE = 1 << 16;
+    // Mid price of the generated orders in ticks.
+    private static final long MID = 10_000;
+    // Operation kinds.
+    private static final byte LIMIT = 0;
+    private static final byte CANCEL = 1;
+    private static final byte MARKET = 2;
+
+    // Share of operations in percent that are cancels and market orders; the rest are limit orders.
+    @Param({"30"})
+    public int cancelPercent;
+
+    // Orders placed and not cancelled yet, some of which have been filled since.
+    @Param({"1000", "100000"})
+    public int depth;
+
+    @Param({"10"})
+    public int marketPercent;
+
+    private OrderBook book;
+    private final byte[] kinds = new byte[CYCLE];
+    private final OrderSide[] sides = new OrderSide[CYCLE];
+    private final long[] prices = new long[CYCLE];
+    private final long[] quantities = new long[CYCLE];
+    // Ids of placed orders in placement order, cancelled oldest first.
+    private long[] placedIds;
+    private int oldest;
+    private int placed;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < CYCLE; i++) {
+            int roll = random.nextInt(100);
+            kinds[i] = roll < cancelPercent ? CANCEL : roll < cancelPercent + marketPercent ? MARKET : LIMIT;
+            sides[i] = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            // Buys rest mostly below the mid and sells above it, with some overlap that trades.
+            long offset = random.nextInt(50) - 5;
+            prices[i] = sides[i] == OrderSide.BUY ? MID - offset : MID + offset;
+            quantities[i] = 1 + random.nextInt(100);
+        }
+        book = new OrderBook(0, (symbol, makerOrderId, makerOwner, takerOwner, takerSide, price, quantity) -> { });
+        placedIds = new long[depth];
+        oldest = 0;
+        placed = 0;
+        next = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void mixedOperations(Blackhole blackhole) {
+        for (int n = 0; n < BATCH; n++) {
+            int i = next;
+            next = (i + 1) & (CYCLE - 1);
+            byte kind = kinds[i];
+            if (placed == depth || (kind == CANCEL && placed > 0)) {
+                blackhole.consume(book.cancel(placedIds[oldest]));
+                oldest = oldest + 1 == depth ? 0 : oldest + 1;
+                placed--;
+            } else if (kind == MARKET) {
+                blackhole.consume(book.market(sides[i], quantities[i], i));
+            } else {
+                int slot = oldest + placed < depth ? oldest + placed : oldest + placed - depth;
+                placedIds[slot] = book.limit(sides[i], prices[i], quantities[i], i);
+                placed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.stockgame.benchmarks;
+
+import com.example.stockgame.MarketBook;
+import com.example.stockgame.Money;
+import com.example.stockgame.Portfolio;
+import com.example.stockgame.Stock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Portfolio valuation, lookups and trades against markets and portfolios of different sizes.
+ * Positions are spread evenly over the market; a portfolio never holds more positions than the market has stocks.
+ * Prices follow the book's default model for millions of ticks, so many of them end up pinned at the price cap.
+ * The money invested is sized so that even then, every share bought at the lowest trade price, the portfolio's value
+ * stays within the range of {@link Money}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class PortfolioBenchmark {
+    // Cash large enough for any number of positions.
+    private static final double CASH = 1e6;
+    // Money moved by each trade.
+    private static final double TRADE_SIZE = 10;
+    // Money spread over the initial positions: worth about $50 billion if every share bought reaches the cap.
+    private static final double INVESTED = 500;
+
+    @Param({"99", "10000", "1000000", "10000000"})
+    public int universeSize;
+
+    @Param({"1", "100", "10000", "100000"})
+    public int positions;
+
+    private final MarketBook book = new MarketBook();
+    private Portfolio portfolio;
+    private int[] ownedRows;
+    private String[] ownedNames;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Markets.fill(book, universeSize, 42);
+        portfolio = new Portfolio(book, CASH);
+        int count = Math.min(positions, universeSize);
+        ownedRows = new int[count];
+        ownedNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            ownedRows[i] = (int) ((long) i * universeSize / count);
+            ownedNames[i] = book.getName(ownedRows[i]);
+            portfolio.buy(ownedRows[i], INVESTED / count);
+        }
+        portfolio.updatePortfolioCost();
+    }
+
+    @Benchmark
+    public double updatePortfolioCost() {
+        portfolio.updatePortfolioCost();
+        return portfolio.getPortfolioCost();
+    }
+
+    @Benchmark
+    public double updateAllStocks() {
+        portfolio.markPreviousPortfolioCost();
+        book.updatePrices();
+        portfolio.applyPriceChanges();
+        return portfolio.getPortfolioCost();
+    }
+
+    @Benchmark
+    public Stock findOwnedStockByName() {
+        return portfolio.findOwnedStockByName(ownedNames[nextPosition()]);
+    }
+
+    @Benchmark
+    public boolean buyAndSell() {
+        int row = ownedRows[nextPosition()];
+        return portfolio.buy(row, TRADE_SIZE) & portfolio.sell(row, TRADE_SIZE);
+    }
+
+    /**
+     * Cycles through the owned positions so every call touches a different one.
+     */
+    private int nextPosition() {
+        int position = next;
+        next = position + 1 == ownedRows.length ? 0 : position + 1;
+        return position;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.stockgame;
+
+/**
+ * Receives the daily bars a {@link PriceHistory} reads.
+ * Bars are passed as primitives, so streaming a history allocates nothing per bar.
+ */
+@FunctionalInterface
+public interface BarListener {
+    /**
+     * Called once for every symbol quoted on a day.
+     * @param symbolCode The code of the symbol, see {@link SymbolCodes}.
+     * @param open The opening price.
+     * @param high The highest price of the day.
+     * @param low The lowest price of the day.
+     * @param close The closing price.
+     */
+    void onBar(int symbolCode, double open, double high, double low, double close);
+}
@@ -0,0 +1,282 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link PriceHistory} streamed from a CSV file of daily bars, one bar per line, sorted by date:
+ * {@code date,symbol,open,high,low,close} with any further columns ignored, or {@code date,symbol,close}.
+ * A first non-blank line that does not start with a digit is taken as a header and skipped. Dates are read as the number
+ * formed by their digits, so 2024-01-31 is 20240131; a new date starts a new day. Symbols that are not one to
+ * five letters A-Z are skipped. Fields are not quoted.
+ * <p>
+ * The file is read through one direct buffer that is refilled as lines are consumed, and lines are parsed in
+ * place, byte by byte: no line, field or number becomes a string, so a file of any size streams through a
+ * fixed amount of memory and parsing allocates nothing.
+ */
+public class CsvPriceHistory implements PriceHistory {
+    // Size of the read buffer, and so the longest line accepted.
+    static final int BUFFER_SIZE = 1 << 20;
+    // Exact powers of ten as doubles.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Largest mantissa a double holds exactly.
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // File being read.
+    private final FileChannel channel;
+    // Bytes read from the file; the unparsed ones lie between its position and its limit.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    // Whether the whole file has been read into the buffer.
+    private boolean endOfFile;
+    // Number of the line being parsed, for error messages.
+    private long lineNumber;
+    // Whether a non-blank line has been read, after which no header is expected.
+    private boolean started;
+    // Date of the day last read.
+    private int date;
+    // Bar read ahead: the first bar of the next day, if any.
+    private boolean pending;
+    private int pendingDate;
+    private int pendingSymbol;
+    private double pendingOpen;
+    private double pendingHigh;
+    private double pendingLow;
+    private double pendingClose;
+    // Field boundaries of the line being parsed, as absolute buffer indexes.
+    private final int[] fieldStarts = new int[6];
+    private final int[] fieldEnds = new int[6];
+
+    /**
+     * Opens a CSV file for streaming from its first line.
+     * @param path The CSV file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CsvPriceHistory(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.limit(0);
+    }
+
+    @Override
+    public boolean nextDay(BarListener listener) throws IOException {
+        if (!pending && !readBar()) {
+            return false;
+        }
+        date = pendingDate;
+        do {
+            pending = false;
+            if (pendingSymbol != SymbolCodes.NONE) {
+                listener.onBar(pendingSymbol, pendingOpen, pendingHigh, pendingLow, pendingClose);
+            }
+        } while (readBar() && pendingDate == date);
+        return true;
+    }
+
+    @Override
+    public int getDate() {
+        return date;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Parses the next line into the pending bar, skipping a header and blank lines.
+     * @return false at the end of the file.
+     */
+    private boolean readBar() throws IOException {
+        while (true) {
+            int end = nextLineEnd();
+            if (end < 0) {
+                return false;
+            }
+            int start = buffer.position();
+            buffer.position(Math.min(end + 1, buffer.limit()));
+            lineNumber++;
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == start) {
+                continue;
+            }
+            int first = buffer.get(start);
+            if (!started) {
+                started = true;
+                if (first < '0' || first > '9') {
+                    continue;
+                }
+            }
+            parseLine(start, end);
+            pending = true;
+            return true;
+        }
+    }
+
+    /**
+     * Finds the end of the next line, refilling the buffer as needed.
+     * @return The absolute index of the line's '\n', or of the end of the data for a last line without one;
+     *         -1 if no data is left.
+     */
+    private int nextLineEnd() throws IOException {
+        int from = buffer.position();
+        while (true) {
+            for (int i = from; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return i;
+                }
+            }
+            if (endOfFile) {
+                return buffer.hasRemaining() ? buffer.limit() : -1;
+            }
+            int scanned = buffer.remaining();
+            if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+            }
+            buffer.compact();
+            endOfFile = channel.read(buffer) < 0;
+            buffer.flip();
+            from = scanned;
+        }
+    }
+
+    /**
+     * Parses a line into the pending bar.
+     * @param start The absolute index of the line's first byte.
+     * @param end The absolute index after the line's last byte.
+     */
+    private void parseLine(int start, int end) throws IOException {
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end && fields < fieldStarts.length; i++) {
+            if (i == end || buffer.get(i) == ',') {
+                fieldStarts[fields] = fieldStart;
+                fieldEnds[fields] = i;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (fields != 3 && fields != 6) {
+            throw new IOException("Line " + lineNumber + ": expected date,symbol,close or date,symbol,open,high,low,close");
+        }
+        pendingDate = parseDate(fieldStarts[0], fieldEnds[0]);
+        pendingSymbol = SymbolCodes.encode(buffer, fieldStarts[1], fieldEnds[1]);
+        pendingClose = parseDouble(fieldStarts[fields - 1], fieldEnds[fields - 1]);
+        if (fields == 6) {
+            pendingOpen = parseDouble(fieldStarts[2], fieldEnds[2]);
+            pendingHigh = parseDouble(fieldStarts[3], fieldEnds[3]);
+            pendingLow = parseDouble(fieldStarts[4], fieldEnds[4]);
+        } else {
+            pendingOpen = pendingClose;
+            pendingHigh = pendingClose;
+            pendingLow = pendingClose;
+        }
+    }
+
+    /**
+     * Reads a date as the number formed by its digits, ignoring separators.
+     */
+    private int parseDate(int start, int end) throws IOException {
+        long value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            int c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            }
+        }
+        if (digits == 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Line " + lineNumber + ": invalid date");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal number such as {@code -12.5} or {@code 1.25e3}. Numbers of up to 15 significant digits
+     * are converted exactly with one multiplication or division; longer ones fall back to {@link Double#parseDouble}.
+     */
+    private double parseDouble(int start, int end) throws IOException {
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || (i < end && buffer.get(i) == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            int c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else if (!fraction) {
+                    exponent++;
+                }
+                digits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                break;
+            } else {
+                throw new IOException("Line " + lineNumber + ": invalid number");
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Line " + lineNumber + ": invalid number");
+        }
+        if (i < end) {
+            exponent += parseExponent(i + 1, end);
+        }
+        double value;
+        if (mantissa < MAX_EXACT_MANTISSA / 10 && exponent >= -22 && exponent <= 22) {
+            value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            value = slowParse(start, end);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the exponent of a number in scientific notation.
+     */
+    private int parseExponent(int start, int end) throws IOException {
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || (i < end && buffer.get(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            throw new IOException("Line " + lineNumber + ": invalid number");
+        }
+        int exponent = 0;
+        for (; i < end; i++) {
+            int c = buffer.get(i);
+            if (c < '0' || c > '9') {
+                throw new IOException("Line " + lineNumber + ": invalid number");
+            }
+            exponent = Math.min(exponent * 10 + (c - '0'), 10_000);
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    /**
+     * Parses a number too long to convert exactly in place, through a string. The sign is applied by the caller.
+     */
+    private double slowParse(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return Math.abs(Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.stockgame;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Advances the engine's days on a background thread so the JavaFX Application Thread never runs a tick.
+ * "Next Day" requests made while a tick is running are queued and processed one after the other by the same
+ * thread, and the UI is notified through at most one pending {@link Platform#runLater} call, however many days
+ * finished since the UI last caught up. Ticks hold the engine's monitor, so code changing the engine from other
+ * threads, such as trades on the UI thread, must synchronize on the engine as well.
+ * <p>
+ * A tick that throws drops the days still queued and reports the failure on the JavaFX Application Thread;
+ * the next request starts processing again. Days are requested and cleared on the JavaFX Application Thread.
+ */
+public class DayTicker implements AutoCloseable {
+    // Engine whose days are advanced.
+    private final MarketEngine engine;
+    // Runs on the JavaFX Application Thread after one or more days have been processed.
+    private final Runnable onDaysAdvanced;
+    // Runs on the JavaFX Application Thread when a tick fails.
+    private final Consumer<RuntimeException> onTickFailed;
+    // Thread running the ticks.
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "market-tick");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Days requested but not processed yet; the thread that raises it from zero starts processing.
+    private final AtomicInteger pendingDays = new AtomicInteger();
+    // Days ever requested; only touched on the JavaFX Application Thread.
+    private long requestedDays;
+    // Requests up to this number are dropped instead of processed; guarded by the engine's monitor.
+    private long clearedDays;
+    // Requests processed or dropped so far; only touched by the ticking thread, under the engine's monitor.
+    private long handledDays;
+    // Whether a UI update is already waiting on the JavaFX Application Thread.
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
+    /**
+     * Constructs a ticker for an engine.
+     *
+     * @param engine The engine whose days are advanced.
+     * @param onDaysAdvanced Runs on the JavaFX Application Thread after days have been processed.
+     * @param onTickFailed Runs on the JavaFX Application Thread with the exception of a tick that failed.
+     */
+    public DayTicker(MarketEngine engine, Runnable onDaysAdvanced, Consumer<RuntimeException> onTickFailed) {
+        this.engine = engine;
+        this.onDaysAdvanced = onDaysAdvanced;
+        this.onTickFailed = onTickFailed;
+    }
+
+    /**
+     * Queues one more day. Returns immediately; days past the end of the game are ignored.
+     */
+    public void requestNextDay() {
+        requestedDays++;
+        if (pendingDays.getAndIncrement() == 0) {
+            executor.execute(this::processPendingDays);
+        }
+    }
+
+    /**
+     * Drops every day requested so far that has not been processed yet, such as when the game restarts; days
+     * requested afterwards are processed as usual. The caller must hold the engine's monitor, so no tick is
+     * running, and must be on the JavaFX Application Thread.
+     */
+    public void clearPendingDays() {
+        clearedDays = requestedDays;
+    }
+
+    /**
+     * Checks if days are queued or being processed.
+     *
+     * @return true while the ticker is busy.
+     */
+    public boolean isBusy() {
+        return pendingDays.get() > 0;
+    }
+
+    /**
+     * Stops the background thread. Queued days are dropped.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Advances one day per request until no request is left, or until a tick fails.
+     */
+    private void processPendingDays() {
+        do {
+            try {
+                synchronized (engine) {
+                    if (++handledDays > clearedDays && !engine.isGameOver()) {
+                        engine.advanceDay();
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Drop the queued days: the counter is back at zero, so the next request restarts processing.
+                synchronized (engine) {
+                    handledDays += pendingDays.getAndSet(0) - 1;
+                }
+                scheduleUpdate();
+                Platform.runLater(() -> onTickFailed.accept(e));
+                return;
+            }
+            scheduleUpdate();
+        } while (pendingDays.decrementAndGet() > 0);
+    }
+
+    /**
+     * Posts a UI update unless one is already waiting.
+     */
+    private void scheduleUpdate() {
+        if (updateScheduled.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                updateScheduled.set(false);
+                onDaysAdvanced.run();
+            });
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.stockgame;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Order-driven trading venue of a {@link MarketBook}: every trade goes through the {@link OrderBook} of its
+ * stock instead of filling instantly at the day's price.
+ * <p>
+ * Each book is seeded with model-price liquidity: on the first trade of a stock on a new day, a market maker
+ * quotes a ladder of {@value #LEVELS} bids and asks around the day's price, each level worth about
+ * {@value #LEVEL_VALUE} dollars and {@value #LEVEL_STEP} apart in relative price, the best ones
+ * {@value #HALF_SPREAD} away from the price. Player orders are immediate-or-cancel market or limit orders: they
+ * take the best levels at the resting prices, in price-time priority, up to their limit price, and never rest.
+ * Liquidity one player takes is gone for every other player until the next day's quotes, so players trading the
+ * same stock compete for depth and move the price each other gets.
+ * <p>
+ * Every call names the day and the prices it trades at, the same ones the caller values its portfolio against,
+ * so quotes and valuations never come from different days. A book is requoted when the first caller of a newer
+ * day arrives; from then on, callers still on an older day trade nothing.
+ * <p>
+ * Books are created on the first trade of their stock, so an untraded market costs nothing. Each book is locked
+ * while an order is matched and settled, so players on different threads can trade the same stock; the
+ * portfolio settled is the caller's, which must be confined to the calling thread.
+ */
+public class Exchange {
+    // Owner of the market maker's orders.
+    public static final long MARKET_MAKER = -1;
+    // Limit price of a market order, which takes any price.
+    public static final long NO_LIMIT = 0;
+    // Price levels quoted on each side.
+    public static final int LEVELS = 5;
+    // Relative distance of the best quotes from the day's price, and between two levels.
+    public static final double HALF_SPREAD = 0.0005;
+    public static final double LEVEL_STEP = 0.001;
+    // Dollars of stock quoted at each level.
+    public static final double LEVEL_VALUE = 10_000;
+    // Lowest price a share is bought at, in micro-cents.
+    private static final long MIN_TRADE_PRICE = Money.ofDollars(Money.MIN_TRADE_PRICE);
+    // Money to receive from a sale of every share, in micro-cents.
+    private static final long ALL_SHARES = Long.MAX_VALUE;
+
+    // Book whose stocks are traded.
+    private final MarketBook book;
+    // Book of each row, created on first use.
+    private volatile AtomicReferenceArray<Venue> venues;
+
+    /**
+     * Constructs a venue with no order book yet.
+     * @param book The market traded; rows added afterwards are only traded after {@link #reset()}.
+     */
+    public Exchange(MarketBook book) {
+        this.book = book;
+        this.venues = new AtomicReferenceArray<>(book.size());
+    }
+
+    /**
+     * Drops every order book, resizing the venue to the market's current rows. Not safe while orders are being
+     * matched.
+     */
+    public void reset() {
+        venues = new AtomicReferenceArray<>(book.size());
+    }
+
+    /**
+     * Buys a stock for up to an amount of money, taking the best asks until the money or the asks at or below the
+     * limit price run out.
+     * @param portfolio The buyer's portfolio, confined to the calling thread.
+     * @param owner The owner reported in the fills, such as the player's id.
+     * @param row The book row of the stock.
+     * @param cash The most money to spend, capped at the portfolio's available cash.
+     * @param limitPrice The highest price paid for a share in micro-cents, {@link #NO_LIMIT} for a market order.
+     * @param day The day traded, positive.
+     * @param prices The day's prices, which the market maker quotes around.
+     * @return The micro-shares bought, 0 if nothing was bought.
+     */
+    public long buy(Portfolio portfolio, long owner, int row, double cash, long limitPrice, int day,
+                    PriceSource prices) {
+        if (!(cash > 0)) {
+            return 0;
+        }
+        Venue venue = venue(row);
+        synchronized (venue) {
+            if (!venue.quote(day, prices)) {
+                return 0;
+            }
+            OrderBook orders = venue.book;
+            long available = portfolio.getAvailableCashMicros();
+            long remaining = cash < Money.toDollars(available) ? Money.ofDollars(cash) : available;
+            long bought = 0;
+            while (true) {
+                long ask = orders.getBestAsk();
+                if (ask == OrderBook.NO_PRICE || ask < MIN_TRADE_PRICE || (limitPrice != NO_LIMIT && ask > limitPrice)) {
+                    break;
+                }
+                long quantity = Money.sharesBought(remaining, ask);
+                long filled = quantity == 0 ? 0 : venue.take(OrderSide.BUY, ask, quantity, owner);
+                if (filled == 0) {
+                    break;
+                }
+                settle(portfolio, row, OrderSide.BUY, filled, ask);
+                remaining -= Money.value(filled, ask);
+                bought += filled;
+            }
+            return bought;
+        }
+    }
+
+    /**
+     * Sells a stock for up to an amount of money, hitting the best bids until the money is received or the
+     * shares or the bids at or above the limit price run out.
+     * @param portfolio The seller's portfolio, confined to the calling thread.
+     * @param owner The owner reported in the fills, such as the player's id.
+     * @param row The book row of the stock.
+     * @param cash The money to receive.
+     * @param limitPrice The lowest price a share is sold at in micro-cents, {@link #NO_LIMIT} for a market order.
+     * @param day The day traded, positive.
+     * @param prices The day's prices, which the market maker quotes around.
+     * @return The micro-shares sold, 0 if nothing was sold.
+     */
+    public long sell(Portfolio portfolio, long owner, int row, double cash, long limitPrice, int day,
+                     PriceSource prices) {
+        if (!(cash > 0)) {
+            return 0;
+        }
+        long remaining = cash < Money.toDollars(ALL_SHARES) ? Money.ofDollars(cash) : ALL_SHARES;
+        return sell(portfolio, owner, row, remaining, limitPrice, day, prices);
+    }
+
+    /**
+     * Sells every share of a stock, hitting the best bids until the shares or the bids at or above the limit
+     * price run out.
+     * @param portfolio The seller's portfolio, confined to the calling thread.
+     * @param owner The owner reported in the fills, such as the player's id.
+     * @param row The book row of the stock.
+     * @param limitPrice The lowest price a share is sold at in micro-cents, {@link #NO_LIMIT} for a market order.
+     * @param day The day traded, positive.
+     * @param prices The day's prices, which the market maker quotes around.
+     * @return The micro-shares sold, 0 if nothing was sold.
+     */
+    public long sellAll(Portfolio portfolio, long owner, int row, long limitPrice, int day, PriceSource prices) {
+        return sell(portfolio, owner, row, ALL_SHARES, limitPrice, day, prices);
+    }
+
+    /**
+     * Returns the best bid or ask of a stock's book, quoting the day first if needed.
+     * @param row The book row of the stock.
+     * @param side The side of the quote.
+     * @param day The day quoted, positive.
+     * @param prices The day's prices, which the market maker quotes around.
+     * @return The price in micro-cents, {@link OrderBook#NO_PRICE} if the side is empty or the day is older than
+     *         the book's quotes.
+     */
+    public long getBestPrice(int row, OrderSide side, int day, PriceSource prices) {
+        Venue venue = venue(row);
+        synchronized (venue) {
+            if (!venue.quote(day, prices)) {
+                return OrderBook.NO_PRICE;
+            }
+            return side == OrderSide.BUY ? venue.book.getBestBid() : venue.book.getBestAsk();
+        }
+    }
+
+    /**
+     * Sells shares until an amount of money is received, or every share if the amount is {@link #ALL_SHARES}.
+     */
+    private long sell(Portfolio portfolio, long owner, int row, long remaining, long limitPrice, int day,
+                      PriceSource prices) {
+        if (portfolio.getMicroSharesOwned(row) == 0) {
+            return 0;
+        }
+        Venue venue = venue(row);
+        synchronized (venue) {
+            if (!venue.quote(day, prices)) {
+                return 0;
+            }
+            OrderBook orders = venue.book;
+            long sold = 0;
+            while (remaining > 0) {
+                long bid = orders.getBestBid();
+                if (bid == OrderBook.NO_PRICE || (limitPrice != NO_LIMIT && bid < limitPrice)) {
+                    break;
+                }
+                long owned = portfolio.getMicroSharesOwned(row);
+                long quantity = remaining == ALL_SHARES ? owned : Math.min(Money.sharesSold(remaining, bid), owned);
+                long filled = quantity == 0 ? 0 : venue.take(OrderSide.SELL, bid, quantity, owner);
+                if (filled == 0) {
+                    break;
+                }
+                settle(portfolio, row, OrderSide.SELL, filled, bid);
+                if (remaining != ALL_SHARES) {
+                    remaining -= Money.value(filled, bid);
+                }
+                sold += filled;
+            }
+            return sold;
+        }
+    }
+
+    /**
+     * Settles a fill the book has already made; the order was sized so the portfolio can always pay for it.
+     */
+    private static void settle(Portfolio portfolio, int row, OrderSide side, long microShares, long price) {
+        if (!portfolio.applyFill(row, side, microShares, price)) {
+            throw new IllegalStateException("Fill cannot be settled: " + side + " " + microShares + " @ " + price);
+        }
+    }
+
+    /**
+     * Returns the venue of a row, creating it on first use.
+     */
+    private Venue venue(int row) {
+        AtomicReferenceArray<Venue> venues = this.venues;
+        Venue venue = venues.get(row);
+        if (venue == null) {
+            venue = new Venue(row);
+            if (!venues.compareAndSet(row, null, venue)) {
+                venue = venues.get(row);
+            }
+        }
+        return venue;
+    }
+
+    /**
+     * Book of one stock with the day its quotes belong to. Guarded by its own monitor.
+     */
+    private static final class Venue implements FillListener {
+        private final int row;
+        private final OrderBook book;
+        // Day of the market maker's quotes, 0 before the first quote.
+        private int quotedDay;
+        // Quantity filled by the order being matched.
+        private long filled;
+
+        private Venue(int row) {
+            this.row = row;
+            this.book = new OrderBook(row, this);
+        }
+
+        @Override
+        public void onFill(int symbol, long makerOrderId, long makerOwner, long takerOwner, OrderSide takerSide,
+                           long price, long quantity) {
+            filled += quantity;
+        }
+
+        /**
+         * Replaces the book's content with the market maker's ladder around a day's price, once per day.
+         * @return false if the day is older than the book's quotes, which can no longer be traded at.
+         */
+        private boolean quote(int day, PriceSource prices) {
+            if (day <= quotedDay) {
+                return day == quotedDay;
+            }
+            quotedDay = day;
+            book.clear();
+            double price = prices.getPrice(row);
+            if (!(price > 0)) {
+                return true;
+            }
+            for (int level = 0; level < LEVELS; level++) {
+                double distance = HALF_SPREAD + level * LEVEL_STEP;
+                long ask = Money.ofDollars(price * (1 + distance));
+                long bid = Money.ofDollars(price * (1 - distance));
+                long quantity = Money.sharesBought(Money.ofDollars(LEVEL_VALUE), ask);
+                if (quantity > 0) {
+                    book.limit(OrderSide.SELL, ask, quantity, MARKET_MAKER);
+                    if (bid > 0) {
+                        book.limit(OrderSide.BUY, bid, quantity, MARKET_MAKER);
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Trades an immediate-or-cancel order at exactly one price level.
+         * @return The quantity filled.
+         */
+        private long take(OrderSide side, long price, long quantity, long owner) {
+            filled = 0;
+            long restingId = book.limit(side, price, quantity, owner);
+            if (restingId != OrderBook.NO_ORDER) {
+                book.cancel(restingId);
+            }
+            return filled;
+        }
+    }
+}
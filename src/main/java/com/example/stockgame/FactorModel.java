@@ -0,0 +1,149 @@
+package com.example.stockgame;
+
+/**
+ * Correlated price model driven by a market factor and one factor per sector.
+ * Every day a handful of factor shocks is drawn, and each stock's log return combines them with its own noise:
+ * <pre>
+ *     r = drift - variance / 2 + marketBeta * market + sectorBeta * sector[s] + idiosyncraticVolatility * noise
+ * </pre>
+ * Stocks of the same sector therefore move together, and every stock moves with the market, so diversifying
+ * only removes the idiosyncratic part of the risk. The correlation comes from the shared factors, so no
+ * covariance matrix is ever built and a tick stays one O(N) pass over the columns.
+ * <p>
+ * Betas and sectors are the factor exposure columns of the book, and the idiosyncratic volatility is set by
+ * each stock's {@link RiskLevel}. The factor shocks of a tick are derived from the book's seed and tick count.
+ * They are drawn once per tick by {@link #beforeTick}, before the book fans the rows out to parallel chunks,
+ * which only read them; ranges advanced outside a whole-book tick, such as a single stock's update, draw them on
+ * first use and reuse them for the rest of the tick. The model thus caches the shocks of one tick, so an instance
+ * must not be shared by books ticked on different threads.
+ * <p>
+ * Every row's sector must be below the model's sector count. A whole-book tick checks every row in
+ * {@link #beforeTick}, on the ticking thread, before any price moves; a range advanced on its own is checked as it
+ * goes. Prices never fall below the row's price floor.
+ */
+public class FactorModel implements PriceModel {
+    // Risk levels indexed by ordinal.
+    private static final RiskLevel[] RISK_LEVELS = RiskLevel.values();
+
+    // Number of sector factors; every row's sector must be below it.
+    private final int sectorCount;
+    // Expected annual return and annual volatilities of the market and sector factors.
+    private final double drift;
+    private final double marketVolatility;
+    private final double sectorVolatility;
+    // Daily drift, and the daily standard deviation of each factor.
+    private final double dailyDrift;
+    private final double dailyMarketVolatility;
+    private final double dailySectorVolatility;
+    // Daily idiosyncratic standard deviation and variance of each risk level, indexed by ordinal.
+    private final double[] dailyIdiosyncraticVolatilities = new double[RISK_LEVELS.length];
+    private final double[] dailyIdiosyncraticVariances = new double[RISK_LEVELS.length];
+    // Market shock followed by one shock per sector, drawn for the seed and tick below; no tick is -1.
+    private final double[] factorShocks;
+    private long shockSeed;
+    private int shockTick = -1;
+    // Random stream state the shocks are drawn from.
+    private final long[] shockState = new long[1];
+
+    /**
+     * Constructs the model.
+     * @param sectorCount The number of sectors; stocks must be in sectors 0 to sectorCount - 1.
+     * @param drift The expected annual return of every stock.
+     * @param marketVolatility The annual volatility of the market factor.
+     * @param sectorVolatility The annual volatility of each sector factor.
+     * @throws IllegalArgumentException if the sector count is out of range or a volatility is negative.
+     */
+    public FactorModel(int sectorCount, double drift, double marketVolatility, double sectorVolatility) {
+        if (sectorCount < 1 || sectorCount > Byte.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("Invalid sector count: " + sectorCount);
+        }
+        if (marketVolatility < 0 || sectorVolatility < 0) {
+            throw new IllegalArgumentException("Volatilities must not be negative");
+        }
+        this.sectorCount = sectorCount;
+        this.drift = drift;
+        this.marketVolatility = marketVolatility;
+        this.sectorVolatility = sectorVolatility;
+        this.factorShocks = new double[1 + sectorCount];
+        double dt = 1.0 / TRADING_DAYS_PER_YEAR;
+        this.dailyDrift = drift * dt;
+        this.dailyMarketVolatility = marketVolatility * Math.sqrt(dt);
+        this.dailySectorVolatility = sectorVolatility * Math.sqrt(dt);
+        for (RiskLevel riskLevel : RISK_LEVELS) {
+            double volatility = riskLevel.getIdiosyncraticVolatility() * Math.sqrt(dt);
+            dailyIdiosyncraticVolatilities[riskLevel.ordinal()] = volatility;
+            dailyIdiosyncraticVariances[riskLevel.ordinal()] = volatility * volatility;
+        }
+    }
+
+    // Getters for model parameters.
+    public int getSectorCount() { return sectorCount; }
+    public double getDrift() { return drift; }
+    public double getMarketVolatility() { return marketVolatility; }
+    public double getSectorVolatility() { return sectorVolatility; }
+
+    /**
+     * Checks every row's sector against the model and draws the tick's factor shocks.
+     * @throws IllegalStateException if a row is in a sector the model does not have; no price has moved then.
+     */
+    @Override
+    public void beforeTick(MarketBook book) {
+        for (int row = 0, size = book.size(); row < size; row++) {
+            if (book.getSector(row) >= sectorCount) {
+                throw unknownSector(book, row);
+            }
+        }
+        drawFactorShocks(book.getSeed(), book.getTicks());
+    }
+
+    @Override
+    public void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to) {
+        if (shockTick != book.getTicks() || shockSeed != book.getSeed()) {
+            drawFactorShocks(book.getSeed(), book.getTicks());
+        }
+        double[] factors = factorShocks;
+        double marketShock = factors[0] * dailyMarketVolatility;
+        double marketVariance = dailyMarketVolatility * dailyMarketVolatility;
+        double sectorVariance = dailySectorVolatility * dailySectorVolatility;
+        for (int row = from; row < to; row++) {
+            int sector = book.getSector(row);
+            if (sector >= sectorCount) {
+                throw unknownSector(book, row);
+            }
+            int riskLevel = book.getRiskLevel(row).ordinal();
+            double marketBeta = book.getMarketBeta(row);
+            double sectorBeta = book.getSectorBeta(row);
+            double variance = marketBeta * marketBeta * marketVariance + sectorBeta * sectorBeta * sectorVariance
+                    + dailyIdiosyncraticVariances[riskLevel];
+            double logReturn = dailyDrift - variance / 2
+                    + marketBeta * marketShock
+                    + sectorBeta * dailySectorVolatility * factors[1 + sector]
+                    + dailyIdiosyncraticVolatilities[riskLevel] * RandomStreams.nextGaussian(randomStates, row);
+            prices[row] = Math.max(prices[row] * Math.exp(logReturn), book.getPriceFloor(row));
+        }
+    }
+
+    /**
+     * Creates the error for a row whose sector the model does not have.
+     */
+    private IllegalStateException unknownSector(MarketBook book, int row) {
+        return new IllegalStateException("Stock " + book.getName(row) + " is in sector " + book.getSector(row)
+                + ", but the model has " + sectorCount + " sectors");
+    }
+
+    /**
+     * Draws the standard normal shocks of the market factor and every sector factor for one tick into
+     * {@link #factorShocks}. The shocks come from a stream of their own per tick, disjoint from the row streams,
+     * so they depend only on the seed and the tick.
+     * @param seed The seed of the book.
+     * @param tick The tick number.
+     */
+    private void drawFactorShocks(long seed, int tick) {
+        shockState[0] = RandomStreams.seed(seed, -1L - tick);
+        for (int factor = 0; factor < factorShocks.length; factor++) {
+            factorShocks[factor] = RandomStreams.nextGaussian(shockState, 0);
+        }
+        shockSeed = seed;
+        shockTick = tick;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.stockgame;
+
+/**
+ * Receives the trades an {@link OrderBook} makes while matching.
+ * It is called synchronously from the matching loop with primitives only, so reporting a fill allocates nothing.
+ */
+@FunctionalInterface
+public interface FillListener {
+    /**
+     * Called once for every match between an incoming order and a resting order.
+     * The listener must not place or cancel orders on the calling book.
+     * @param symbol The symbol of the book, as given to its constructor.
+     * @param makerOrderId The id of the resting order that was hit.
+     * @param makerOwner The owner of the resting order.
+     * @param takerOwner The owner of the incoming order.
+     * @param takerSide The side of the incoming order.
+     * @param price The price of the trade, in ticks: the price of the resting order.
+     * @param quantity The quantity traded.
+     */
+    void onFill(int symbol, long makerOrderId, long makerOwner, long takerOwner, OrderSide takerSide, long price, long quantity);
+}
@@ -0,0 +1,307 @@
+package com.example.stockgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide latency histograms and counters of the game: market ticks, trades, screen rebuilds and JavaFX
+ * frame layout. Values are exported through JMX by {@link #register()} and every measurement is also emitted as
+ * a JFR event, so a flight recording shows ticks and trades on the timeline of the threads that made them.
+ * <p>
+ * Instrumentation is switched at runtime, through {@link #setEnabled} or the {@code Enabled} JMX attribute, and
+ * starts disabled unless the {@code stockgame.metrics} system property is {@code true}. While disabled, an
+ * instrumented call costs one volatile read: {@link #start()} returns 0 without reading the clock and the
+ * {@code record} methods return at once. Recording never locks and never allocates beyond JFR's own events.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+    // Name the metrics are registered under in the platform MBean server.
+    public static final String OBJECT_NAME = "com.example.stockgame:type=GameMetrics";
+    // Metrics of the process.
+    private static final GameMetrics INSTANCE = new GameMetrics(Boolean.getBoolean("stockgame.metrics"));
+
+    // Whether measurements are taken.
+    private volatile boolean enabled;
+    // Latencies in nanoseconds.
+    private final LatencyHistogram tickLatency = new LatencyHistogram();
+    private final LatencyHistogram tradeLatency = new LatencyHistogram();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    private final LatencyHistogram frameTime = new LatencyHistogram();
+    // Counters since the last reset.
+    private final LongAdder tickCount = new LongAdder();
+    private final LongAdder tradeCount = new LongAdder();
+    private final LongAdder tickAllocatedBytes = new LongAdder();
+    // Ticks whose allocation could be measured.
+    private final LongAdder measuredTicks = new LongAdder();
+    private volatile long resetAt = System.nanoTime();
+
+    GameMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the metrics of the process.
+     * @return The shared instance.
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Exports the metrics of the process through the platform MBean server; does nothing if they already are.
+     * @throws IllegalStateException if the MBean cannot be registered.
+     */
+    public static synchronized void register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() { return enabled; }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation.
+     * @return The current time in nanoseconds to pass to a {@code record} method, 0 while disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far, to measure the allocation of a tick.
+     * @return The allocated bytes, -1 while disabled or if the JVM cannot tell, as on virtual threads.
+     */
+    public long threadAllocatedBytes() {
+        if (!enabled) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = AllocationCounter.THREADS;
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records a market tick.
+     * @param start The value of {@link #start()} before the tick.
+     * @param allocatedBefore The value of {@link #threadAllocatedBytes()} before the tick.
+     * @param dayNumber The day the tick moved to.
+     * @param stocks The number of stocks ticked.
+     */
+    public void recordTick(long start, long allocatedBefore, int dayNumber, int stocks) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        long allocatedAfter = threadAllocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        tickLatency.record(duration);
+        tickCount.increment();
+        if (allocated >= 0) {
+            tickAllocatedBytes.add(allocated);
+            measuredTicks.increment();
+        }
+        TickEvent event = new TickEvent();
+        if (event.shouldCommit()) {
+            event.dayNumber = dayNumber;
+            event.stocks = stocks;
+            event.allocatedBytes = allocated;
+            event.durationNanos = duration;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a trade, or a batch of trades.
+     * @param start The value of {@link #start()} before the trade.
+     * @param action The kind of trade, such as "buy" or "batch".
+     * @param legs The number of trades made together.
+     * @param success Whether the trade was made.
+     */
+    public void recordTrade(long start, String action, int legs, boolean success) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        tradeLatency.record(duration);
+        tradeCount.add(legs);
+        TradeEvent event = new TradeEvent();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.legs = legs;
+            event.success = success;
+            event.durationNanos = duration;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a rebuild of a screen's content.
+     * @param start The value of {@link #start()} before the rebuild.
+     * @param screen The name of the screen.
+     */
+    public void recordRender(long start, String screen) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        renderLatency.record(duration);
+        RenderEvent event = new RenderEvent();
+        if (event.shouldCommit()) {
+            event.screen = screen;
+            event.durationNanos = duration;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the CSS and layout pass of one JavaFX frame.
+     * @param start The value of {@link #start()} when the pass began.
+     */
+    public void recordFrame(long start) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        frameTime.record(System.nanoTime() - start);
+    }
+
+    // Getters for the histograms, for reports beyond the JMX attributes.
+    public LatencyHistogram getTickLatency() { return tickLatency; }
+    public LatencyHistogram getTradeLatency() { return tradeLatency; }
+    public LatencyHistogram getRenderLatency() { return renderLatency; }
+    public LatencyHistogram getFrameTime() { return frameTime; }
+
+    @Override
+    public long getTickCount() { return tickCount.sum(); }
+    @Override
+    public double getTicksPerSecond() { return perSecond(tickCount.sum()); }
+    @Override
+    public long getTickLatencyP50() { return tickLatency.getValueAtPercentile(50); }
+    @Override
+    public long getTickLatencyP99() { return tickLatency.getValueAtPercentile(99); }
+    @Override
+    public long getTickLatencyMax() { return tickLatency.getMax(); }
+    @Override
+    public long getTradeCount() { return tradeCount.sum(); }
+    @Override
+    public double getTradesPerSecond() { return perSecond(tradeCount.sum()); }
+    @Override
+    public long getTradeLatencyP50() { return tradeLatency.getValueAtPercentile(50); }
+    @Override
+    public long getTradeLatencyP99() { return tradeLatency.getValueAtPercentile(99); }
+    @Override
+    public long getRenderLatencyP50() { return renderLatency.getValueAtPercentile(50); }
+    @Override
+    public long getRenderLatencyP99() { return renderLatency.getValueAtPercentile(99); }
+    @Override
+    public long getFrameTimeP50() { return frameTime.getValueAtPercentile(50); }
+    @Override
+    public long getFrameTimeP99() { return frameTime.getValueAtPercentile(99); }
+
+    @Override
+    public double getAllocatedBytesPerTick() {
+        long ticks = measuredTicks.sum();
+        return ticks == 0 ? 0 : (double) tickAllocatedBytes.sum() / ticks;
+    }
+
+    @Override
+    public void reset() {
+        tickLatency.reset();
+        tradeLatency.reset();
+        renderLatency.reset();
+        frameTime.reset();
+        tickCount.reset();
+        tradeCount.reset();
+        tickAllocatedBytes.reset();
+        measuredTicks.reset();
+        resetAt = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ticks=%d (%.0f/s, %.0f B/tick) tick latency: %s%ntrades=%d (%.0f/s) trade latency: %s",
+                getTickCount(), getTicksPerSecond(), getAllocatedBytesPerTick(), tickLatency,
+                getTradeCount(), getTradesPerSecond(), tradeLatency);
+    }
+
+    /**
+     * Returns a count per second since the last reset.
+     */
+    private double perSecond(long count) {
+        long elapsed = System.nanoTime() - resetAt;
+        return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+    }
+
+    /**
+     * Holds the thread MXBean measuring allocations, so the management classes only load once metrics are used.
+     */
+    private static final class AllocationCounter {
+        // The bean with allocation counting enabled, or null if the JVM does not support it.
+        private static final com.sun.management.ThreadMXBean THREADS = create();
+
+        private static com.sun.management.ThreadMXBean create() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean counter && counter.isThreadAllocatedMemorySupported()) {
+                counter.setThreadAllocatedMemoryEnabled(true);
+                return counter;
+            }
+            return null;
+        }
+    }
+
+    @Name("com.example.stockgame.Tick")
+    @Label("Market Tick")
+    @Category("Stock Game")
+    static final class TickEvent extends Event {
+        @Label("Day")
+        int dayNumber;
+        @Label("Stocks")
+        int stocks;
+        @Label("Allocated Bytes")
+        @Description("Bytes allocated by the ticking thread, -1 if unknown")
+        long allocatedBytes;
+        @Label("Duration (ns)")
+        long durationNanos;
+    }
+
+    @Name("com.example.stockgame.Trade")
+    @Label("Trade")
+    @Category("Stock Game")
+    static final class TradeEvent extends Event {
+        @Label("Action")
+        String action;
+        @Label("Legs")
+        int legs;
+        @Label("Success")
+        boolean success;
+        @Label("Duration (ns)")
+        long durationNanos;
+    }
+
+    @Name("com.example.stockgame.Render")
+    @Label("Screen Rebuild")
+    @Category("Stock Game")
+    static final class RenderEvent extends Event {
+        @Label("Screen")
+        String screen;
+        @Label("Duration (ns)")
+        long durationNanos;
+    }
+}
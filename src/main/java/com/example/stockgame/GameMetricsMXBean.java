@@ -0,0 +1,42 @@
+package com.example.stockgame;
+
+/**
+ * Management interface of {@link GameMetrics}, exported through JMX as {@value GameMetrics#OBJECT_NAME}.
+ * Latencies are in nanoseconds and rates are averages since the last reset. Allocation is only known for
+ * ticks run on platform threads.
+ */
+public interface GameMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getTickCount();
+
+    double getTicksPerSecond();
+
+    long getTickLatencyP50();
+
+    long getTickLatencyP99();
+
+    long getTickLatencyMax();
+
+    double getAllocatedBytesPerTick();
+
+    long getTradeCount();
+
+    double getTradesPerSecond();
+
+    long getTradeLatencyP50();
+
+    long getTradeLatencyP99();
+
+    long getRenderLatencyP50();
+
+    long getRenderLatencyP99();
+
+    long getFrameTimeP50();
+
+    long getFrameTimeP99();
+
+    void reset();
+}
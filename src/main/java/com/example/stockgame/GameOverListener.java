@@ -0,0 +1,16 @@
+package com.example.stockgame;
+
+/**
+ * Receives the end of a game from a {@link MarketEngine}.
+ * It is called exactly once per game, on the thread that advanced the engine to its last day and while that
+ * thread still holds whatever lock it advanced the engine under, so it should hand the result off rather than
+ * do lengthy work.
+ */
+@FunctionalInterface
+public interface GameOverListener {
+    /**
+     * Called once the game has been settled.
+     * @param result The outcome of the game.
+     */
+    void onGameOver(GameResult result);
+}
@@ -0,0 +1,52 @@
+package com.example.stockgame;
+
+import java.math.RoundingMode;
+
+/**
+ * Outcome of a settled game: the cash left after every position was sold at the final prices, and the score
+ * derived from it.
+ */
+public class GameResult {
+    // Day the game ended on.
+    private final int dayNumber;
+    // Cash the player started and ended with, in micro-cents.
+    private final long startingCash;
+    private final long finalCash;
+
+    /**
+     * Constructs a result.
+     * @param dayNumber The day the game ended on.
+     * @param startingCash The cash the player started with, in micro-cents.
+     * @param finalCash The cash the player ended with, in micro-cents.
+     */
+    public GameResult(int dayNumber, long startingCash, long finalCash) {
+        this.dayNumber = dayNumber;
+        this.startingCash = startingCash;
+        this.finalCash = finalCash;
+    }
+
+    // Getters for result properties.
+    public int getDayNumber() { return dayNumber; }
+    public long getFinalCashMicros() { return finalCash; }
+    public double getFinalCash() { return Money.toDollars(finalCash); }
+
+    /**
+     * Returns the score of the game: the profit in basis points of the starting cash, rounded down.
+     * Breaking even scores 0 and doubling the starting cash scores 10000. The product is taken on 128 bits, so
+     * any profit the cash can hold scores without overflow.
+     * @return The score, negative after a loss.
+     */
+    public long getScore() {
+        long profit = finalCash - startingCash;
+        if (profit >= 0) {
+            return Money.multiplyDivide(profit, 10_000L, startingCash, RoundingMode.FLOOR);
+        }
+        // Rounding the loss up rounds the score down.
+        return -Money.multiplyDivide(-profit, 10_000L, startingCash, RoundingMode.CEILING);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("day %d, final cash $%.2f, score %d", dayNumber, getFinalCash(), getScore());
+    }
+}
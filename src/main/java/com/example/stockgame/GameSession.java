@@ -0,0 +1,193 @@
+package com.example.stockgame;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * One interactive headless game hosted by a {@link GameSessionHost}.
+ * The game loop runs on a thread of its own, normally a virtual thread, and blocks between player commands:
+ * it restarts the engine, then executes commands (trades and day advances) from the session's queue in order
+ * until the game is over or the player quits. Commands are submitted from any thread and answered through
+ * futures; the engine itself is only ever touched by the loop.
+ */
+public class GameSession {
+    // Identifier of the session within its host.
+    private final long id;
+    // Seed of the session's market.
+    private final long seed;
+    // Host recording the session's metrics.
+    private final GameSessionHost host;
+    // Engine of the game, confined to the loop thread.
+    private final MarketEngine engine = new MarketEngine();
+    // Commands waiting for the loop.
+    private final BlockingQueue<Command<?>> commands = new LinkedBlockingQueue<>();
+    // Completes with the final net worth when the game ends.
+    private final CompletableFuture<Double> result = new CompletableFuture<>();
+    // Set once no more commands are accepted.
+    private volatile boolean finished;
+
+    GameSession(long id, long seed, GameSessionHost host) {
+        this.id = id;
+        this.seed = seed;
+        this.host = host;
+    }
+
+    // Getters for session properties.
+    public long getId() { return id; }
+    public long getSeed() { return seed; }
+    public boolean isFinished() { return finished; }
+
+    /**
+     * Returns the outcome of the game.
+     *
+     * @return Completes with the final net worth when the game is over or the player quits, or exceptionally if
+     *         the session failed or was stopped.
+     */
+    public CompletableFuture<Double> getResult() {
+        return result;
+    }
+
+    /**
+     * Queues a command on the session's engine.
+     *
+     * @param action The command; it runs on the loop thread and must not keep the engine.
+     * @return Completes with the command's result, or exceptionally if the session has finished.
+     */
+    public <T> CompletableFuture<T> submit(Function<MarketEngine, T> action) {
+        Command<T> command = new Command<>(action, System.nanoTime());
+        if (finished) {
+            command.future.completeExceptionally(new IllegalStateException("Session " + id + " has finished"));
+        } else {
+            commands.add(command);
+            // The loop may have finished and drained the queue in the meantime.
+            if (finished && commands.remove(command)) {
+                command.future.completeExceptionally(new IllegalStateException("Session " + id + " has finished"));
+            }
+        }
+        return command.future;
+    }
+
+    /**
+     * Buys a stock.
+     *
+     * @param symbol The name of the stock.
+     * @param cash The amount of money to spend.
+     * @return Whether the purchase was made.
+     */
+    public CompletableFuture<Boolean> buy(String symbol, double cash) {
+        return submit(engine -> engine.buy(symbol, cash));
+    }
+
+    /**
+     * Sells a stock.
+     *
+     * @param symbol The name of the stock.
+     * @param cash The amount of money to receive.
+     * @return Whether the sale was made.
+     */
+    public CompletableFuture<Boolean> sell(String symbol, double cash) {
+        return submit(engine -> engine.sell(symbol, cash));
+    }
+
+    /**
+     * Makes a batch of trades atomically.
+     *
+     * @param legs The trades, sells listed before the buys they fund.
+     * @return -1 if every trade was made, otherwise the index of the first trade that cannot be made.
+     */
+    public CompletableFuture<Integer> trade(List<TradeLeg> legs) {
+        return submit(engine -> engine.trade(legs));
+    }
+
+    /**
+     * Moves the game to the next day.
+     *
+     * @return The new day number.
+     */
+    public CompletableFuture<Integer> nextDay() {
+        return submit(engine -> {
+            engine.advanceDay();
+            return engine.getDayNumber();
+        });
+    }
+
+    /**
+     * Ends the game early; commands queued before it still run.
+     *
+     * @return Completes when the loop has stopped.
+     */
+    public CompletableFuture<Void> quit() {
+        return submit(engine -> {
+            finished = true;
+            return null;
+        });
+    }
+
+    /**
+     * Game loop: restarts the engine and executes commands until the game is over or the player quits.
+     * If the loop fails outside a command, the result completes exceptionally and queued commands are rejected.
+     */
+    void run() {
+        try {
+            engine.restart(seed);
+            while (!finished) {
+                Command<?> command = commands.take();
+                command.execute(engine);
+                host.commandCompleted(System.nanoTime() - command.submittedAt);
+                if (engine.isGameOver()) {
+                    finished = true;
+                }
+            }
+            result.complete(engine.getPortfolio().getNetWorth());
+        } catch (InterruptedException e) {
+            finished = true;
+            result.completeExceptionally(e);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            // The loop itself failed, such as in the restart: the player learns it through the result.
+            finished = true;
+            result.completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            rejectPendingCommands();
+            host.sessionEnded(this);
+        }
+    }
+
+    /**
+     * Fails the commands that arrived after the game ended.
+     */
+    private void rejectPendingCommands() {
+        Command<?> command;
+        while ((command = commands.poll()) != null) {
+            command.future.completeExceptionally(new IllegalStateException("Session " + id + " has finished"));
+        }
+    }
+
+    /**
+     * A queued command with its result and the time it was submitted, for latency metrics.
+     */
+    private static final class Command<T> {
+        private final Function<MarketEngine, T> action;
+        private final long submittedAt;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Command(Function<MarketEngine, T> action, long submittedAt) {
+            this.action = action;
+            this.submittedAt = submittedAt;
+        }
+
+        private void execute(MarketEngine engine) {
+            try {
+                future.complete(action.apply(engine));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.stockgame;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many concurrent headless {@link GameSession}s, each running its game loop on a virtual thread.
+ * A session waiting for its player parks its virtual thread without holding a platform thread, so the number
+ * of sessions is bounded by memory rather than by threads. The host counts active sessions and records the
+ * latency of every command from submission to completion.
+ */
+public class GameSessionHost implements AutoCloseable {
+    // Runs every session loop on a virtual thread of its own.
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Sessions that have not finished yet, by id.
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    // Id of the next session.
+    private final AtomicLong nextId = new AtomicLong();
+    // Metrics of the host.
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger peakActiveSessions = new AtomicInteger();
+    private final AtomicLong completedSessions = new AtomicLong();
+    private final LatencyHistogram commandLatency = new LatencyHistogram();
+
+    // Getters for host metrics.
+    public int getActiveSessions() { return activeSessions.get(); }
+    public int getPeakActiveSessions() { return peakActiveSessions.get(); }
+    public long getCompletedSessions() { return completedSessions.get(); }
+    public LatencyHistogram getCommandLatency() { return commandLatency; }
+
+    /**
+     * Starts a new game.
+     *
+     * @param seed The seed of the game's market.
+     * @return The session, accepting commands right away.
+     */
+    public GameSession open(long seed) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), seed, this);
+        sessions.put(session.getId(), session);
+        peakActiveSessions.accumulateAndGet(activeSessions.incrementAndGet(), Math::max);
+        executor.execute(session::run);
+        return session;
+    }
+
+    /**
+     * Looks up a running session.
+     *
+     * @param id The id of the session.
+     * @return The session, or null if it has finished or never existed.
+     */
+    public GameSession getSession(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Stops every session; their results complete exceptionally.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    void commandCompleted(long latencyNanos) {
+        commandLatency.record(latencyNanos);
+    }
+
+    void sessionEnded(GameSession session) {
+        sessions.remove(session.getId());
+        activeSessions.decrementAndGet();
+        completedSessions.incrementAndGet();
+    }
+
+    /**
+     * Plays many concurrent sessions to the end, each driven by a simulated player on a virtual thread of its
+     * own that trades a little every day, and prints the peak number of active sessions and command latencies.
+     *
+     * @param args The number of sessions (default 100,000).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        CountDownLatch opened = new CountDownLatch(count);
+        CountDownLatch done = new CountDownLatch(count);
+        long start = System.nanoTime();
+        try (GameSessionHost host = new GameSessionHost();
+             ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                long seed = i;
+                players.execute(() -> {
+                    try {
+                        GameSession session = host.open(seed);
+                        SplittableRandom random = new SplittableRandom(seed);
+                        opened.countDown();
+                        // Every player waits for all sessions to be open, so they are all live at once.
+                        opened.await();
+                        int day = 1;
+                        while (day < MarketEngine.GAME_LENGTH) {
+                            String symbol = session.submit(engine -> engine.getBook().getName(random.nextInt(engine.getBook().size()))).join();
+                            session.buy(symbol, 10 + random.nextInt(50)).join();
+                            day = session.nextDay().join();
+                        }
+                        session.getResult().join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("sessions=%d peak active=%d completed=%d in %.1f s%n", count, host.getPeakActiveSessions(),
+                    host.getCompletedSessions(), seconds);
+            System.out.println("command latency: " + host.getCommandLatency());
+            if (GameMetrics.get().isEnabled()) {
+                System.out.println(GameMetrics.get());
+            }
+        }
+    }
+}
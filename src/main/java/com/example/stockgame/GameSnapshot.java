@@ -0,0 +1,148 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of a whole {@link MarketEngine}: the day, every column of the market including the state of
+ * each row's random stream, and the portfolio with its running valuation. Restoring a snapshot reproduces the
+ * game exactly, so the restored game continues with the same prices the original would have produced with the
+ * engine's random price model. The snapshot holds no history: the engine's analytics and order books start over
+ * from the restored day.
+ * <p>
+ * Columns are copied in bulk between the arrays and a little-endian buffer, 8-byte columns first, so every
+ * column starts aligned. Files are memory-mapped, so no intermediate heap buffer is involved, and a buffer
+ * can also be shipped to another node as it is.
+ */
+public final class GameSnapshot {
+    // Identifies a snapshot ("SGSN").
+    public static final int MAGIC = 0x5347534e;
+    // Version of the snapshot layout.
+    public static final int VERSION = 4;
+    // Size of the header: magic, version, day number and a reserved int.
+    private static final int HEADER_SIZE = 16;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * Returns the size of the snapshot of an engine.
+     * @param engine The engine.
+     * @return The number of bytes {@link #write(MarketEngine, ByteBuffer)} puts.
+     */
+    public static long size(MarketEngine engine) {
+        return HEADER_SIZE + engine.getBook().snapshotSize() + engine.getPortfolio().snapshotSize();
+    }
+
+    /**
+     * Writes the snapshot of an engine to a file, replacing its content.
+     * @param engine The engine to save; it must not change while it is written.
+     * @param path The file to write.
+     * @throws IOException if the file cannot be written or the snapshot exceeds 2 GiB.
+     */
+    public static void save(MarketEngine engine, Path path) throws IOException {
+        long size = size(engine);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large: " + size + " bytes");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            write(engine, buffer);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Restores an engine from a snapshot file.
+     * @param path The file to read.
+     * @param engine The engine to overwrite.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static void load(Path path, MarketEngine engine) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), engine);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Corrupt snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * Writes the snapshot of an engine at the position of a buffer, advancing it.
+     * @param engine The engine to save; it must not change while it is written.
+     * @param buffer The buffer, with at least {@link #size(MarketEngine)} bytes remaining.
+     */
+    public static void write(MarketEngine engine, ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(engine.getDayNumber()).putInt(0);
+        engine.getBook().writeSnapshot(buffer);
+        engine.getPortfolio().writeSnapshot(buffer);
+    }
+
+    /**
+     * Restores an engine from the snapshot at the position of a buffer, advancing it.
+     * The engine stops recording prices, as its market is replaced.
+     * @param buffer The buffer holding the snapshot.
+     * @param engine The engine to overwrite.
+     * @throws IllegalArgumentException if the buffer does not hold a valid snapshot.
+     */
+    public static void read(ByteBuffer buffer, MarketEngine engine) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a game snapshot");
+        }
+        int dayNumber = buffer.getInt();
+        buffer.getInt();
+        if (dayNumber < 1) {
+            throw new IllegalArgumentException("Invalid day: " + dayNumber);
+        }
+        engine.restore(dayNumber, buffer);
+    }
+
+    // Bulk copies between columns and a buffer; each advances the buffer past the copied values.
+
+    static void putDoubles(ByteBuffer buffer, double[] values, int count) {
+        buffer.asDoubleBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * Double.BYTES);
+    }
+
+    static void getDoubles(ByteBuffer buffer, double[] values, int count) {
+        buffer.asDoubleBuffer().get(values, 0, count);
+        buffer.position(buffer.position() + count * Double.BYTES);
+    }
+
+    static void putLongs(ByteBuffer buffer, long[] values, int count) {
+        buffer.asLongBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * Long.BYTES);
+    }
+
+    static void getLongs(ByteBuffer buffer, long[] values, int count) {
+        buffer.asLongBuffer().get(values, 0, count);
+        buffer.position(buffer.position() + count * Long.BYTES);
+    }
+
+    static void putInts(ByteBuffer buffer, int[] values, int count) {
+        buffer.asIntBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+    }
+
+    static void getInts(ByteBuffer buffer, int[] values, int count) {
+        buffer.asIntBuffer().get(values, 0, count);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+    }
+
+    /**
+     * Returns a size rounded up so the next section starts 8-byte aligned.
+     * @param bytes The size of a section.
+     * @return The padded size.
+     */
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
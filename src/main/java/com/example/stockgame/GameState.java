@@ -0,0 +1,14 @@
+package com.example.stockgame;
+
+/**
+ * Lifecycle of a game in a {@link MarketEngine}. A game only moves forward through these states, on day
+ * transitions, until it is restarted.
+ */
+public enum GameState {
+    // Trading days before the last one.
+    RUNNING,
+    // The last day on which the player can trade; the next day closes the game.
+    FINAL_DAY,
+    // The game is over: every position was sold at the final prices and the result is known.
+    SETTLED
+}
@@ -0,0 +1,45 @@
+package com.example.stockgame;
+
+/**
+ * Geometric Brownian motion: the log price takes a normally distributed step every day, so prices stay
+ * positive and daily returns are log-normal. The step is the exact solution of
+ * {@code dS = mu S dt + sigma S dW} over one trading day, with the constant part of the exponent computed once.
+ * Prices never fall below the row's price floor.
+ */
+public class GeometricBrownianMotionModel implements PriceModel {
+    // Expected annual return and annual volatility.
+    private final double drift;
+    private final double volatility;
+    // Deterministic part and scale of the random part of the daily log return.
+    private final double logDrift;
+    private final double logVolatility;
+
+    /**
+     * Constructs the model.
+     * @param drift The expected annual return, for example 0.07 for 7%.
+     * @param volatility The annual volatility, for example 0.2 for 20%.
+     * @throws IllegalArgumentException if the volatility is negative.
+     */
+    public GeometricBrownianMotionModel(double drift, double volatility) {
+        if (volatility < 0) {
+            throw new IllegalArgumentException("Negative volatility: " + volatility);
+        }
+        this.drift = drift;
+        this.volatility = volatility;
+        double dt = 1.0 / TRADING_DAYS_PER_YEAR;
+        this.logDrift = (drift - volatility * volatility / 2) * dt;
+        this.logVolatility = volatility * Math.sqrt(dt);
+    }
+
+    // Getters for model parameters.
+    public double getDrift() { return drift; }
+    public double getVolatility() { return volatility; }
+
+    @Override
+    public void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to) {
+        for (int row = from; row < to; row++) {
+            double logReturn = logDrift + logVolatility * RandomStreams.nextGaussian(randomStates, row);
+            prices[row] = Math.max(prices[row] * Math.exp(logReturn), book.getPriceFloor(row));
+        }
+    }
+}
@@ -15,9 +15,17 @@ public class HighRiskStock extends Stock {
      * @param amountOwned The initial amount of this stock owned.
      */
     public HighRiskStock(String name, double price, double amountOwned) {
-        // Initializes the high-risk stock with predefined parameters:
-        // Minimum fluctuation: 75%, Maximum fluctuation: 150%, Growth bias: 0%, Price floor: 0
-        super(name, price, amountOwned, 75, 150, 0, 0);
+        super(name, price, amountOwned, RiskLevel.HIGH);
+    }
+
+    /**
+     * Constructs a view over a high-risk stock held in a market book.
+     *
+     * @param book The book holding the stock.
+     * @param row The row of the stock in the book.
+     */
+    public HighRiskStock(MarketBook book, int row) {
+        super(book, row);
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Replays a {@link PriceHistory} in place of a random process: every tick sets each stock to its next recorded
+ * close. The history is read one day per tick, just before the tick, so only one day of it is ever in memory.
+ * <p>
+ * {@link #install} builds the market from the first day of the history: every symbol quoted that day becomes
+ * a stock listed at its close, with the risk level whose volatility is closest to the one the day's range
+ * implies (the Parkinson estimate from high and low). Symbols first quoted later are ignored; stocks not quoted
+ * on a day keep their price, and once the history runs out every price stays where it was.
+ */
+public class HistoricalPriceModel implements PriceModel {
+    // Turns the squared log range of a day into a variance (Parkinson): 1 / (4 ln 2).
+    private static final double PARKINSON_FACTOR = 1 / (4 * Math.log(2));
+
+    // History being replayed.
+    private final PriceHistory history;
+    // Book the history is replayed into.
+    private final MarketBook book;
+    // Close of each row on the day being replayed, NaN if the row was not quoted.
+    private final double[] closes;
+    // Receives the bars of a day into the closes.
+    private final BarListener closeRecorder;
+    // Whether the history has run out.
+    private boolean exhausted;
+
+    private HistoricalPriceModel(PriceHistory history, MarketBook book) {
+        this.history = history;
+        this.book = book;
+        this.closes = new double[book.size()];
+        SymbolIndex symbols = book.getSymbols();
+        this.closeRecorder = (symbolCode, open, high, low, close) -> {
+            int row = symbols.rowOf(symbolCode);
+            if (row >= 0 && row < closes.length && close >= 0) {
+                closes[row] = close;
+            }
+        };
+    }
+
+    /**
+     * Replaces the content of a book with the stocks of the first day of a history, and makes the book replay
+     * the following days on its ticks.
+     * @param book The book to fill; its rows are cleared.
+     * @param history The history, positioned before its first day. It stays open and owned by the caller.
+     * @return The model now installed in the book.
+     * @throws IOException if the history cannot be read, or holds no day with a valid bar.
+     */
+    public static HistoricalPriceModel install(MarketBook book, PriceHistory history) throws IOException {
+        book.clear(book.getSeed());
+        SymbolIndex symbols = book.getSymbols();
+        history.nextDay((symbolCode, open, high, low, close) -> {
+            if (symbolCode != SymbolCodes.NONE && close >= 0 && symbols.rowOf(symbolCode) < 0) {
+                book.add(symbolCode, close, RiskLevel.nearest(impliedVolatility(high, low)));
+            }
+        });
+        if (book.size() == 0) {
+            throw new IOException("The history has no valid bar on its first day");
+        }
+        HistoricalPriceModel model = new HistoricalPriceModel(history, book);
+        book.setPriceModel(model);
+        return model;
+    }
+
+    // Getters for replay progress.
+    public boolean isExhausted() { return exhausted; }
+    public int getDate() { return history.getDate(); }
+
+    /**
+     * Reads the next day of the history.
+     * @throws UncheckedIOException if the history cannot be read.
+     */
+    @Override
+    public void beforeTick(MarketBook book) {
+        Arrays.fill(closes, Double.NaN);
+        if (exhausted) {
+            return;
+        }
+        try {
+            exhausted = !history.nextDay(closeRecorder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to) {
+        if (book != this.book) {
+            throw new IllegalStateException("The model replays into another book");
+        }
+        for (int row = from; row < to; row++) {
+            double close = closes[row];
+            if (!Double.isNaN(close)) {
+                prices[row] = close;
+            }
+        }
+    }
+
+    /**
+     * Estimates the annual volatility of a stock from the range of one day (Parkinson).
+     * @return The volatility, 0 if the day has no range.
+     */
+    static double impliedVolatility(double high, double low) {
+        if (!(high > low) || !(low > 0)) {
+            return 0;
+        }
+        double range = Math.log(high / low);
+        return Math.sqrt(range * range * PARKINSON_FACTOR * TRADING_DAYS_PER_YEAR);
+    }
+}
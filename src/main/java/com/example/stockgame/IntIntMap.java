@@ -0,0 +1,173 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Open-addressing hash map from non-negative int keys to int values.
+ * Keys and values are stored in primitive arrays with linear probing, so lookups never box and
+ * removals use backward-shift deletion instead of tombstones.
+ */
+public final class IntIntMap {
+    // Marker of an unused slot.
+    private static final int EMPTY = -1;
+    // Value returned for keys that are not in the map.
+    public static final int MISSING = -1;
+
+    // Slots of the table.
+    private int[] keys;
+    private int[] values;
+    // Number of keys in the map.
+    private int size;
+    // Capacity of the table minus one; the capacity is always a power of two.
+    private int mask;
+
+    /**
+     * Constructs an empty map able to hold the given number of keys before growing.
+     * @param expectedSize The number of keys expected.
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     * @return The size of the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the value of a key.
+     * @param key The key to look up.
+     * @return The value of the key, or {@link #MISSING} if the key is not in the map.
+     */
+    public int get(int key) {
+        int slot = hash(key) & mask;
+        int current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     * @param key The key, which must not be negative.
+     * @param value The value.
+     */
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+        int slot = hash(key) & mask;
+        int current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key to remove.
+     * @return The value the key had, or {@link #MISSING} if the key was not in the map.
+     */
+    public int remove(int key) {
+        int gap = hash(key) & mask;
+        int current;
+        while ((current = keys[gap]) != key) {
+            if (current == EMPTY) {
+                return MISSING;
+            }
+            gap = (gap + 1) & mask;
+        }
+        int removed = values[gap];
+        // Shift back every following entry that would no longer be reachable across the gap.
+        int next = (gap + 1) & mask;
+        while ((current = keys[next]) != EMPTY) {
+            int ideal = hash(current) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = current;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Passes every key of the map to an action, in no particular order.
+     * @param action The action to run for each key.
+     */
+    public void forEachKey(IntConsumer action) {
+        for (int key : keys) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Removes every key while keeping the allocated table.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    /**
+     * Moves every entry into a table of a new capacity.
+     * @param capacity The new capacity, a power of two.
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key so consecutive keys do not cluster.
+     * @param key The key.
+     * @return The hash of the key.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
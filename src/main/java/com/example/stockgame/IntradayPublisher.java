@@ -0,0 +1,234 @@
+package com.example.stockgame;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.IntStream;
+
+/**
+ * Intraday mode of the market: advances the engine one day at a time, like {@link MarketEngine#advanceDay()},
+ * and streams the path every price took through the day as a series of {@link IntradayStep}s.
+ * <p>
+ * The closing prices are produced by the engine's regular daily tick, so the close of every day is exactly what
+ * the game computes without intraday mode. The steps in between follow a Brownian bridge in log price from the
+ * open to that close, drawn from random streams of their own, with the volatility of each stock's risk level.
+ * Steps are generated one after the other and handed to a {@link SubmissionPublisher}, which blocks
+ * {@link #advanceDay()} while a subscriber's buffer is full, so a slow subscriber holds back production instead
+ * of letting steps pile up in memory.
+ * <p>
+ * Memory is bounded by the buffer capacity, not by the number of subscribers: subscribers share the same steps, a
+ * subscriber holds at most its buffered steps and the one it is processing, and the publisher blocks as soon as
+ * any buffer is full, so no more than capacity + 1 published steps are ever live. Their price arrays are recycled
+ * from a ring of capacity + 2 arrays of the book's size, one more for the step being generated, so a day allocates
+ * nothing once the ring is built. The ring costs (capacity + 2) * 8 bytes per stock, about 80 MB for a million
+ * stocks with the default capacity of {@value #DEFAULT_BUFFER_CAPACITY}. In exchange, a step's prices are only
+ * valid until its subscriber's {@code onNext} returns; subscribers keeping them must copy them with
+ * {@link IntradayStep#copyPrices()}.
+ * <p>
+ * {@link #advanceDay()} must be called from one thread at a time. It holds the engine's monitor only while the
+ * day is ticked, not while steps are published.
+ */
+public class IntradayPublisher implements Flow.Publisher<IntradayStep>, AutoCloseable {
+    // Minute bars of a regular trading session.
+    public static final int MINUTES_PER_DAY = 390;
+    // Steps buffered per subscriber by default; a day is published in bursts, so a deep buffer buys little.
+    public static final int DEFAULT_BUFFER_CAPACITY = 8;
+    // Books smaller than this have their steps generated on the calling thread.
+    private static final int PARALLEL_THRESHOLD = 16_384;
+    // Number of rows each parallel task generates.
+    private static final int CHUNK_SIZE = 4_096;
+
+    // Engine whose days are advanced.
+    private final MarketEngine engine;
+    // Number of steps in a day.
+    private final int stepsPerDay;
+    // Publisher handing the steps to the subscribers.
+    private final SubmissionPublisher<IntradayStep> publisher;
+    // Per row: open and close prices of the day, current log distance to the close and bridge volatility.
+    private double[] openPrices = new double[0];
+    private double[] closePrices = new double[0];
+    private double[] logDistances = new double[0];
+    private double[] stepVolatilities = new double[0];
+    // Random stream state of each row's bridge.
+    private long[] bridgeStates = new long[0];
+    // Price arrays of the published steps, reused in turn, and the index of the next one.
+    private final double[][] stepPrices;
+    private int nextStepPrices;
+
+    /**
+     * Constructs a publisher delivering steps on the common fork-join pool with a buffer of
+     * {@value #DEFAULT_BUFFER_CAPACITY} steps per subscriber.
+     *
+     * @param engine The engine whose days are advanced.
+     * @param stepsPerDay The number of steps in a day, for example {@link #MINUTES_PER_DAY}.
+     */
+    public IntradayPublisher(MarketEngine engine, int stepsPerDay) {
+        this(engine, stepsPerDay, ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Constructs a publisher.
+     *
+     * @param engine The engine whose days are advanced.
+     * @param stepsPerDay The number of steps in a day, for example {@link #MINUTES_PER_DAY}.
+     * @param executor The executor subscribers are called on.
+     * @param maxBufferCapacity The number of steps buffered per subscriber before {@link #advanceDay()} blocks,
+     *                          rounded up to a power of two; each step costs 8 bytes per stock.
+     * @throws IllegalArgumentException if the number of steps or the buffer capacity is not positive.
+     */
+    public IntradayPublisher(MarketEngine engine, int stepsPerDay, Executor executor, int maxBufferCapacity) {
+        if (stepsPerDay < 1) {
+            throw new IllegalArgumentException("Invalid number of steps per day: " + stepsPerDay);
+        }
+        this.engine = engine;
+        this.stepsPerDay = stepsPerDay;
+        this.publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
+        this.stepPrices = new double[publisher.getMaxBufferCapacity() + 2][0];
+    }
+
+    // Getters for publisher properties.
+    public int getStepsPerDay() { return stepsPerDay; }
+    public int getNumberOfSubscribers() { return publisher.getNumberOfSubscribers(); }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super IntradayStep> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Advances the engine by one day and publishes every step of it, the last one holding the closing prices.
+     * Blocks while a subscriber's buffer is full.
+     */
+    public void advanceDay() {
+        int day;
+        int size;
+        long daySeed;
+        synchronized (engine) {
+            MarketBook book = engine.getBook();
+            size = book.size();
+            ensureCapacity(size);
+            for (int row = 0; row < size; row++) {
+                openPrices[row] = book.getPrice(row);
+                stepVolatilities[row] = book.getRiskLevel(row).getIdiosyncraticVolatility()
+                        / Math.sqrt((double) PriceModel.TRADING_DAYS_PER_YEAR * stepsPerDay);
+            }
+            daySeed = RandomStreams.seed(book.getSeed(), Long.MIN_VALUE + book.getTicks());
+            engine.advanceDay();
+            day = engine.getDayNumber();
+            for (int row = 0; row < size; row++) {
+                closePrices[row] = book.getPrice(row);
+            }
+        }
+
+        forEachChunk(size, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                bridgeStates[row] = RandomStreams.seed(daySeed, row);
+                logDistances[row] = Math.log(openPrices[row] / closePrices[row]);
+            }
+        });
+        for (int step = 1; step < stepsPerDay; step++) {
+            double[] prices = nextStepPrices(size);
+            int remaining = stepsPerDay - step + 1;
+            forEachChunk(size, (from, to) -> bridgeStep(prices, remaining, from, to));
+            publisher.submit(new IntradayStep(day, step, stepsPerDay, prices));
+        }
+        double[] prices = nextStepPrices(size);
+        System.arraycopy(closePrices, 0, prices, 0, size);
+        publisher.submit(new IntradayStep(day, stepsPerDay, stepsPerDay, prices));
+    }
+
+    /**
+     * Completes every subscription once the steps already published have been delivered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    /**
+     * Moves the bridge of a range of rows one step closer to the close.
+     * The log distance to the close shrinks by its share of the remaining steps, plus noise whose variance
+     * shrinks in the same way, so the path always arrives exactly at the close.
+     *
+     * @param prices Receives the price of every row after the step.
+     * @param remaining The number of steps left in the day, including this one.
+     * @param from The first row, inclusive.
+     * @param to The last row, exclusive.
+     */
+    private void bridgeStep(double[] prices, int remaining, int from, int to) {
+        double shrink = (remaining - 1) / (double) remaining;
+        double noiseScale = Math.sqrt(shrink);
+        for (int row = from; row < to; row++) {
+            double open = openPrices[row];
+            double close = closePrices[row];
+            if (open <= 0 || close <= 0) {
+                // No log path through a zero price: move in a straight line.
+                prices[row] = open + (close - open) * (stepsPerDay - remaining + 1) / stepsPerDay;
+                continue;
+            }
+            double distance = logDistances[row] * shrink
+                    + stepVolatilities[row] * noiseScale * RandomStreams.nextGaussian(bridgeStates, row);
+            logDistances[row] = distance;
+            prices[row] = close * Math.exp(distance);
+        }
+    }
+
+    /**
+     * Runs an action over chunks of rows, in parallel for large books.
+     *
+     * @param size The number of rows.
+     * @param action The action, called with the first row inclusive and the last row exclusive of each chunk.
+     */
+    private static void forEachChunk(int size, RowRange action) {
+        if (size < PARALLEL_THRESHOLD) {
+            action.run(0, size);
+            return;
+        }
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            action.run(from, Math.min(from + CHUNK_SIZE, size));
+        });
+    }
+
+    /**
+     * Takes the next price array of the ring. It belonged to a step published capacity + 2 steps ago, which no
+     * subscriber can still be processing.
+     *
+     * @param size The number of rows.
+     * @return An array of exactly that many prices.
+     */
+    private double[] nextStepPrices(int size) {
+        double[] prices = stepPrices[nextStepPrices];
+        if (prices.length != size) {
+            prices = new double[size];
+            stepPrices[nextStepPrices] = prices;
+        }
+        nextStepPrices = (nextStepPrices + 1) % stepPrices.length;
+        return prices;
+    }
+
+    /**
+     * Grows the per-row arrays to hold a book of the given size.
+     *
+     * @param size The number of rows.
+     */
+    private void ensureCapacity(int size) {
+        if (openPrices.length < size) {
+            openPrices = new double[size];
+            closePrices = new double[size];
+            logDistances = new double[size];
+            stepVolatilities = new double[size];
+            bridgeStates = new long[size];
+        }
+    }
+
+    /**
+     * Action on a range of rows.
+     */
+    @FunctionalInterface
+    private interface RowRange {
+        void run(int from, int to);
+    }
+}
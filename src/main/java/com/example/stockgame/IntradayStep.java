@@ -0,0 +1,57 @@
+package com.example.stockgame;
+
+/**
+ * Prices of every stock at one sub-step of a trading day, as published by an {@link IntradayPublisher}.
+ * The last step of a day holds exactly the day's closing prices.
+ * <p>
+ * The publisher recycles the prices array of a step once every subscriber is done with it, so the prices are only
+ * valid while the step is being delivered; {@link #copyPrices()} keeps them beyond.
+ */
+public class IntradayStep {
+    // Day the step belongs to, and position of the step within the day, from 1 to the number of steps.
+    private final int day;
+    private final int step;
+    private final int stepsPerDay;
+    // Price of every book row at the end of the step.
+    private final double[] prices;
+
+    /**
+     * Constructs a step.
+     *
+     * @param day The day the step belongs to.
+     * @param step The position of the step within the day, from 1.
+     * @param stepsPerDay The number of steps in a day.
+     * @param prices The price of every book row at the end of the step; the step reads the array without copying.
+     */
+    public IntradayStep(int day, int step, int stepsPerDay, double[] prices) {
+        this.day = day;
+        this.step = step;
+        this.stepsPerDay = stepsPerDay;
+        this.prices = prices;
+    }
+
+    // Getters for step properties.
+    public int getDay() { return day; }
+    public int getStep() { return step; }
+    public int getStepsPerDay() { return stepsPerDay; }
+    public int size() { return prices.length; }
+    public double getPrice(int row) { return prices[row]; }
+
+    /**
+     * Copies the prices of the step.
+     *
+     * @return A new array holding the price of every book row.
+     */
+    public double[] copyPrices() {
+        return prices.clone();
+    }
+
+    /**
+     * Checks if this is the last step of its day.
+     *
+     * @return true if the prices are the day's closing prices.
+     */
+    public boolean isClose() {
+        return step == stepsPerDay;
+    }
+}
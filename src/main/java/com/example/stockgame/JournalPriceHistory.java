@@ -0,0 +1,55 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Binary {@link PriceHistory} over a journal written by {@link PriceJournalWriter}. The journal is memory-mapped,
+ * so each day is read straight from the page cache and nothing is copied onto the heap.
+ * Journals hold closing prices only, so every bar opens, peaks and bottoms at its close.
+ */
+public class JournalPriceHistory implements PriceHistory {
+    // Journal being replayed.
+    private final PriceJournalReader reader;
+    // Code of each symbol id of the journal.
+    private final int[] symbolCodes;
+    // Next day to read.
+    private int day;
+
+    /**
+     * Opens a journal for replay from its first day.
+     * @param path The journal file.
+     * @throws IOException if the file cannot be read or is not a journal.
+     */
+    public JournalPriceHistory(Path path) throws IOException {
+        reader = PriceJournalReader.open(path);
+        symbolCodes = new int[reader.getSymbolCount()];
+        for (int id = 0; id < symbolCodes.length; id++) {
+            symbolCodes[id] = reader.getSymbolCode(id);
+        }
+        day = reader.getFirstDay();
+    }
+
+    @Override
+    public boolean nextDay(BarListener listener) {
+        if (day > reader.getLastDay()) {
+            return false;
+        }
+        for (int id = 0; id < symbolCodes.length; id++) {
+            double price = reader.getPrice(day, id);
+            listener.onBar(symbolCodes[id], price, price, price, price);
+        }
+        day++;
+        return true;
+    }
+
+    @Override
+    public int getDate() {
+        return day == reader.getFirstDay() ? 0 : day - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.stockgame;
+
+/**
+ * Merton jump-diffusion: geometric Brownian motion plus sudden jumps arriving as a Poisson process,
+ * each multiplying the price by a log-normal factor. It produces the crashes and gaps a pure diffusion lacks.
+ * The drift is compensated for the mean jump, so the expected annual return stays {@code drift}.
+ * Prices never fall below the row's price floor.
+ */
+public class JumpDiffusionModel implements PriceModel {
+    // Expected annual return and annual volatility of the diffusion.
+    private final double drift;
+    private final double volatility;
+    // Expected number of jumps per year, and mean and standard deviation of the log size of a jump.
+    private final double jumpIntensity;
+    private final double jumpMean;
+    private final double jumpVolatility;
+    // Deterministic part and scale of the random part of the daily diffusion log return.
+    private final double logDrift;
+    private final double logVolatility;
+    // Probability of no jump on a day.
+    private final double noJumpProbability;
+    // Expected number of jumps on a day.
+    private final double dailyJumpIntensity;
+
+    /**
+     * Constructs the model.
+     * @param drift The expected annual return.
+     * @param volatility The annual volatility of the diffusion.
+     * @param jumpIntensity The expected number of jumps per year.
+     * @param jumpMean The mean of the log size of a jump, negative for crashes.
+     * @param jumpVolatility The standard deviation of the log size of a jump.
+     * @throws IllegalArgumentException if a volatility or the intensity is negative.
+     */
+    public JumpDiffusionModel(double drift, double volatility, double jumpIntensity, double jumpMean, double jumpVolatility) {
+        if (volatility < 0 || jumpVolatility < 0 || jumpIntensity < 0) {
+            throw new IllegalArgumentException("Volatilities and jump intensity must not be negative");
+        }
+        this.drift = drift;
+        this.volatility = volatility;
+        this.jumpIntensity = jumpIntensity;
+        this.jumpMean = jumpMean;
+        this.jumpVolatility = jumpVolatility;
+        double dt = 1.0 / TRADING_DAYS_PER_YEAR;
+        double meanJump = Math.exp(jumpMean + jumpVolatility * jumpVolatility / 2) - 1;
+        this.logDrift = (drift - volatility * volatility / 2 - jumpIntensity * meanJump) * dt;
+        this.logVolatility = volatility * Math.sqrt(dt);
+        this.dailyJumpIntensity = jumpIntensity * dt;
+        this.noJumpProbability = Math.exp(-dailyJumpIntensity);
+    }
+
+    // Getters for model parameters.
+    public double getDrift() { return drift; }
+    public double getVolatility() { return volatility; }
+    public double getJumpIntensity() { return jumpIntensity; }
+    public double getJumpMean() { return jumpMean; }
+    public double getJumpVolatility() { return jumpVolatility; }
+
+    @Override
+    public void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to) {
+        for (int row = from; row < to; row++) {
+            double logReturn = logDrift + logVolatility * RandomStreams.nextGaussian(randomStates, row);
+            int jumps = jumpCount(RandomStreams.nextDouble(randomStates, row));
+            if (jumps > 0) {
+                // The sum of n normal jump sizes is itself normal.
+                logReturn += jumps * jumpMean + Math.sqrt(jumps) * jumpVolatility * RandomStreams.nextGaussian(randomStates, row);
+            }
+            prices[row] = Math.max(prices[row] * Math.exp(logReturn), book.getPriceFloor(row));
+        }
+    }
+
+    /**
+     * Draws the number of jumps on a day by inverting the Poisson distribution.
+     * With a daily intensity well below one, the loop almost always stops at the first comparison.
+     * @param uniform A uniform draw in [0, 1).
+     * @return The number of jumps.
+     */
+    private int jumpCount(double uniform) {
+        int count = 0;
+        double probability = noJumpProbability;
+        double cumulative = probability;
+        while (uniform >= cumulative && probability > 0) {
+            count++;
+            probability *= dailyJumpIntensity / count;
+            cumulative += probability;
+        }
+        return count;
+    }
+}
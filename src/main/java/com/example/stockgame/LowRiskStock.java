@@ -15,9 +15,17 @@ public class LowRiskStock extends Stock {
      * @param amountOwned The initial amount of this stock owned.
      */
     public LowRiskStock(String name, double price, double amountOwned) {
-        // Initializes the low-risk stock with predefined parameters:
-        // Minimum fluctuation: 1%, Maximum fluctuation: 20%, Growth bias: 1%, Price floor: 0.1
-        super(name, price, amountOwned, 1, 20, 1, 10);
+        super(name, price, amountOwned, RiskLevel.LOW);
+    }
+
+    /**
+     * Constructs a view over a low-risk stock held in a market book.
+     *
+     * @param book The book holding the stock.
+     * @param row The row of the stock in the book.
+     */
+    public LowRiskStock(MarketBook book, int row) {
+        super(book, row);
     }
 
     /**
@@ -0,0 +1,87 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+
+/**
+ * Analytics a player looks at while a game runs: rolling statistics of every stock's price and of the player's
+ * net worth, and the daily series of both for charts. An engine only keeps them once they are turned on with
+ * {@link MarketEngine#setAnalytics}, so headless games simulated in bulk pay nothing for them.
+ * <p>
+ * The analytics start over whenever the engine's market is replaced, from its prices and net worth on that day.
+ */
+public class MarketAnalytics {
+    // Market and portfolio observed.
+    private final MarketBook book;
+    private final Portfolio portfolio;
+    // Rolling analytics of every stock's price by book row, and of the player's net worth as series 0.
+    private final RollingStatistics stockStatistics;
+    private final RollingStatistics portfolioStatistics;
+    // Net worth read by the portfolio analytics, allocated once rather than on every tick.
+    private final PriceSource netWorth;
+    // Daily price of every stock by book row, and the player's daily net worth, for charts.
+    private PriceSeries[] stockSeries = new PriceSeries[0];
+    private final PriceSeries netWorthSeries = new PriceSeries();
+
+    /**
+     * Constructs analytics with no observation yet.
+     * @param book The market observed.
+     * @param portfolio The portfolio whose net worth is observed.
+     * @param window The number of days the rolling statistics cover, at least 2.
+     * @throws IllegalArgumentException if the window is smaller than 2.
+     */
+    public MarketAnalytics(MarketBook book, Portfolio portfolio, int window) {
+        this.book = book;
+        this.portfolio = portfolio;
+        this.stockStatistics = new RollingStatistics(window);
+        this.portfolioStatistics = new RollingStatistics(window);
+        this.netWorth = row -> portfolio.getNetWorth();
+    }
+
+    // Getters for the analytics.
+    public RollingStatistics getStockStatistics() { return stockStatistics; }
+    public RollingStatistics getPortfolioStatistics() { return portfolioStatistics; }
+    public PriceSeries getStockSeries(int row) { return stockSeries[row]; }
+    public PriceSeries getNetWorthSeries() { return netWorthSeries; }
+
+    /**
+     * Returns the parametric one-day value at risk of the player's net worth at 95% confidence, from the
+     * returns of the net worth over the analytics window.
+     * @return The loss in dollars that the next day exceeds with 5% probability.
+     */
+    public double getPortfolioValueAtRisk() {
+        return portfolioStatistics.getValueAtRisk(0, RollingStatistics.Z_95) * portfolio.getNetWorth();
+    }
+
+    /**
+     * Starts the rolling analytics and the daily series over from the current prices and net worth.
+     */
+    void reset() {
+        stockStatistics.reset(book.size());
+        portfolioStatistics.reset(1);
+        int size = book.size();
+        if (stockSeries.length < size) {
+            int created = stockSeries.length;
+            stockSeries = Arrays.copyOf(stockSeries, size);
+            for (int row = created; row < size; row++) {
+                stockSeries[row] = new PriceSeries();
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            stockSeries[row].clear();
+        }
+        netWorthSeries.clear();
+        record();
+    }
+
+    /**
+     * Adds the current prices and net worth to the rolling analytics and the daily series.
+     */
+    void record() {
+        stockStatistics.add(book);
+        portfolioStatistics.add(netWorth);
+        for (int row = 0, size = book.size(); row < size; row++) {
+            stockSeries[row].add(book.getPrice(row));
+        }
+        netWorthSeries.add(portfolio.getNetWorth());
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.stockgame;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Column store of every stock in a market.
+ * Each stock is a row index into parallel primitive arrays, so a day tick is a tight loop
+ * over arrays that allocates nothing, no matter how many stocks the market holds.
+ * {@link Stock} objects are lightweight views over a row.
+ * Every row has its own random stream derived from the book's seed, so a tick runs in parallel
+ * and still produces the same prices for the same seed no matter how many cores take part.
+ * How prices move is decided by a pluggable {@link PriceModel}, which advances whole chunks of rows at a time.
+ * Prices are capped at {@link Money#MAX_PRICE} after every update, so they always convert to exact money.
+ */
+public class MarketBook implements PriceSource {
+    // Initial capacity of the columns.
+    private static final int DEFAULT_CAPACITY = 128;
+    // Risk levels indexed by the ordinal stored in the book.
+    private static final RiskLevel[] RISK_LEVELS = RiskLevel.values();
+    // Books smaller than this are ticked on the calling thread.
+    static final int PARALLEL_THRESHOLD = 16_384;
+    // Number of rows each parallel task updates.
+    static final int CHUNK_SIZE = 4_096;
+
+    // Number of rows in use.
+    private int size;
+    // Columns of the book, one entry per stock.
+    private int[] symbolCodes;
+    private byte[] riskLevels;
+    private double[] prices;
+    private double[] listingPrices;
+    private double[] minFluctuations;
+    private double[] maxFluctuations;
+    private double[] growthBiases;
+    private double[] priceFloors;
+    // Factor exposures of each row: sector, and betas to the market and sector factors.
+    private byte[] sectors;
+    private double[] marketBetas;
+    private double[] sectorBetas;
+    // State of the random stream of each row.
+    private long[] randomStates;
+    // Seed every random stream is derived from.
+    private long seed;
+    // Number of ticks of the whole book since it was cleared.
+    private int ticks;
+    // Process moving the prices every day.
+    private PriceModel priceModel = UniformFluctuationModel.INSTANCE;
+    // Row of each symbol, shared with the portfolios trading on this book.
+    private final SymbolIndex symbols = new SymbolIndex();
+
+    /**
+     * Constructs an empty book with a default capacity.
+     */
+    public MarketBook() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty book able to hold the given number of stocks before growing, seeded randomly.
+     * @param capacity The initial number of rows.
+     */
+    public MarketBook(int capacity) {
+        this(capacity, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs an empty book able to hold the given number of stocks before growing.
+     * @param capacity The initial number of rows.
+     * @param seed The seed the random stream of every row is derived from.
+     */
+    public MarketBook(int capacity, long seed) {
+        this.seed = seed;
+        capacity = Math.max(capacity, 1);
+        symbolCodes = new int[capacity];
+        riskLevels = new byte[capacity];
+        prices = new double[capacity];
+        listingPrices = new double[capacity];
+        minFluctuations = new double[capacity];
+        maxFluctuations = new double[capacity];
+        growthBiases = new double[capacity];
+        priceFloors = new double[capacity];
+        sectors = new byte[capacity];
+        marketBetas = new double[capacity];
+        sectorBetas = new double[capacity];
+        randomStates = new long[capacity];
+    }
+
+    /**
+     * Adds a stock with the price parameters of its risk level.
+     * @param name The name (or symbol) of the stock, one to five letters A-Z.
+     * @param price The initial price of the stock.
+     * @param riskLevel The risk level of the stock.
+     * @return The row of the new stock.
+     * @throws IllegalArgumentException if the name is not a valid symbol or is already in the book.
+     */
+    public int add(String name, double price, RiskLevel riskLevel) {
+        int code = SymbolCodes.encode(name);
+        if (code == SymbolCodes.NONE) {
+            throw new IllegalArgumentException("Invalid symbol: " + name);
+        }
+        return add(code, price, riskLevel);
+    }
+
+    /**
+     * Adds a stock with the price parameters of its risk level.
+     * @param symbolCode The packed symbol of the stock.
+     * @param price The initial price of the stock.
+     * @param riskLevel The risk level of the stock.
+     * @return The row of the new stock.
+     * @throws IllegalArgumentException if the symbol is invalid or already in the book.
+     */
+    public int add(int symbolCode, double price, RiskLevel riskLevel) {
+        return add(symbolCode, price, riskLevel, riskLevel.getMinFluctuation(), riskLevel.getMaxFluctuation(),
+                riskLevel.getGrowthBias(), riskLevel.getPriceFloor());
+    }
+
+    /**
+     * Adds a stock with explicit price parameters.
+     * Its factor exposures are the defaults of its risk level, in sector 0, until {@link #setFactorExposure} is called.
+     * @param symbolCode The packed symbol of the stock.
+     * @param price The initial price of the stock, capped at {@link Money#MAX_PRICE}.
+     * @param riskLevel The risk level of the stock.
+     * @param minFluctuation Minimum fluctuation percentage.
+     * @param maxFluctuation Maximum fluctuation percentage.
+     * @param growthBias Growth bias to influence the stock's trend.
+     * @param priceFloor The lowest price the stock can fall to.
+     * @return The row of the new stock.
+     * @throws IllegalArgumentException if the symbol is invalid or already in the book.
+     */
+    public int add(int symbolCode, double price, RiskLevel riskLevel, double minFluctuation, double maxFluctuation,
+                   double growthBias, double priceFloor) {
+        symbols.register(symbolCode, size);
+        if (size == prices.length) {
+            grow();
+        }
+        int row = size++;
+        symbolCodes[row] = symbolCode;
+        riskLevels[row] = (byte) riskLevel.ordinal();
+        prices[row] = Math.min(price, Money.MAX_PRICE);
+        listingPrices[row] = prices[row];
+        minFluctuations[row] = minFluctuation;
+        maxFluctuations[row] = maxFluctuation;
+        growthBiases[row] = growthBias;
+        priceFloors[row] = priceFloor;
+        sectors[row] = 0;
+        marketBetas[row] = riskLevel.getMarketBeta();
+        sectorBetas[row] = 1;
+        randomStates[row] = RandomStreams.seed(seed, row);
+        return row;
+    }
+
+    /**
+     * Removes every stock while keeping the allocated columns for reuse.
+     */
+    public void clear() {
+        symbols.clear();
+        size = 0;
+        ticks = 0;
+    }
+
+    /**
+     * Removes every stock and derives the random streams of rows added afterwards from a new seed.
+     * @param seed The seed the random stream of every row is derived from.
+     */
+    public void clear(long seed) {
+        clear();
+        this.seed = seed;
+    }
+
+    // Getters and setters for a row.
+    public int size() { return size; }
+    public long getSeed() { return seed; }
+    public int getTicks() { return ticks; }
+    public SymbolIndex getSymbols() { return symbols; }
+    public int getSymbolCode(int row) { return symbolCodes[row]; }
+    public String getName(int row) { return SymbolCodes.decode(symbolCodes[row]); }
+    public RiskLevel getRiskLevel(int row) { return RISK_LEVELS[riskLevels[row]]; }
+    @Override
+    public double getPrice(int row) { return prices[row]; }
+    public void setPrice(int row, double price) { prices[row] = Math.min(price, Money.MAX_PRICE); }
+    public double getListingPrice(int row) { return listingPrices[row]; }
+    public double getMinFluctuation(int row) { return minFluctuations[row]; }
+    public double getMaxFluctuation(int row) { return maxFluctuations[row]; }
+    public double getGrowthBias(int row) { return growthBiases[row]; }
+    public double getPriceFloor(int row) { return priceFloors[row]; }
+    public int getSector(int row) { return sectors[row]; }
+    public double getMarketBeta(int row) { return marketBetas[row]; }
+    public double getSectorBeta(int row) { return sectorBetas[row]; }
+    public PriceModel getPriceModel() { return priceModel; }
+
+    /**
+     * Sets how strongly a stock follows the market and its sector in the {@link FactorModel}.
+     * @param row The row of the stock.
+     * @param sector The sector of the stock, from 0 to 127.
+     * @param marketBeta The sensitivity of the stock to the market factor.
+     * @param sectorBeta The sensitivity of the stock to its sector factor.
+     * @throws IllegalArgumentException if the sector is out of range.
+     */
+    public void setFactorExposure(int row, int sector, double marketBeta, double sectorBeta) {
+        if (sector < 0 || sector > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid sector: " + sector);
+        }
+        sectors[row] = (byte) sector;
+        marketBetas[row] = marketBeta;
+        sectorBetas[row] = sectorBeta;
+    }
+
+    /**
+     * Changes how prices move from the next tick on. The model is configuration and is not part of a snapshot.
+     * @param priceModel The model advancing every row.
+     */
+    public void setPriceModel(PriceModel priceModel) {
+        this.priceModel = Objects.requireNonNull(priceModel);
+    }
+
+    /**
+     * Looks up the row of a stock by its name.
+     * @param name The name (or symbol) of the stock.
+     * @return The row of the stock, or -1 if there is no such stock.
+     */
+    public int indexOf(String name) {
+        return symbols.rowOf(name);
+    }
+
+    /**
+     * Updates the price of every stock for a new day.
+     * Large books are split into chunks updated in parallel on the common fork-join pool.
+     */
+    public void updatePrices() {
+        priceModel.beforeTick(this);
+        if (size < PARALLEL_THRESHOLD) {
+            updatePrices(0, size);
+            ticks++;
+            return;
+        }
+        int rows = size;
+        int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            updatePrices(from, Math.min(from + CHUNK_SIZE, rows));
+        });
+        ticks++;
+    }
+
+    /**
+     * Updates the price of a range of stocks for a new day with the book's price model.
+     * @param from The first row to update, inclusive.
+     * @param to The last row to update, exclusive.
+     */
+    public void updatePrices(int from, int to) {
+        priceModel.advance(this, prices, randomStates, from, to);
+        capPrices(from, to);
+    }
+
+    /**
+     * Updates the price of one stock for a new day with the book's price model.
+     * @param row The row of the stock.
+     */
+    public void updatePrice(int row) {
+        priceModel.advance(this, prices, randomStates, row, row + 1);
+        capPrices(row, row + 1);
+    }
+
+    /**
+     * Brings the prices of a range of rows down to {@link Money#MAX_PRICE}, in the same pass over the chunk the
+     * model has just written.
+     */
+    private void capPrices(int from, int to) {
+        double[] prices = this.prices;
+        for (int row = from; row < to; row++) {
+            prices[row] = Math.min(prices[row], Money.MAX_PRICE);
+        }
+    }
+
+    /**
+     * Creates a view over one row, typed after the row's risk level.
+     * @param row The row of the stock.
+     * @return A stock backed by this book.
+     */
+    public Stock stock(int row) {
+        return switch (getRiskLevel(row)) {
+            case LOW -> new LowRiskStock(this, row);
+            case MEDIUM -> new MidRiskStock(this, row);
+            case HIGH -> new HighRiskStock(this, row);
+        };
+    }
+
+    /**
+     * Returns a list view of the book. Stocks are created on access, so the list costs
+     * nothing to keep around for large markets.
+     * @return A read-only list of stock views.
+     */
+    public List<Stock> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Stock get(int index) {
+                if (index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return stock(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the size of this book's section of a {@link GameSnapshot}.
+     * @return The number of bytes {@link #writeSnapshot} puts.
+     */
+    long snapshotSize() {
+        return GameSnapshot.align(16 + (long) size * (9 * Long.BYTES + Integer.BYTES + 2));
+    }
+
+    /**
+     * Writes every row, including the state of its random stream, to a snapshot.
+     * @param buffer The little-endian buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(size).putInt(ticks).putLong(seed);
+        GameSnapshot.putDoubles(buffer, prices, size);
+        GameSnapshot.putDoubles(buffer, listingPrices, size);
+        GameSnapshot.putDoubles(buffer, minFluctuations, size);
+        GameSnapshot.putDoubles(buffer, maxFluctuations, size);
+        GameSnapshot.putDoubles(buffer, growthBiases, size);
+        GameSnapshot.putDoubles(buffer, priceFloors, size);
+        GameSnapshot.putDoubles(buffer, marketBetas, size);
+        GameSnapshot.putDoubles(buffer, sectorBetas, size);
+        GameSnapshot.putLongs(buffer, randomStates, size);
+        GameSnapshot.putInts(buffer, symbolCodes, size);
+        buffer.put(riskLevels, 0, size);
+        buffer.put(sectors, 0, size);
+        buffer.position(start + (int) snapshotSize());
+    }
+
+    /**
+     * Replaces every row with the rows of a snapshot.
+     * @param buffer The little-endian buffer to read from.
+     * @throws IllegalArgumentException if the snapshot holds an invalid or duplicate symbol or risk level.
+     */
+    void readSnapshot(ByteBuffer buffer) {
+        int start = buffer.position();
+        int rows = buffer.getInt();
+        int snapshotTicks = buffer.getInt();
+        long snapshotSeed = buffer.getLong();
+        if (rows < 0 || (long) rows * (9 * Long.BYTES + Integer.BYTES + 2) > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid row count: " + rows);
+        }
+        clear(snapshotSeed);
+        if (rows > prices.length) {
+            resize(rows);
+        }
+        GameSnapshot.getDoubles(buffer, prices, rows);
+        GameSnapshot.getDoubles(buffer, listingPrices, rows);
+        GameSnapshot.getDoubles(buffer, minFluctuations, rows);
+        GameSnapshot.getDoubles(buffer, maxFluctuations, rows);
+        GameSnapshot.getDoubles(buffer, growthBiases, rows);
+        GameSnapshot.getDoubles(buffer, priceFloors, rows);
+        GameSnapshot.getDoubles(buffer, marketBetas, rows);
+        GameSnapshot.getDoubles(buffer, sectorBetas, rows);
+        GameSnapshot.getLongs(buffer, randomStates, rows);
+        GameSnapshot.getInts(buffer, symbolCodes, rows);
+        buffer.get(riskLevels, 0, rows);
+        buffer.get(sectors, 0, rows);
+        try {
+            for (int row = 0; row < rows; row++) {
+                if (riskLevels[row] < 0 || riskLevels[row] >= RISK_LEVELS.length || sectors[row] < 0) {
+                    throw new IllegalArgumentException("Invalid risk level or sector in row " + row);
+                }
+                symbols.register(symbolCodes[row], row);
+            }
+        } catch (IllegalArgumentException e) {
+            clear();
+            throw e;
+        }
+        size = rows;
+        ticks = snapshotTicks;
+        buffer.position(start + (int) snapshotSize());
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        resize(prices.length * 2);
+    }
+
+    /**
+     * Changes the capacity of every column.
+     * @param capacity The new number of rows.
+     */
+    private void resize(int capacity) {
+        symbolCodes = Arrays.copyOf(symbolCodes, capacity);
+        riskLevels = Arrays.copyOf(riskLevels, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        listingPrices = Arrays.copyOf(listingPrices, capacity);
+        minFluctuations = Arrays.copyOf(minFluctuations, capacity);
+        maxFluctuations = Arrays.copyOf(maxFluctuations, capacity);
+        growthBiases = Arrays.copyOf(growthBiases, capacity);
+        priceFloors = Arrays.copyOf(priceFloors, capacity);
+        sectors = Arrays.copyOf(sectors, capacity);
+        marketBetas = Arrays.copyOf(marketBetas, capacity);
+        sectorBetas = Arrays.copyOf(sectorBetas, capacity);
+        randomStates = Arrays.copyOf(randomStates, capacity);
+    }
+}
@@ -0,0 +1,524 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless simulation engine of the stock market game.
+ * It owns the stock universe, the player's portfolio and the day counter and has no JavaFX dependency,
+ * so a game can be played without a Stage and many games can be simulated at full speed.
+ * <p>
+ * A game follows the {@link GameState} lifecycle on its day transitions: it runs until the day before
+ * {@link #GAME_LENGTH}, the final trading day, and moving on to day {@link #GAME_LENGTH} settles it: positions
+ * are sold at the final prices, the result is computed, and the game-over listener is told once.
+ */
+public class MarketEngine {
+    // Number of days a game lasts.
+    public static final int GAME_LENGTH = 20;
+    // Cash the player starts every game with.
+    public static final double STARTING_CASH = 1000;
+    // Positions smaller than this many shares are dropped after a sale.
+    public static final double MIN_POSITION = 0.2;
+    // Number of stocks generated for each risk level.
+    public static final int STOCKS_PER_RISK_LEVEL = 33;
+    // Number of sectors stocks are spread over for the FactorModel.
+    public static final int SECTOR_COUNT = 11;
+    // Annual drift, and annual volatilities of the market and sector factors, of the default FactorModel.
+    public static final double MARKET_DRIFT = 0.07;
+    public static final double MARKET_VOLATILITY = 0.18;
+    public static final double SECTOR_VOLATILITY = 0.12;
+    // Number of days the rolling analytics cover.
+    public static final int ANALYTICS_WINDOW = 10;
+    // Owner of the player's orders on the exchange.
+    public static final long PLAYER = 1;
+
+    // All stocks available in the market, stored column-wise.
+    private final MarketBook book = new MarketBook(3 * STOCKS_PER_RISK_LEVEL);
+    // The player's cash and owned stocks.
+    private final Portfolio portfolio = new Portfolio(book, STARTING_CASH);
+    // Day counter.
+    private int dayNumber = 1;
+    // Lifecycle state of the game, and its result once settled.
+    private GameState state = GameState.RUNNING;
+    private GameResult result;
+    // Told when a game is settled, if any.
+    private GameOverListener gameOverListener;
+    // Journal recording the prices of every day, if any.
+    private PriceJournalWriter priceJournal;
+    // Exchange the player's orders are matched in, or null to fill them at the day's price.
+    private Exchange exchange;
+    // Model the book used before a historical replay started, restored when a random game restarts.
+    private PriceModel randomPriceModel;
+    // Rolling statistics and chart series of the game, or null if they are not kept.
+    private MarketAnalytics analytics;
+
+    /**
+     * Constructs an engine with an empty market moved by a {@link FactorModel} over {@link #SECTOR_COUNT} sectors,
+     * so stocks follow the market and their sector with the betas {@link #initializeStockList} gives them. Another
+     * model can be installed with {@link MarketBook#setPriceModel} on {@link #getBook()}.
+     */
+    public MarketEngine() {
+        book.setPriceModel(new FactorModel(SECTOR_COUNT, MARKET_DRIFT, MARKET_VOLATILITY, SECTOR_VOLATILITY));
+    }
+
+    // Getters for engine state.
+    public MarketBook getBook() { return book; }
+    public List<Stock> getAllStocks() { return book.asList(); }
+    public Portfolio getPortfolio() { return portfolio; }
+    public int getDayNumber() { return dayNumber; }
+    public GameState getState() { return state; }
+    public GameResult getResult() { return result; }
+    public Exchange getExchange() { return exchange; }
+    public MarketAnalytics getAnalytics() { return analytics; }
+
+    /**
+     * Sets the listener told when a game is settled. It stays in place across restarts.
+     * @param gameOverListener The listener, or null for none.
+     */
+    public void setGameOverListener(GameOverListener gameOverListener) {
+        this.gameOverListener = gameOverListener;
+    }
+
+    /**
+     * Turns order matching on or off. With matching, buys and sells go through an {@link Exchange} over the book:
+     * they take the market maker's quotes around the day's price, paying the spread and walking the levels of
+     * large orders, and may carry a limit price. Without it, they fill instantly at the day's price and no order
+     * books are kept, which is what headless simulations want. Batches settle at the day's price either way.
+     * @param enabled Whether orders are matched.
+     */
+    public void setOrderMatching(boolean enabled) {
+        exchange = enabled ? new Exchange(book) : null;
+    }
+
+    /**
+     * Turns the game's analytics on or off. When on, {@link #getAnalytics()} keeps rolling statistics and chart
+     * series of every stock and of the net worth, starting from the current day. Off by default, so headless
+     * engines keep no history.
+     * @param enabled Whether analytics are kept.
+     */
+    public void setAnalytics(boolean enabled) {
+        analytics = enabled ? new MarketAnalytics(book, portfolio, ANALYTICS_WINDOW) : null;
+        resetAnalytics();
+    }
+
+    /**
+     * Resets the game to its initial state, clearing the portfolio and generating a new, randomly seeded market.
+     */
+    public void restart() {
+        restart(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Resets the game to its initial state, clearing the portfolio and generating a new market.
+     * The same seed always produces the same stocks and the same prices on every day.
+     * Price recording stops, as the new market no longer matches the journal.
+     * @param seed The master seed of the market.
+     */
+    public void restart(long seed) {
+        resetGame();
+        reinstateRandomPriceModel();
+        initializeStockList(seed);
+    }
+
+    /**
+     * Resets the game to its initial state on a market replaying real prices: the stocks are those quoted on
+     * the first day of the history, and each following day moves them to their next recorded close.
+     * The history is read one day per day of the game; {@link #restart(long)} returns to random prices.
+     * @param history The history, positioned before its first day. It stays open and owned by the caller.
+     * @throws IOException if the history cannot be read or has no valid bar on its first day; the engine is then
+     *         left with an empty market.
+     */
+    public void restartReplay(PriceHistory history) throws IOException {
+        resetGame();
+        if (randomPriceModel == null) {
+            randomPriceModel = book.getPriceModel();
+        }
+        try {
+            HistoricalPriceModel.install(book, history);
+        } finally {
+            resetExchange();
+            resetAnalytics();
+        }
+    }
+
+    /**
+     * Puts back the model the book used before a historical replay, if one is running.
+     */
+    private void reinstateRandomPriceModel() {
+        if (randomPriceModel != null) {
+            book.setPriceModel(randomPriceModel);
+            randomPriceModel = null;
+        }
+    }
+
+    /**
+     * Clears the portfolio and the game's progress.
+     */
+    private void resetGame() {
+        priceJournal = null;
+        portfolio.reset();
+        dayNumber = 1;
+        state = stateOf(dayNumber);
+        result = null;
+    }
+
+    /**
+     * Replaces the whole game with the content of a {@link GameSnapshot}.
+     * Price recording stops, as the restored market no longer matches the journal. A snapshot of a settled
+     * game restores its result without telling the game-over listener again. Prices move on with the engine's
+     * random price model, reinstated if a historical replay was running. The analytics and the order books are not
+     * part of a snapshot: they start over from the restored day.
+     * @param dayNumber The day of the snapshot.
+     * @param buffer The little-endian buffer positioned at the market section of the snapshot.
+     * @throws IllegalArgumentException if the snapshot is invalid; the engine is then left with an empty market
+     *         and an empty portfolio, even when only the portfolio section was rejected.
+     * @throws java.nio.BufferUnderflowException if the snapshot is truncated, leaving the engine the same way.
+     */
+    void restore(int dayNumber, ByteBuffer buffer) {
+        priceJournal = null;
+        reinstateRandomPriceModel();
+        portfolio.reset();
+        try {
+            book.readSnapshot(buffer);
+            portfolio.readSnapshot(buffer);
+        } catch (RuntimeException e) {
+            // The book may already hold the rejected snapshot's rows; never pair them with the reset portfolio.
+            book.clear();
+            portfolio.reset();
+            throw e;
+        } finally {
+            resetExchange();
+            resetAnalytics();
+        }
+        this.dayNumber = dayNumber;
+        state = stateOf(dayNumber);
+        result = state == GameState.SETTLED ? createResult() : null;
+    }
+
+    /**
+     * Drops the order books of the previous market, if orders are matched.
+     */
+    private void resetExchange() {
+        if (exchange != null) {
+            exchange.reset();
+        }
+    }
+
+    /**
+     * Starts the analytics over from the current prices and net worth, if they are kept.
+     */
+    private void resetAnalytics() {
+        if (analytics != null) {
+            analytics.reset();
+        }
+    }
+
+    /**
+     * Initializes the list of stocks available in the game. This includes generating random stocks of different risk levels.
+     * @param seed The master seed of the market.
+     */
+    public void initializeStockList(long seed) {
+        book.clear(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 1; i <= STOCKS_PER_RISK_LEVEL; i++) {
+            book.add(book.getSymbols().allocate(random), random.nextDouble() * 1000, RiskLevel.LOW);
+            book.add(book.getSymbols().allocate(random), random.nextDouble() * 1000, RiskLevel.MEDIUM);
+            book.add(book.getSymbols().allocate(random), random.nextDouble() * 1000, RiskLevel.HIGH);
+        }
+        assignFactorExposures(book, seed);
+        resetExchange();
+        resetAnalytics();
+    }
+
+    /**
+     * Spreads the stocks of a book over {@link #SECTOR_COUNT} sectors and varies their betas around the
+     * defaults of their risk levels. Exposures are drawn from a generator of their own, so they do not change
+     * the names and prices generated from the same seed.
+     * @param book The book whose exposures are set.
+     * @param seed The seed of the exposures.
+     */
+    public static void assignFactorExposures(MarketBook book, long seed) {
+        SplittableRandom random = new SplittableRandom(RandomStreams.mix64(seed));
+        for (int row = 0; row < book.size(); row++) {
+            double marketBeta = book.getRiskLevel(row).getMarketBeta() * (0.75 + 0.5 * random.nextDouble());
+            book.setFactorExposure(row, random.nextInt(SECTOR_COUNT), marketBeta, 0.5 + random.nextDouble());
+        }
+    }
+
+    /**
+     * Finds a market stock by its name.
+     * @param stockName The name of the stock to find.
+     * @return The found stock, or null if not found.
+     */
+    public Stock findStockByName(String stockName) {
+        int row = book.indexOf(stockName);
+        return row < 0 ? null : book.stock(row);
+    }
+
+    /**
+     * Buys a market stock for the given amount of money, at any price.
+     * @param symbol The name of the stock to buy.
+     * @param cash The amount of money to spend.
+     * @return true if the purchase was made, false if the stock is unknown, there is not enough cash or the game is over.
+     */
+    public boolean buy(String symbol, double cash) {
+        return buy(symbol, cash, 0);
+    }
+
+    /**
+     * Buys a market stock for the given amount of money, paying at most a limit price per share.
+     * With {@linkplain #setOrderMatching order matching}, the buy takes the best asks up to the limit and may be
+     * filled partially; otherwise it fills entirely at the day's price if that is within the limit.
+     * @param symbol The name of the stock to buy.
+     * @param cash The amount of money to spend.
+     * @param limitPrice The highest price paid for a share, or 0 or less for a market order.
+     * @return true if any shares were bought, false if the stock is unknown, there is not enough cash, no price is
+     *         within the limit or the game is over.
+     */
+    public boolean buy(String symbol, double cash, double limitPrice) {
+        long start = GameMetrics.get().start();
+        int row = book.indexOf(symbol);
+        boolean bought = state != GameState.SETTLED && row >= 0 && (exchange == null
+                ? withinLimit(OrderSide.BUY, book.getPrice(row), limitPrice) && portfolio.buy(row, cash)
+                : cash <= portfolio.getAvailableCash()
+                        && exchange.buy(portfolio, PLAYER, row, cash, limit(limitPrice), dayNumber, book) > 0);
+        GameMetrics.get().recordTrade(start, "buy", 1, bought);
+        return bought;
+    }
+
+    /**
+     * Sells an owned stock for the given amount of money, at any price.
+     * @param symbol The name of the stock to sell.
+     * @param cash The amount of money to receive.
+     * @return true if the sale was made, false if not enough shares are owned or the game is over.
+     */
+    public boolean sell(String symbol, double cash) {
+        return sell(symbol, cash, 0);
+    }
+
+    /**
+     * Sells an owned stock for the given amount of money, receiving at least a limit price per share.
+     * With {@linkplain #setOrderMatching order matching}, the sale hits the best bids down to the limit and may be
+     * filled partially, selling at most the shares owned; otherwise it fills entirely at the day's price if that
+     * is within the limit.
+     * @param symbol The name of the stock to sell.
+     * @param cash The amount of money to receive.
+     * @param limitPrice The lowest price a share is sold at, or 0 or less for a market order.
+     * @return true if any shares were sold, false if not enough shares are owned, no price is within the limit or
+     *         the game is over.
+     */
+    public boolean sell(String symbol, double cash, double limitPrice) {
+        long start = GameMetrics.get().start();
+        int row = book.indexOf(symbol);
+        boolean sold = state != GameState.SETTLED && row >= 0 && (exchange == null
+                ? withinLimit(OrderSide.SELL, book.getPrice(row), limitPrice) && portfolio.sell(row, cash)
+                : exchange.sell(portfolio, PLAYER, row, cash, limit(limitPrice), dayNumber, book) > 0);
+        GameMetrics.get().recordTrade(start, "sell", 1, sold);
+        return sold;
+    }
+
+    /**
+     * Sells every owned share of a stock, at any price.
+     * @param symbol The name of the stock to sell.
+     * @return true if the stock was owned and has been sold; after the game is over nothing is owned.
+     */
+    public boolean sellAll(String symbol) {
+        return sellAll(symbol, 0);
+    }
+
+    /**
+     * Sells every owned share of a stock, receiving at least a limit price per share.
+     * With {@linkplain #setOrderMatching order matching}, the sale hits the best bids down to the limit and may
+     * leave part of the position unsold.
+     * @param symbol The name of the stock to sell.
+     * @param limitPrice The lowest price a share is sold at, or 0 or less for a market order.
+     * @return true if any shares were sold; after the game is over nothing is owned.
+     */
+    public boolean sellAll(String symbol, double limitPrice) {
+        long start = GameMetrics.get().start();
+        int row = book.indexOf(symbol);
+        boolean sold = state != GameState.SETTLED && row >= 0 && (exchange == null
+                ? withinLimit(OrderSide.SELL, book.getPrice(row), limitPrice) && portfolio.sellAll(row)
+                : exchange.sellAll(portfolio, PLAYER, row, limit(limitPrice), dayNumber, book) > 0);
+        GameMetrics.get().recordTrade(start, "sellAll", 1, sold);
+        return sold;
+    }
+
+    /**
+     * Returns the price the next share of a stock trades at: with {@linkplain #setOrderMatching order matching},
+     * the best ask for a buy or the best bid for a sale, otherwise the day's price.
+     * @param symbol The name of the stock.
+     * @param side The side the player trades on.
+     * @return The price, or 0 if the stock is unknown or nothing is quoted on that side.
+     */
+    public double getQuote(String symbol, OrderSide side) {
+        int row = book.indexOf(symbol);
+        if (row < 0) {
+            return 0;
+        }
+        if (exchange == null) {
+            return book.getPrice(row);
+        }
+        OrderSide bookSide = side == OrderSide.BUY ? OrderSide.SELL : OrderSide.BUY;
+        return Money.toDollars(exchange.getBestPrice(row, bookSide, dayNumber, book));
+    }
+
+    /**
+     * Returns whether the day's price satisfies the limit of an order filled without order matching.
+     */
+    private static boolean withinLimit(OrderSide side, double price, double limitPrice) {
+        if (!(limitPrice > 0)) {
+            return true;
+        }
+        return side == OrderSide.BUY ? price <= limitPrice : price >= limitPrice;
+    }
+
+    /**
+     * Converts a limit price in dollars to the exchange's micro-cents.
+     */
+    private static long limit(double limitPrice) {
+        return limitPrice > 0 ? Money.ofDollars(Math.min(limitPrice, Money.MAX_PRICE)) : Exchange.NO_LIMIT;
+    }
+
+    /**
+     * Applies a batch of trades atomically; see {@link Portfolio#applyBatch}. Batches settle at the day's price
+     * even with {@linkplain #setOrderMatching order matching}, as an all-or-nothing batch cannot be partly filled.
+     * @param legs The trades, sells listed before the buys they fund.
+     * @return -1 if every trade was made, otherwise the index of the first trade that cannot be made; nothing is traded then.
+     *         Once the game is over, the first trade of any batch fails.
+     */
+    public int trade(List<TradeLeg> legs) {
+        if (state == GameState.SETTLED && !legs.isEmpty()) {
+            return 0;
+        }
+        long start = GameMetrics.get().start();
+        int failedLeg = portfolio.applyBatch(legs);
+        GameMetrics.get().recordTrade(start, "batch", legs.size(), failedLeg < 0);
+        return failedLeg;
+    }
+
+    /**
+     * Moves the market to the next day: updates all prices and revalues the portfolio
+     * incrementally, as its positions read their prices straight from the book.
+     * Moving to the last day settles the game.
+     * @throws IllegalStateException if the game is over.
+     * @throws UncheckedIOException if the day's prices cannot be appended to the journal; the day has then
+     *         been fully processed, including the settlement on the last day.
+     * @throws IllegalArgumentException if the journal no longer fits the game, such as when its last day is not
+     *         the previous day; the day has been fully processed as well.
+     */
+    public void advanceDay() {
+        if (state == GameState.SETTLED) {
+            throw new IllegalStateException("The game is over");
+        }
+        GameMetrics metrics = GameMetrics.get();
+        long start = metrics.start();
+        long allocatedBefore = metrics.threadAllocatedBytes();
+        portfolio.markPreviousPortfolioCost();
+
+        book.updatePrices();
+
+        dayNumber++;
+        state = stateOf(dayNumber);
+        portfolio.applyPriceChanges();
+        if (analytics != null) {
+            analytics.record();
+        }
+        if (state == GameState.SETTLED) {
+            settle();
+        }
+        metrics.recordTick(start, allocatedBefore, dayNumber, book.size());
+        // The journal is written last, so a failed write never leaves the day, the state and the settlement apart.
+        recordPrices();
+    }
+
+    /**
+     * Ends the game: sells every position at the final prices, computes the result and tells the listener.
+     */
+    private void settle() {
+        portfolio.liquidate();
+        result = createResult();
+        if (gameOverListener != null) {
+            gameOverListener.onGameOver(result);
+        }
+    }
+
+    /**
+     * Creates the result of a settled game from the portfolio's cash.
+     */
+    private GameResult createResult() {
+        return new GameResult(dayNumber, portfolio.getStartingCashMicros(), portfolio.getNetWorthMicros());
+    }
+
+    /**
+     * Returns the lifecycle state a game is in on a given day.
+     */
+    private static GameState stateOf(int dayNumber) {
+        if (dayNumber >= GAME_LENGTH) {
+            return GameState.SETTLED;
+        }
+        return dayNumber == GAME_LENGTH - 1 ? GameState.FINAL_DAY : GameState.RUNNING;
+    }
+
+    /**
+     * Records the prices of the current day, and of every following day, in a journal.
+     * @param priceJournal The journal to append to, or null to stop recording.
+     * @throws UncheckedIOException if the prices cannot be written; recording does not start then.
+     * @throws IllegalArgumentException if the journal's last day is not the day before the current day, or it
+     *         records another number of stocks; recording does not start then.
+     */
+    public void setPriceJournal(PriceJournalWriter priceJournal) {
+        this.priceJournal = priceJournal;
+        try {
+            recordPrices();
+        } catch (RuntimeException e) {
+            this.priceJournal = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Appends the current day's prices to the journal, if there is one.
+     */
+    private void recordPrices() {
+        if (priceJournal == null) {
+            return;
+        }
+        try {
+            priceJournal.append(dayNumber, book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks if the game has been settled.
+     * @return true if the game is over.
+     */
+    public boolean isGameOver() {
+        return state == GameState.SETTLED;
+    }
+
+    /**
+     * Generates a random name for a stock.
+     * @return A string representing a random stock name.
+     */
+    public static String generateRandomName() {
+        return generateRandomName(new Random());
+    }
+
+    /**
+     * Generates a random name for a stock. Names are not checked against the market;
+     * use {@link SymbolIndex#allocate} for a symbol that is guaranteed to be unique.
+     * @param random The source of randomness.
+     * @return A string representing a random stock name.
+     */
+    public static String generateRandomName(RandomGenerator random) {
+        return SymbolCodes.decode(SymbolCodes.random(random));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-process market server: many players trading on one {@link SharedMarket}.
+ * Players are spread over shards, each a single thread owning the portfolios of its players, so a player's
+ * trades and valuations always run on the same thread and never contend with other shards. Portfolios read
+ * prices from the snapshot their shard has pinned, which is replaced with the newly published snapshot when
+ * the shard revalues its portfolios after a tick.
+ * <p>
+ * Trades go through the {@link Exchange} of the market: orders are matched in the order book of their stock
+ * against the day's market-maker liquidity and settled at the prices they were filled at, so players trading the
+ * same stock take depth from each other. A shard trades at the snapshot it has pinned, the one its portfolios are
+ * valued against; once any shard trades on a newer day, shards not yet revalued trade nothing until they are.
+ */
+public class MarketServer implements AutoCloseable {
+    // Market shared by every player.
+    private final SharedMarket market;
+    // Order books every trade is matched in.
+    private final Exchange exchange;
+    // Shards owning the players; player {@code id} lives in shard {@code id % shards.length}.
+    private final Shard[] shards;
+    // Cash every player starts with.
+    private final double startingCash;
+    // Id of the next player.
+    private final AtomicInteger nextPlayer = new AtomicInteger();
+
+    /**
+     * Starts a server.
+     *
+     * @param market The market shared by every player.
+     * @param shardCount The number of shard threads.
+     * @param startingCash The cash every player starts with.
+     */
+    public MarketServer(SharedMarket market, int shardCount, double startingCash) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+        }
+        this.market = market;
+        this.exchange = new Exchange(market.getBook());
+        this.startingCash = startingCash;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    // Getters for server properties.
+    public SharedMarket getMarket() { return market; }
+    public Exchange getExchange() { return exchange; }
+    public int getShardCount() { return shards.length; }
+    public int getPlayerCount() { return nextPlayer.get(); }
+
+    /**
+     * Registers a new player with an empty portfolio.
+     *
+     * @return The id of the player.
+     */
+    public int addPlayer() {
+        int player = nextPlayer.getAndIncrement();
+        Shard shard = shards[player % shards.length];
+        shard.executor.execute(() -> shard.add(player / shards.length));
+        return player;
+    }
+
+    /**
+     * Runs a command on a player's portfolio, on the player's shard.
+     *
+     * @param player The id of the player.
+     * @param command The command, which must not keep the portfolio.
+     * @return The result of the command.
+     */
+    public <T> CompletableFuture<T> submit(int player, Function<Portfolio, T> command) {
+        Shard shard = shards[player % shards.length];
+        return CompletableFuture.supplyAsync(() -> command.apply(shard.portfolio(player / shards.length)), shard.executor);
+    }
+
+    /**
+     * Buys a stock for a player through the exchange, taking the best asks for up to an amount of money.
+     *
+     * @param player The id of the player.
+     * @param row The book row of the stock.
+     * @param cash The most money to spend.
+     * @return Whether any shares were bought.
+     */
+    public CompletableFuture<Boolean> buy(int player, int row, double cash) {
+        Shard shard = shards[player % shards.length];
+        return submit(player, portfolio -> {
+            PriceSnapshot pinned = shard.pinned;
+            return exchange.buy(portfolio, player, row, cash, Exchange.NO_LIMIT, pinned.getDay(), pinned) > 0;
+        });
+    }
+
+    /**
+     * Sells a stock for a player through the exchange, hitting the best bids until an amount of money is received
+     * or the player's shares run out.
+     *
+     * @param player The id of the player.
+     * @param row The book row of the stock.
+     * @param cash The money to receive.
+     * @return Whether any shares were sold.
+     */
+    public CompletableFuture<Boolean> sell(int player, int row, double cash) {
+        Shard shard = shards[player % shards.length];
+        return submit(player, portfolio -> {
+            PriceSnapshot pinned = shard.pinned;
+            return exchange.sell(portfolio, player, row, cash, Exchange.NO_LIMIT, pinned.getDay(), pinned) > 0;
+        });
+    }
+
+    /**
+     * Returns the net worth of a player.
+     *
+     * @param player The id of the player.
+     * @return The available cash plus the portfolio cost.
+     */
+    public CompletableFuture<Double> getNetWorth(int player) {
+        return submit(player, Portfolio::getNetWorth);
+    }
+
+    /**
+     * Ticks the shared market, then has every shard pin the new prices and revalue its portfolios.
+     * Only one thread may advance days at a time.
+     *
+     * @return Completes once every shard has revalued its portfolios.
+     */
+    public CompletableFuture<Void> advanceDay() {
+        PriceSnapshot snapshot = market.advanceDay();
+        CompletableFuture<?>[] revaluations = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            revaluations[i] = CompletableFuture.runAsync(() -> shard.revalue(snapshot), shard.executor);
+        }
+        return CompletableFuture.allOf(revaluations);
+    }
+
+    /**
+     * Stops the shard threads after the commands already submitted.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+    }
+
+    /**
+     * Thread owning a share of the players. Its fields are only touched by its own thread.
+     */
+    private final class Shard implements PriceSource {
+        private final ExecutorService executor;
+        // Portfolios of the shard's players, indexed by player id divided by the shard count.
+        private Portfolio[] portfolios = new Portfolio[16];
+        // Prices every portfolio of the shard trades at.
+        private PriceSnapshot pinned = market.getSnapshot();
+
+        private Shard(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "market-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @Override
+        public double getPrice(int row) {
+            return pinned.getPrice(row);
+        }
+
+        private void add(int index) {
+            if (index >= portfolios.length) {
+                portfolios = Arrays.copyOf(portfolios, Math.max(index + 1, portfolios.length * 2));
+            }
+            portfolios[index] = new Portfolio(market.getBook(), this, startingCash);
+        }
+
+        private Portfolio portfolio(int index) {
+            Portfolio portfolio = index < portfolios.length ? portfolios[index] : null;
+            if (portfolio == null) {
+                throw new IllegalArgumentException("Unknown player");
+            }
+            return portfolio;
+        }
+
+        private void revalue(PriceSnapshot snapshot) {
+            for (Portfolio portfolio : portfolios) {
+                if (portfolio != null) {
+                    portfolio.markPreviousPortfolioCost();
+                }
+            }
+            pinned = snapshot;
+            for (Portfolio portfolio : portfolios) {
+                if (portfolio != null) {
+                    portfolio.applyPriceChanges();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.stockgame;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Drives a local {@link MarketServer} with simulated players: every day each player places a few random
+ * trades, then the shared market ticks and every portfolio is revalued. Prints trade and tick throughput.
+ */
+public class MarketServerLoadGenerator {
+
+    /**
+     * Runs the load.
+     *
+     * @param args The number of players (default 10,000), shards (default the number of cores),
+     *             days (default {@link MarketEngine#GAME_LENGTH}) and trades per player per day (default 10).
+     */
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int shards = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : MarketEngine.GAME_LENGTH;
+        int tradesPerDay = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        MarketEngine engine = new MarketEngine();
+        engine.restart(42);
+        SharedMarket market = new SharedMarket(engine.getBook());
+        SplittableRandom random = new SplittableRandom(7);
+        long trades = 0;
+        long tradeNanos = 0;
+        long tickNanos = 0;
+
+        try (MarketServer server = new MarketServer(market, shards, MarketEngine.STARTING_CASH)) {
+            for (int i = 0; i < players; i++) {
+                server.addPlayer();
+            }
+            int stocks = market.getBook().size();
+            for (int day = 1; day < days; day++) {
+                long start = System.nanoTime();
+                CompletableFuture<?>[] results = new CompletableFuture<?>[players * tradesPerDay];
+                int n = 0;
+                for (int player = 0; player < players; player++) {
+                    for (int trade = 0; trade < tradesPerDay; trade++) {
+                        int row = random.nextInt(stocks);
+                        double cash = 1 + random.nextDouble() * 20;
+                        results[n++] = random.nextBoolean() ? server.buy(player, row, cash) : server.sell(player, row, cash);
+                    }
+                }
+                CompletableFuture.allOf(results).join();
+                long traded = System.nanoTime();
+                server.advanceDay().join();
+                tickNanos += System.nanoTime() - traded;
+                tradeNanos += traded - start;
+                trades += results.length;
+            }
+            double worth = server.getNetWorth(0).join();
+            System.out.printf("players=%d shards=%d days=%d net worth of player 0=%.2f%n", players, shards, days, worth);
+        }
+        System.out.printf("%.0f trades/s, %.2f ms per tick and revaluation%n",
+                trades / (tradeNanos / 1e9), tickNanos / 1e6 / Math.max(days - 1, 1));
+    }
+}
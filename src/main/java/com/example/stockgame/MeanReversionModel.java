@@ -0,0 +1,49 @@
+package com.example.stockgame;
+
+/**
+ * Ornstein-Uhlenbeck process on the log price: every day the log price moves part of the way back towards
+ * the log of the stock's listing price and takes a normal step. Prices wander around where they were listed
+ * instead of trending, which suits commodities and spreads. The step is the exact transition of the process
+ * over one trading day, so large reversion speeds stay stable.
+ * Prices never fall below the row's price floor.
+ */
+public class MeanReversionModel implements PriceModel {
+    // Annual speed of reversion and annual volatility.
+    private final double reversionSpeed;
+    private final double volatility;
+    // Share of the distance to the mean left after one day, and standard deviation of the daily step.
+    private final double retained;
+    private final double stepVolatility;
+
+    /**
+     * Constructs the model.
+     * @param reversionSpeed The annual speed of reversion; ln(2) divided by it is the half-life in years.
+     * @param volatility The annual volatility of the log price.
+     * @throws IllegalArgumentException if the speed is not positive or the volatility is negative.
+     */
+    public MeanReversionModel(double reversionSpeed, double volatility) {
+        if (reversionSpeed <= 0 || volatility < 0) {
+            throw new IllegalArgumentException("Reversion speed must be positive and volatility not negative");
+        }
+        this.reversionSpeed = reversionSpeed;
+        this.volatility = volatility;
+        double dt = 1.0 / TRADING_DAYS_PER_YEAR;
+        this.retained = Math.exp(-reversionSpeed * dt);
+        this.stepVolatility = volatility * Math.sqrt((1 - retained * retained) / (2 * reversionSpeed));
+    }
+
+    // Getters for model parameters.
+    public double getReversionSpeed() { return reversionSpeed; }
+    public double getVolatility() { return volatility; }
+
+    @Override
+    public void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to) {
+        for (int row = from; row < to; row++) {
+            // Work on the log distance to the listing price, which costs one logarithm instead of two.
+            double listingPrice = book.getListingPrice(row);
+            double distance = Math.log(prices[row] / listingPrice) * retained
+                    + stepVolatility * RandomStreams.nextGaussian(randomStates, row);
+            prices[row] = Math.max(listingPrice * Math.exp(distance), book.getPriceFloor(row));
+        }
+    }
+}
@@ -15,9 +15,17 @@ public class MidRiskStock extends Stock {
      * @param amountOwned The initial amount of this stock owned.
      */
     public MidRiskStock(String name, double price, double amountOwned) {
-        // Initializes the medium-risk stock with predefined parameters:
-        // Minimum fluctuation: 25%, Maximum fluctuation: 50%, Growth bias: 0.05%, Price floor: 0.1
-        super(name, price, amountOwned, 25, 50, 0.05, 0.1);
+        super(name, price, amountOwned, RiskLevel.MEDIUM);
+    }
+
+    /**
+     * Constructs a view over a medium-risk stock held in a market book.
+     *
+     * @param book The book holding the stock.
+     * @param row The row of the stock in the book.
+     */
+    public MidRiskStock(MarketBook book, int row) {
+        super(book, row);
     }
 
     /**
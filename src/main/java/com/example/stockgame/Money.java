@@ -0,0 +1,160 @@
+package com.example.stockgame;
+
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money and share quantities on plain longs: cash and prices are counted in micro-cents and
+ * amounts of stock in micro-shares, so accounting is exact where doubles drift, without the allocation of
+ * {@link java.math.BigDecimal}. Every operation checks for overflow and throws {@link ArithmeticException}
+ * rather than wrap; a long of micro-cents holds about 92 billion dollars.
+ * <p>
+ * Multiplying a quantity by a price takes a 128-bit intermediate product, so large positions at large prices
+ * never overflow before the result is scaled back down.
+ * <p>
+ * The range is kept out of reach of normal play by two limits: a {@link MarketBook} never prices a share above
+ * {@link #MAX_PRICE}, and a {@link Portfolio} never buys below {@link #MIN_TRADE_PRICE}, so a purchase can grow
+ * at most {@code MAX_PRICE / MIN_TRADE_PRICE} (10<sup>8</sup>) fold. A portfolio whose value still passes the
+ * range of a long makes the operation that overflows throw.
+ */
+public final class Money {
+    // Micro-cents per dollar.
+    public static final long CASH_SCALE = 100_000_000L;
+    // Micro-shares per share.
+    public static final long SHARE_SCALE = 1_000_000L;
+    // Highest price of a share in dollars, enforced by MarketBook.
+    public static final double MAX_PRICE = 1_000_000;
+    // Lowest price a share can be bought at in dollars, enforced by Portfolio.
+    public static final double MIN_TRADE_PRICE = 0.01;
+    // Largest number of dollars or shares a double may hold to be converted.
+    private static final double MAX_DOLLARS = (double) Long.MAX_VALUE / CASH_SCALE;
+    private static final double MAX_SHARES = (double) Long.MAX_VALUE / SHARE_SCALE;
+
+    private Money() {
+    }
+
+    /**
+     * Converts dollars to micro-cents, rounding to the nearest micro-cent.
+     * @param dollars The amount of money.
+     * @return The amount in micro-cents.
+     * @throws ArithmeticException if the amount is not finite or does not fit.
+     */
+    public static long ofDollars(double dollars) {
+        if (!(Math.abs(dollars) < MAX_DOLLARS)) {
+            throw new ArithmeticException("Money out of range: " + dollars);
+        }
+        return Math.round(dollars * CASH_SCALE);
+    }
+
+    /**
+     * Converts shares to micro-shares, rounding to the nearest micro-share.
+     * @param shares The amount of stock.
+     * @return The amount in micro-shares.
+     * @throws ArithmeticException if the amount is not finite or does not fit.
+     */
+    public static long ofShares(double shares) {
+        if (!(Math.abs(shares) < MAX_SHARES)) {
+            throw new ArithmeticException("Shares out of range: " + shares);
+        }
+        return Math.round(shares * SHARE_SCALE);
+    }
+
+    /**
+     * Converts micro-cents to dollars, for display and for code working in doubles.
+     * @param microCents The amount in micro-cents.
+     * @return The amount in dollars.
+     */
+    public static double toDollars(long microCents) {
+        return (double) microCents / CASH_SCALE;
+    }
+
+    /**
+     * Converts micro-shares to shares, for display and for code working in doubles.
+     * @param microShares The amount in micro-shares.
+     * @return The amount of shares.
+     */
+    public static double toShares(long microShares) {
+        return (double) microShares / SHARE_SCALE;
+    }
+
+    /**
+     * Returns the value of an amount of stock, rounded to the nearest micro-cent.
+     * @param microShares The amount of stock, not negative.
+     * @param price The price of one share in micro-cents, not negative.
+     * @return The value in micro-cents.
+     * @throws ArithmeticException if the value does not fit.
+     */
+    public static long value(long microShares, long price) {
+        return multiplyDivide(microShares, price, SHARE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the amount of stock an amount of money buys, rounded down so a buyer never gets more than paid for.
+     * @param microCents The amount of money, not negative.
+     * @param price The price of one share in micro-cents, positive.
+     * @return The amount of stock in micro-shares.
+     * @throws ArithmeticException if the amount does not fit.
+     */
+    public static long sharesBought(long microCents, long price) {
+        return multiplyDivide(microCents, SHARE_SCALE, price, RoundingMode.FLOOR);
+    }
+
+    /**
+     * Returns the amount of stock to give up to receive an amount of money, rounded up so a seller never
+     * receives more than the stock given is worth.
+     * @param microCents The amount of money, not negative.
+     * @param price The price of one share in micro-cents, positive.
+     * @return The amount of stock in micro-shares.
+     * @throws ArithmeticException if the amount does not fit.
+     */
+    public static long sharesSold(long microCents, long price) {
+        return multiplyDivide(microCents, SHARE_SCALE, price, RoundingMode.CEILING);
+    }
+
+    /**
+     * Computes {@code a * b / divisor} with a 128-bit intermediate product.
+     * @param a A factor, not negative.
+     * @param b A factor, not negative.
+     * @param divisor The divisor, positive.
+     * @param rounding How the quotient is rounded: FLOOR, CEILING or HALF_UP.
+     * @return The rounded quotient.
+     * @throws ArithmeticException if an operand is out of range or the quotient does not fit.
+     */
+    static long multiplyDivide(long a, long b, long divisor, RoundingMode rounding) {
+        if (a < 0 || b < 0 || divisor <= 0) {
+            throw new ArithmeticException("Invalid operands: " + a + " * " + b + " / " + divisor);
+        }
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        long quotient;
+        long remainder;
+        if (high == 0 && low >= 0) {
+            quotient = low / divisor;
+            remainder = low - quotient * divisor;
+        } else {
+            if (high >= divisor) {
+                throw new ArithmeticException("Money overflow: " + a + " * " + b + " / " + divisor);
+            }
+            // Binary long division of the 128-bit product; the remainder stays below the divisor,
+            // so shifting it left never loses a bit of an unsigned long.
+            quotient = 0;
+            remainder = high;
+            for (int bit = Long.SIZE - 1; bit >= 0; bit--) {
+                remainder = remainder << 1 | (low >>> bit & 1);
+                if (Long.compareUnsigned(remainder, divisor) >= 0) {
+                    remainder -= divisor;
+                    quotient |= 1L << bit;
+                }
+            }
+            if (quotient < 0) {
+                throw new ArithmeticException("Money overflow: " + a + " * " + b + " / " + divisor);
+            }
+        }
+        boolean roundUp = switch (rounding) {
+            case FLOOR, DOWN -> false;
+            case CEILING, UP -> remainder != 0;
+            case HALF_UP -> remainder >= divisor - remainder;
+            default -> throw new IllegalArgumentException("Unsupported rounding: " + rounding);
+        };
+        return roundUp ? Math.incrementExact(quotient) : quotient;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of the final cash of a batch of games played by {@link MonteCarloRunner}.
+ * Final cash is the available cash plus the value of every position at the last day's prices.
+ */
+public class MonteCarloResult {
+    // Final cash of every game, sorted ascending.
+    private final double[] sortedFinalCash;
+    // Summary statistics.
+    private final double mean;
+    private final double standardDeviation;
+
+    /**
+     * Constructs a result from the final cash of every game.
+     *
+     * @param finalCash The final cash of every game; the array is sorted in place and kept.
+     */
+    public MonteCarloResult(double[] finalCash) {
+        if (finalCash.length == 0) {
+            throw new IllegalArgumentException("No games were played");
+        }
+        Arrays.parallelSort(finalCash);
+        this.sortedFinalCash = finalCash;
+
+        double sum = 0;
+        for (double cash : finalCash) {
+            sum += cash;
+        }
+        this.mean = sum / finalCash.length;
+
+        double squaredDeviations = 0;
+        for (double cash : finalCash) {
+            squaredDeviations += (cash - mean) * (cash - mean);
+        }
+        this.standardDeviation = Math.sqrt(squaredDeviations / finalCash.length);
+    }
+
+    // Getters for the summary statistics.
+    public int getGames() { return sortedFinalCash.length; }
+    public double getMean() { return mean; }
+    public double getStandardDeviation() { return standardDeviation; }
+    public double getMin() { return sortedFinalCash[0]; }
+    public double getMax() { return sortedFinalCash[sortedFinalCash.length - 1]; }
+
+    /**
+     * Returns a percentile of the final cash, using the nearest-rank method.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The final cash at that percentile.
+     */
+    public double getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedFinalCash.length);
+        return sortedFinalCash[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * Counts the games in equally wide bins between the lowest and the highest final cash.
+     *
+     * @param bins The number of bins.
+     * @return The number of games in each bin.
+     */
+    public long[] getHistogram(int bins) {
+        long[] counts = new long[bins];
+        double min = getMin();
+        double width = (getMax() - min) / bins;
+        for (double cash : sortedFinalCash) {
+            int bin = width == 0 ? 0 : (int) ((cash - min) / width);
+            counts[Math.min(bin, bins - 1)]++;
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d mean=%.2f sd=%.2f min=%.2f p5=%.2f p50=%.2f p95=%.2f max=%.2f",
+                getGames(), mean, standardDeviation, getMin(), getPercentile(5), getPercentile(50),
+                getPercentile(95), getMax());
+    }
+}
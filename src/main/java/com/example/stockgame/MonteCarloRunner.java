@@ -0,0 +1,97 @@
+package com.example.stockgame;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Plays many independent headless games with a {@link TradingStrategy} and collects the distribution of final cash.
+ * Games are spread over the common fork-join pool in fixed-size tasks. Each worker thread keeps its own
+ * engine and strategy and reuses them for every game it plays, so the run scales with the number of cores.
+ * Game {@code i} is always seeded from the master seed and {@code i}, so a run is reproducible.
+ */
+public class MonteCarloRunner {
+    // Number of games played by one parallel task.
+    private static final int GAMES_PER_TASK = 256;
+
+    // Engine and strategy of each worker thread.
+    private final ThreadLocal<Worker> workers;
+
+    /**
+     * Constructs a runner.
+     *
+     * @param strategies Creates the strategy of each worker thread; a strategy is reused for every game of its thread.
+     */
+    public MonteCarloRunner(Supplier<TradingStrategy> strategies) {
+        this.workers = ThreadLocal.withInitial(() -> new Worker(strategies.get()));
+    }
+
+    /**
+     * Plays a batch of games in parallel.
+     *
+     * @param games The number of games to play.
+     * @param masterSeed The seed every game's market is derived from.
+     * @return The distribution of the final cash of the games.
+     */
+    public MonteCarloResult run(int games, long masterSeed) {
+        double[] finalCash = new double[games];
+        int tasks = (games + GAMES_PER_TASK - 1) / GAMES_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            Worker worker = workers.get();
+            int to = Math.min((task + 1) * GAMES_PER_TASK, games);
+            for (int game = task * GAMES_PER_TASK; game < to; game++) {
+                finalCash[game] = play(worker.engine, worker.strategy, RandomStreams.seed(masterSeed, game));
+            }
+        });
+        return new MonteCarloResult(finalCash);
+    }
+
+    /**
+     * Plays one game from the first to the last day.
+     *
+     * @param engine The engine to play on; it is restarted first.
+     * @param strategy The strategy placing the trades.
+     * @param seed The seed of the game's market.
+     * @return The final cash: available cash plus the value of every position at the last day's prices.
+     */
+    public static double play(MarketEngine engine, TradingStrategy strategy, long seed) {
+        engine.restart(seed);
+        while (!engine.isGameOver()) {
+            strategy.onDay(engine);
+            engine.advanceDay();
+        }
+        return engine.getPortfolio().getNetWorth();
+    }
+
+    /**
+     * Runs a batch of buy-and-hold games and prints the distribution of final cash.
+     *
+     * @param args The number of games (default 1,000,000) and optionally the master seed.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new SplittableRandom().nextLong();
+
+        long start = System.nanoTime();
+        MonteCarloResult result = new MonteCarloRunner(TradingStrategy::buyAndHold).run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(result);
+        System.out.printf("seed=%d %.0f games/s%n", seed, games / seconds);
+        if (GameMetrics.get().isEnabled()) {
+            System.out.println(GameMetrics.get());
+        }
+    }
+
+    /**
+     * Per-thread state reused across games.
+     */
+    private static class Worker {
+        private final MarketEngine engine = new MarketEngine();
+        private final TradingStrategy strategy;
+
+        private Worker(TradingStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+
+/**
+ * Limit order book of one symbol with price-time priority matching.
+ * Incoming orders trade against the best opposite price first and, within a price, against the oldest order
+ * first; trades happen at the resting order's price, and an order can be filled partially by several resting
+ * orders. Market orders take whatever liquidity there is and never rest; limit orders rest with their unfilled
+ * remainder.
+ * <p>
+ * Prices are integer ticks and quantities integer units, so matching involves no rounding. Each side keeps its
+ * price levels in sorted primitive columns with the best level last, so taking the best level or dropping an
+ * emptied one is O(1), and each level holds its orders in a FIFO list. Orders come from a pool owned by the
+ * book: once the pool and the level columns have grown to the book's working size, placing, matching and
+ * cancelling orders allocates nothing. The book is not thread-safe.
+ */
+public class OrderBook {
+    // Returned by limit orders that were filled completely and therefore never rested.
+    public static final long NO_ORDER = -1;
+    // Returned as best price of an empty side.
+    public static final long NO_PRICE = 0;
+    // Initial capacities of the level columns and of the order pool.
+    private static final int INITIAL_LEVELS = 64;
+    private static final int INITIAL_ORDERS = 1_024;
+
+    // Symbol reported with every fill, typically the row of the stock in its MarketBook.
+    private final int symbol;
+    // Receives every fill.
+    private final FillListener listener;
+    // Price levels of each side. Bid keys are prices; ask keys are negated prices, so both sides sort ascending
+    // with their best level last.
+    private final Levels bids = new Levels();
+    private final Levels asks = new Levels();
+    // Pool of orders, indexed by slot, and the stack of free slots.
+    private Order[] orders = new Order[0];
+    private int[] freeSlots = new int[0];
+    private int freeCount;
+    // Number of resting orders and total quantity traded.
+    private int restingCount;
+    private long volume;
+
+    /**
+     * Constructs an empty book.
+     * @param symbol The symbol reported with every fill.
+     * @param listener The listener receiving every fill.
+     */
+    public OrderBook(int symbol, FillListener listener) {
+        this.symbol = symbol;
+        this.listener = listener;
+        growPool(INITIAL_ORDERS);
+    }
+
+    // Getters for book properties.
+    public int getSymbol() { return symbol; }
+    public int getRestingOrderCount() { return restingCount; }
+    public long getVolume() { return volume; }
+    public long getBestBid() { return bids.count == 0 ? NO_PRICE : bids.keys[bids.count - 1]; }
+    public long getBestAsk() { return asks.count == 0 ? NO_PRICE : -asks.keys[asks.count - 1]; }
+
+    /**
+     * Returns the number of distinct prices with resting orders on a side.
+     * @param side The side.
+     * @return The number of price levels.
+     */
+    public int getLevelCount(OrderSide side) {
+        return levels(side).count;
+    }
+
+    /**
+     * Returns the total quantity resting at a price.
+     * @param side The side of the resting orders.
+     * @param price The price in ticks.
+     * @return The quantity, 0 if no order rests at the price.
+     */
+    public long getQuantityAt(OrderSide side, long price) {
+        Levels levels = levels(side);
+        int index = levels.find(key(side, price));
+        return index < 0 ? 0 : levels.quantities[index];
+    }
+
+    /**
+     * Returns the unfilled quantity of a resting order.
+     * @param orderId The id returned when the order was placed.
+     * @return The remaining quantity, 0 if the order was filled, cancelled or never rested.
+     */
+    public long getRemaining(long orderId) {
+        Order order = resting(orderId);
+        return order == null ? 0 : order.remaining;
+    }
+
+    /**
+     * Places a limit order: it trades against opposite orders at its price or better, and the rest of it
+     * joins the back of the queue at its price.
+     * @param side The side of the order.
+     * @param price The limit price in ticks.
+     * @param quantity The quantity.
+     * @param owner The owner reported in the fills of the order.
+     * @return The id of the resting order, or {@link #NO_ORDER} if it was filled completely.
+     * @throws IllegalArgumentException if the price or quantity is not positive.
+     */
+    public long limit(OrderSide side, long price, long quantity, long owner) {
+        if (price <= 0 || quantity <= 0) {
+            throw new IllegalArgumentException("Price and quantity must be positive");
+        }
+        long remaining = match(side, price, quantity, owner);
+        return remaining == 0 ? NO_ORDER : rest(side, price, remaining, owner);
+    }
+
+    /**
+     * Places a market order: it trades against the best opposite orders until it is filled or the opposite
+     * side is empty. Whatever cannot be filled is dropped.
+     * @param side The side of the order.
+     * @param quantity The quantity.
+     * @param owner The owner reported in the fills of the order.
+     * @return The quantity filled.
+     * @throws IllegalArgumentException if the quantity is not positive.
+     */
+    public long market(OrderSide side, long quantity, long owner) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        long limit = side == OrderSide.BUY ? Long.MAX_VALUE : 1;
+        return quantity - match(side, limit, quantity, owner);
+    }
+
+    /**
+     * Cancels the unfilled part of a resting order.
+     * @param orderId The id returned when the order was placed.
+     * @return true if the order was resting and has been removed.
+     */
+    public boolean cancel(long orderId) {
+        Order order = resting(orderId);
+        if (order == null) {
+            return false;
+        }
+        OrderSide side = order.side;
+        Levels levels = levels(side);
+        int index = levels.find(key(side, order.price));
+        levels.quantities[index] -= order.remaining;
+        if (order.prev == null) {
+            levels.heads[index] = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            levels.tails[index] = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        if (levels.heads[index] == null) {
+            levels.remove(index);
+        }
+        release(order);
+        return true;
+    }
+
+    /**
+     * Removes every resting order.
+     */
+    public void clear() {
+        for (Order order : orders) {
+            if (order.resting) {
+                release(order);
+            }
+        }
+        bids.clear();
+        asks.clear();
+    }
+
+    /**
+     * Trades an incoming order against the opposite side, best price and oldest order first.
+     * @param side The side of the incoming order.
+     * @param limit The worst price the incoming order accepts.
+     * @param quantity The quantity of the incoming order.
+     * @param owner The owner of the incoming order.
+     * @return The quantity left unfilled.
+     */
+    private long match(OrderSide side, long limit, long quantity, long owner) {
+        boolean buy = side == OrderSide.BUY;
+        Levels opposite = buy ? asks : bids;
+        while (quantity > 0 && opposite.count > 0) {
+            int best = opposite.count - 1;
+            long price = buy ? -opposite.keys[best] : opposite.keys[best];
+            if (buy ? price > limit : price < limit) {
+                break;
+            }
+            Order maker = opposite.heads[best];
+            while (maker != null && quantity > 0) {
+                long traded = Math.min(quantity, maker.remaining);
+                maker.remaining -= traded;
+                quantity -= traded;
+                opposite.quantities[best] -= traded;
+                volume += traded;
+                long makerId = maker.id();
+                long makerOwner = maker.owner;
+                Order next = maker.next;
+                if (maker.remaining == 0) {
+                    opposite.heads[best] = next;
+                    if (next == null) {
+                        opposite.tails[best] = null;
+                    } else {
+                        next.prev = null;
+                    }
+                    release(maker);
+                }
+                listener.onFill(symbol, makerId, makerOwner, owner, side, price, traded);
+                maker = next;
+            }
+            if (opposite.heads[best] == null) {
+                opposite.count--;
+            }
+        }
+        return quantity;
+    }
+
+    /**
+     * Adds an order to the back of the queue at its price.
+     * @return The id of the order.
+     */
+    private long rest(OrderSide side, long price, long quantity, long owner) {
+        Levels levels = levels(side);
+        long key = key(side, price);
+        int index = levels.find(key);
+        if (index < 0) {
+            index = levels.insert(-index - 1, key);
+        }
+        Order order = acquire();
+        order.side = side;
+        order.price = price;
+        order.remaining = quantity;
+        order.owner = owner;
+        order.prev = levels.tails[index];
+        if (order.prev == null) {
+            levels.heads[index] = order;
+        } else {
+            order.prev.next = order;
+        }
+        levels.tails[index] = order;
+        levels.quantities[index] += quantity;
+        return order.id();
+    }
+
+    /**
+     * Looks up a resting order by id, rejecting ids of orders that are gone and whose slot was reused.
+     */
+    private Order resting(long orderId) {
+        int slot = (int) orderId;
+        if (orderId < 0 || slot < 0 || slot >= orders.length) {
+            return null;
+        }
+        Order order = orders[slot];
+        return order.resting && order.generation == (int) (orderId >>> 32) ? order : null;
+    }
+
+    /**
+     * Takes an order from the pool, growing it when empty.
+     */
+    private Order acquire() {
+        if (freeCount == 0) {
+            growPool(orders.length * 2);
+        }
+        Order order = orders[freeSlots[--freeCount]];
+        order.resting = true;
+        restingCount++;
+        return order;
+    }
+
+    /**
+     * Returns an order to the pool; its id becomes stale.
+     */
+    private void release(Order order) {
+        order.resting = false;
+        order.generation = (order.generation + 1) & Integer.MAX_VALUE;
+        order.prev = null;
+        order.next = null;
+        freeSlots[freeCount++] = order.slot;
+        restingCount--;
+    }
+
+    /**
+     * Grows the order pool, adding the new slots to the free stack.
+     */
+    private void growPool(int capacity) {
+        int oldCapacity = orders.length;
+        orders = Arrays.copyOf(orders, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        for (int slot = capacity - 1; slot >= oldCapacity; slot--) {
+            orders[slot] = new Order(slot);
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    private Levels levels(OrderSide side) {
+        return side == OrderSide.BUY ? bids : asks;
+    }
+
+    private static long key(OrderSide side, long price) {
+        return side == OrderSide.BUY ? price : -price;
+    }
+
+    /**
+     * Pooled order. Its id combines its slot with a generation bumped on every release.
+     */
+    private static final class Order {
+        private final int slot;
+        private int generation;
+        private boolean resting;
+        private OrderSide side;
+        private long price;
+        private long remaining;
+        private long owner;
+        // Neighbours in the queue of the order's price level.
+        private Order prev;
+        private Order next;
+
+        private Order(int slot) {
+            this.slot = slot;
+        }
+
+        private long id() {
+            return (long) generation << 32 | slot;
+        }
+    }
+
+    /**
+     * Price levels of one side in sorted primitive columns, best level last.
+     */
+    private static final class Levels {
+        private long[] keys = new long[INITIAL_LEVELS];
+        private long[] quantities = new long[INITIAL_LEVELS];
+        private Order[] heads = new Order[INITIAL_LEVELS];
+        private Order[] tails = new Order[INITIAL_LEVELS];
+        private int count;
+
+        /**
+         * Finds a level by key.
+         * @return The index of the level, or -(insertion point) - 1 if there is none.
+         */
+        private int find(long key) {
+            // Orders mostly arrive near the best price, at the end of the columns.
+            if (count > 0 && keys[count - 1] == key) {
+                return count - 1;
+            }
+            return Arrays.binarySearch(keys, 0, count, key);
+        }
+
+        /**
+         * Inserts an empty level, shifting worse levels down.
+         * @return The index of the new level.
+         */
+        private int insert(int index, long key) {
+            if (count == keys.length) {
+                int capacity = count * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                tails = Arrays.copyOf(tails, capacity);
+            }
+            int moved = count - index;
+            System.arraycopy(keys, index, keys, index + 1, moved);
+            System.arraycopy(quantities, index, quantities, index + 1, moved);
+            System.arraycopy(heads, index, heads, index + 1, moved);
+            System.arraycopy(tails, index, tails, index + 1, moved);
+            keys[index] = key;
+            quantities[index] = 0;
+            heads[index] = null;
+            tails[index] = null;
+            count++;
+            return index;
+        }
+
+        /**
+         * Removes an empty level.
+         */
+        private void remove(int index) {
+            int moved = count - index - 1;
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(quantities, index + 1, quantities, index, moved);
+            System.arraycopy(heads, index + 1, heads, index, moved);
+            System.arraycopy(tails, index + 1, tails, index, moved);
+            count--;
+            heads[count] = null;
+            tails[count] = null;
+        }
+
+        private void clear() {
+            Arrays.fill(heads, 0, count, null);
+            Arrays.fill(tails, 0, count, null);
+            count = 0;
+        }
+    }
+}
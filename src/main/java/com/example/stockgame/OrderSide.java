@@ -0,0 +1,17 @@
+package com.example.stockgame;
+
+/**
+ * Side of an order in an {@link OrderBook}.
+ */
+public enum OrderSide {
+    BUY,
+    SELL;
+
+    /**
+     * Returns the side an order of this side trades against.
+     * @return SELL for BUY and BUY for SELL.
+     */
+    public OrderSide opposite() {
+        return this == BUY ? SELL : BUY;
+    }
+}
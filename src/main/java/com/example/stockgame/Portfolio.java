@@ -0,0 +1,565 @@
+package com.example.stockgame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The player's side of the stock market game: available cash and the stocks bought so far.
+ * Positions reference their stock's row in the {@link MarketBook} directly, so they always see
+ * the current market price and never need prices copied over after a tick.
+ * Cash, amounts and the prices positions were last valued at are {@link Money} fixed-point longs, so every
+ * trade settles exactly and the checks on owned amounts never see rounding drift; prices are converted from
+ * the book's doubles when they are read. The portfolio cost is a running total of the rounded position
+ * values: trades and price changes adjust it in O(1) per position, and being exact it never needs re-summing.
+ * It holds no UI state and can be driven directly by the {@link MarketEngine}.
+ */
+public class Portfolio {
+    // Smallest position kept after a sale, in micro-shares.
+    private static final long MIN_POSITION = Money.ofShares(MarketEngine.MIN_POSITION);
+    // Lowest price a share is bought at, in micro-cents.
+    private static final long MIN_TRADE_PRICE = Money.ofDollars(Money.MIN_TRADE_PRICE);
+
+    // Book holding the stocks this portfolio trades.
+    private final MarketBook book;
+    // Source of the prices trades and valuations use; the book itself unless the market is shared.
+    private final PriceSource prices;
+    // Book row, micro-shares owned and last valued price in micro-cents of each position, indexed by position slot.
+    private int[] positionRows = new int[16];
+    private long[] positionAmounts = new long[16];
+    private long[] positionPrices = new long[16];
+    private int positionCount;
+    // Position slot of each owned book row.
+    private final IntIntMap slotsByRow = new IntIntMap(16);
+    // Cash the player starts with, in micro-cents.
+    private final long startingCash;
+    // Financial metrics of the portfolio in micro-cents.
+    private long availableCash;
+    private long portfolioCost;
+    private long previousPortfolioCost;
+    // Scratch space of batch validation: book row of each leg, and the simulated amount of each row traded.
+    private int[] batchRows = new int[16];
+    private long[] batchAmounts = new long[16];
+    private final IntIntMap batchSlots = new IntIntMap(16);
+
+    /**
+     * Constructs an empty portfolio.
+     *
+     * @param book The book holding the stocks the portfolio trades.
+     * @param startingCash The cash available before any trade is made.
+     */
+    public Portfolio(MarketBook book, double startingCash) {
+        this(book, book, startingCash);
+    }
+
+    /**
+     * Constructs an empty portfolio reading its prices from somewhere else than the book,
+     * such as the published snapshots of a {@link SharedMarket}.
+     *
+     * @param book The book holding the stocks the portfolio trades, used for names and views.
+     * @param prices The source of the prices of the book's rows.
+     * @param startingCash The cash available before any trade is made.
+     * @throws ArithmeticException if the starting cash is out of the range of {@link Money}.
+     */
+    public Portfolio(MarketBook book, PriceSource prices, double startingCash) {
+        this.book = book;
+        this.prices = prices;
+        this.startingCash = Money.ofDollars(startingCash);
+        this.availableCash = this.startingCash;
+    }
+
+    // Getters for portfolio properties in dollars and shares.
+    public MarketBook getBook() { return book; }
+    public double getAvailableCash() { return Money.toDollars(availableCash); }
+    public double getPortfolioCost() { return Money.toDollars(portfolioCost); }
+    public double getPreviousPortfolioCost() { return Money.toDollars(previousPortfolioCost); }
+    public int getPositionCount() { return positionCount; }
+    public int getPositionRow(int slot) { return positionRows[slot]; }
+    public double getPositionAmount(int slot) { return Money.toShares(positionAmounts[slot]); }
+
+    // Getters for exact portfolio properties in micro-cents.
+    public long getAvailableCashMicros() { return availableCash; }
+    public long getPortfolioCostMicros() { return portfolioCost; }
+    public long getNetWorthMicros() { return Math.addExact(availableCash, portfolioCost); }
+    public long getStartingCashMicros() { return startingCash; }
+
+    /**
+     * Empties the portfolio and restores the starting cash.
+     */
+    public void reset() {
+        positionCount = 0;
+        slotsByRow.clear();
+        availableCash = startingCash;
+        portfolioCost = 0;
+        previousPortfolioCost = 0;
+    }
+
+    /**
+     * Returns the amount of a stock owned.
+     * @param row The book row of the stock.
+     * @return The number of shares owned, 0 if the stock is not owned.
+     */
+    public double getAmountOwned(int row) {
+        return Money.toShares(getMicroSharesOwned(row));
+    }
+
+    /**
+     * Returns the exact amount of a stock owned.
+     * @param row The book row of the stock.
+     * @return The number of micro-shares owned, 0 if the stock is not owned.
+     */
+    public long getMicroSharesOwned(int row) {
+        int slot = slotsByRow.get(row);
+        return slot == IntIntMap.MISSING ? 0 : positionAmounts[slot];
+    }
+
+    /**
+     * Creates views of the owned stocks, each carrying the amount owned.
+     * @return A new list of owned stocks.
+     */
+    public List<Stock> getBoughtStocks() {
+        List<Stock> boughtStocks = new ArrayList<>(positionCount);
+        for (int slot = 0; slot < positionCount; slot++) {
+            Stock stock = book.stock(positionRows[slot]);
+            stock.setAmountOwned(Money.toShares(positionAmounts[slot]));
+            boughtStocks.add(stock);
+        }
+        return boughtStocks;
+    }
+
+    /**
+     * Finds a stock owned by the player by its name.
+     * @param stockName The name of the stock to find.
+     * @return The found stock carrying the amount owned, or null if not found.
+     */
+    public Stock findOwnedStockByName(String stockName) {
+        int row = book.indexOf(stockName);
+        int slot = row < 0 ? IntIntMap.MISSING : slotsByRow.get(row);
+        if (slot == IntIntMap.MISSING) {
+            return null;
+        }
+        Stock stock = book.stock(row);
+        stock.setAmountOwned(Money.toShares(positionAmounts[slot]));
+        return stock;
+    }
+
+    /**
+     * Recomputes the total cost of the portfolio from scratch at the current book prices.
+     * The result equals what {@link #applyPriceChanges} reaches incrementally.
+     */
+    public void updatePortfolioCost() {
+        long sum = 0;
+        for (int slot = 0; slot < positionCount; slot++) {
+            long price = price(positionRows[slot]);
+            positionPrices[slot] = price;
+            sum = Math.addExact(sum, Money.value(positionAmounts[slot], price));
+        }
+        portfolioCost = sum;
+    }
+
+    /**
+     * Revalues the portfolio after book prices have changed, adding the value change of each position
+     * to the running total.
+     */
+    public void applyPriceChanges() {
+        for (int slot = 0; slot < positionCount; slot++) {
+            markToMarket(slot);
+        }
+    }
+
+    /**
+     * Returns the cash the player would hold after selling every position at the last valued prices.
+     * @return The available cash plus the portfolio cost.
+     */
+    public double getNetWorth() {
+        return Money.toDollars(getNetWorthMicros());
+    }
+
+    /**
+     * Remembers the current portfolio cost so the next day can be compared against it.
+     */
+    public void markPreviousPortfolioCost() {
+        previousPortfolioCost = portfolioCost;
+    }
+
+    /**
+     * Spends cash on a market stock at its current price.
+     * The shares bought are rounded down to the micro-share.
+     * @param row The book row of the stock being bought.
+     * @param totalCost The amount of money to spend.
+     * @return true if the purchase was made, false if there is not enough cash, the amount buys nothing or the
+     *         price is below {@link Money#MIN_TRADE_PRICE}.
+     */
+    public boolean buy(int row, double totalCost) {
+        long cost = cost(totalCost);
+        long price = price(row);
+        if (availableCash < cost || cost <= 0 || price < MIN_TRADE_PRICE) {
+            return false;
+        }
+        long stockAmount = Money.sharesBought(cost, price);
+        if (stockAmount == 0) {
+            return false;
+        }
+        availableCash -= cost;
+        int slot = slotsByRow.get(row);
+        if (slot == IntIntMap.MISSING) {
+            addPosition(row, stockAmount, price);
+            addToPortfolioCost(Money.value(stockAmount, price));
+        } else {
+            markToMarket(slot);
+            setAmount(slot, Math.addExact(positionAmounts[slot], stockAmount));
+        }
+        return true;
+    }
+
+    /**
+     * Sells an owned stock for the given amount of money at its current price.
+     * The shares given up are rounded up to the micro-share.
+     * Positions that fall below {@link MarketEngine#MIN_POSITION} shares are dropped.
+     * @param row The book row of the stock being sold.
+     * @param totalCost The amount of money to receive.
+     * @return true if the sale was made, false if not enough shares are owned.
+     */
+    public boolean sell(int row, double totalCost) {
+        int slot = slotsByRow.get(row);
+        if (slot == IntIntMap.MISSING) {
+            return false;
+        }
+        long cost = cost(totalCost);
+        long price = price(row);
+        if (cost <= 0 || price <= 0) {
+            return false;
+        }
+        long stockAmount = Money.sharesSold(cost, price);
+        if (positionAmounts[slot] < stockAmount) {
+            return false;
+        }
+        markToMarket(slot);
+        availableCash = Math.addExact(availableCash, cost);
+        long newAmount = positionAmounts[slot] - stockAmount;
+
+        if (newAmount < MIN_POSITION) {
+            addToPortfolioCost(-Money.value(positionAmounts[slot], price));
+            removePosition(slot);
+        } else {
+            setAmount(slot, newAmount);
+        }
+        return true;
+    }
+
+    /**
+     * Sells every share of an owned stock at its current price.
+     * @param row The book row of the stock being sold.
+     * @return true if the stock was owned and has been sold.
+     */
+    public boolean sellAll(int row) {
+        int slot = slotsByRow.get(row);
+        if (slot == IntIntMap.MISSING) {
+            return false;
+        }
+        markToMarket(slot);
+        long totalCost = Money.value(positionAmounts[slot], positionPrices[slot]);
+
+        availableCash = Math.addExact(availableCash, totalCost);
+        addToPortfolioCost(-totalCost);
+
+        removePosition(slot);
+        return true;
+    }
+
+    /**
+     * Settles a fill of an {@link OrderBook}: exchanges shares for cash at the trade price, while the position
+     * stays valued at the current price like any other. Positions that fall below
+     * {@link MarketEngine#MIN_POSITION} shares after a sale are dropped, as in {@link #sell}.
+     * @param row The book row of the stock traded.
+     * @param side The side this portfolio traded on.
+     * @param microShares The amount of stock traded, positive.
+     * @param price The price of one share in micro-cents, positive.
+     * @return true if the fill was settled, false if there is not enough cash or not enough shares.
+     */
+    public boolean applyFill(int row, OrderSide side, long microShares, long price) {
+        if (microShares <= 0 || price <= 0) {
+            return false;
+        }
+        long value = Money.value(microShares, price);
+        int slot = slotsByRow.get(row);
+        if (side == OrderSide.BUY) {
+            if (availableCash < value) {
+                return false;
+            }
+            availableCash -= value;
+            if (slot == IntIntMap.MISSING) {
+                long currentPrice = price(row);
+                addPosition(row, microShares, currentPrice);
+                addToPortfolioCost(Money.value(microShares, currentPrice));
+            } else {
+                markToMarket(slot);
+                setAmount(slot, Math.addExact(positionAmounts[slot], microShares));
+            }
+            return true;
+        }
+        if (slot == IntIntMap.MISSING || positionAmounts[slot] < microShares) {
+            return false;
+        }
+        markToMarket(slot);
+        availableCash = Math.addExact(availableCash, value);
+        long newAmount = positionAmounts[slot] - microShares;
+        if (newAmount < MIN_POSITION) {
+            addToPortfolioCost(-Money.value(positionAmounts[slot], positionPrices[slot]));
+            removePosition(slot);
+        } else {
+            setAmount(slot, newAmount);
+        }
+        return true;
+    }
+
+    /**
+     * Sells every position at its current price, leaving only cash.
+     */
+    public void liquidate() {
+        while (positionCount > 0) {
+            sellAll(positionRows[positionCount - 1]);
+        }
+    }
+
+    /**
+     * Applies a batch of trades atomically: either every leg is made or none is.
+     * The whole batch is first simulated against the current cash, holdings and prices, leg after leg, so sells
+     * listed before buys fund them; the legs are then made with the same arithmetic, which guarantees the
+     * simulated outcome. The valuation is adjusted incrementally per leg, so no re-summation is needed.
+     * @param legs The trades, in the order they are made.
+     * @return -1 if the batch was applied, otherwise the index of the first leg that cannot be made.
+     */
+    public int applyBatch(List<TradeLeg> legs) {
+        int failedLeg = simulateBatch(legs);
+        if (failedLeg >= 0) {
+            return failedLeg;
+        }
+        for (int i = 0; i < legs.size(); i++) {
+            TradeLeg leg = legs.get(i);
+            int row = batchRows[i];
+            switch (leg.getAction()) {
+                case BUY -> buy(row, leg.getCash());
+                case SELL -> sell(row, leg.getCash());
+                case SELL_ALL -> sellAll(row);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the legs of a batch against simulated cash and amounts, mirroring {@link #buy}, {@link #sell} and
+     * {@link #sellAll}, and records the row of each leg.
+     * @param legs The trades.
+     * @return -1 if every leg can be made, otherwise the index of the first one that cannot.
+     */
+    private int simulateBatch(List<TradeLeg> legs) {
+        int count = legs.size();
+        if (batchRows.length < count) {
+            batchRows = new int[count];
+            batchAmounts = new long[count];
+        }
+        batchSlots.clear();
+        long cash = availableCash;
+        for (int i = 0; i < count; i++) {
+            TradeLeg leg = legs.get(i);
+            int row = book.indexOf(leg.getSymbol());
+            if (row < 0) {
+                return i;
+            }
+            batchRows[i] = row;
+            int slot = batchSlots.get(row);
+            if (slot == IntIntMap.MISSING) {
+                slot = batchSlots.size();
+                batchSlots.put(row, slot);
+                batchAmounts[slot] = getMicroSharesOwned(row);
+            }
+            long amount = batchAmounts[slot];
+            long price = price(row);
+            switch (leg.getAction()) {
+                case BUY -> {
+                    long cost = cost(leg.getCash());
+                    if (cash < cost || cost <= 0 || price < MIN_TRADE_PRICE) {
+                        return i;
+                    }
+                    long stockAmount = Money.sharesBought(cost, price);
+                    if (stockAmount == 0) {
+                        return i;
+                    }
+                    cash -= cost;
+                    batchAmounts[slot] = Math.addExact(amount, stockAmount);
+                }
+                case SELL -> {
+                    long cost = cost(leg.getCash());
+                    if (amount == 0 || cost <= 0 || price <= 0) {
+                        return i;
+                    }
+                    long stockAmount = Money.sharesSold(cost, price);
+                    if (amount < stockAmount) {
+                        return i;
+                    }
+                    cash = Math.addExact(cash, cost);
+                    long newAmount = amount - stockAmount;
+                    batchAmounts[slot] = newAmount < MIN_POSITION ? 0 : newAmount;
+                }
+                case SELL_ALL -> {
+                    if (amount == 0) {
+                        return i;
+                    }
+                    cash = Math.addExact(cash, Money.value(amount, price));
+                    batchAmounts[slot] = 0;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the size of this portfolio's section of a {@link GameSnapshot}.
+     * @return The number of bytes {@link #writeSnapshot} puts.
+     */
+    long snapshotSize() {
+        return GameSnapshot.align(32 + (long) positionCount * (2 * Long.BYTES + Integer.BYTES));
+    }
+
+    /**
+     * Writes the cash, the running valuation and every position to a snapshot.
+     * @param buffer The little-endian buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putLong(availableCash).putLong(portfolioCost).putLong(previousPortfolioCost)
+                .putInt(positionCount).putInt(0);
+        GameSnapshot.putLongs(buffer, positionAmounts, positionCount);
+        GameSnapshot.putLongs(buffer, positionPrices, positionCount);
+        GameSnapshot.putInts(buffer, positionRows, positionCount);
+        buffer.position(start + (int) snapshotSize());
+    }
+
+    /**
+     * Replaces the cash, the running valuation and every position with those of a snapshot.
+     * The book must already hold the rows of the same snapshot.
+     * @param buffer The little-endian buffer to read from.
+     * @throws IllegalArgumentException if a position refers to a row outside the book or appears twice.
+     */
+    void readSnapshot(ByteBuffer buffer) {
+        int start = buffer.position();
+        long cash = buffer.getLong();
+        long cost = buffer.getLong();
+        long previousCost = buffer.getLong();
+        int count = buffer.getInt();
+        buffer.getInt();
+        if (count < 0 || (long) count * (2 * Long.BYTES + Integer.BYTES) > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid position count: " + count);
+        }
+        reset();
+        if (count > positionRows.length) {
+            positionRows = new int[count];
+            positionAmounts = new long[count];
+            positionPrices = new long[count];
+        }
+        GameSnapshot.getLongs(buffer, positionAmounts, count);
+        GameSnapshot.getLongs(buffer, positionPrices, count);
+        GameSnapshot.getInts(buffer, positionRows, count);
+        for (int slot = 0; slot < count; slot++) {
+            int row = positionRows[slot];
+            if (row < 0 || row >= book.size() || slotsByRow.get(row) != IntIntMap.MISSING) {
+                slotsByRow.clear();
+                throw new IllegalArgumentException("Invalid position row: " + row);
+            }
+            slotsByRow.put(row, slot);
+        }
+        positionCount = count;
+        availableCash = cash;
+        portfolioCost = cost;
+        previousPortfolioCost = previousCost;
+        buffer.position(start + (int) snapshotSize());
+    }
+
+    /**
+     * Converts the money of a trade to micro-cents.
+     * @param totalCost The amount of money in dollars.
+     * @return The amount in micro-cents, or 0 if it is not a positive amount {@link Money} can hold,
+     *         which every trade rejects.
+     */
+    private static long cost(double totalCost) {
+        return totalCost > 0 && totalCost < Money.toDollars(Long.MAX_VALUE) ? Money.ofDollars(totalCost) : 0;
+    }
+
+    /**
+     * Returns the current price of a row in micro-cents.
+     * @param row The book row.
+     * @return The price, rounded to the nearest micro-cent.
+     */
+    private long price(int row) {
+        return Money.ofDollars(prices.getPrice(row));
+    }
+
+    /**
+     * Adds the change of a position's value since it was last valued to the portfolio cost.
+     * @param slot The slot of the position.
+     */
+    private void markToMarket(int slot) {
+        long price = price(positionRows[slot]);
+        long lastPrice = positionPrices[slot];
+        if (price != lastPrice) {
+            long amount = positionAmounts[slot];
+            addToPortfolioCost(Money.value(amount, price) - Money.value(amount, lastPrice));
+            positionPrices[slot] = price;
+        }
+    }
+
+    /**
+     * Changes the amount of a position valued at the current price, adjusting the portfolio cost.
+     * @param slot The slot of the position.
+     * @param amount The new number of micro-shares.
+     */
+    private void setAmount(int slot, long amount) {
+        long price = positionPrices[slot];
+        addToPortfolioCost(Money.value(amount, price) - Money.value(positionAmounts[slot], price));
+        positionAmounts[slot] = amount;
+    }
+
+    /**
+     * Adds a value to the running portfolio cost.
+     * @param value The value to add in micro-cents.
+     */
+    private void addToPortfolioCost(long value) {
+        portfolioCost = Math.addExact(portfolioCost, value);
+    }
+
+    /**
+     * Appends a position, growing the position arrays when full.
+     * @param row The book row of the stock.
+     * @param amount The number of micro-shares owned.
+     * @param price The price the position is valued at in micro-cents.
+     */
+    private void addPosition(int row, long amount, long price) {
+        if (positionCount == positionRows.length) {
+            positionRows = Arrays.copyOf(positionRows, positionCount * 2);
+            positionAmounts = Arrays.copyOf(positionAmounts, positionCount * 2);
+            positionPrices = Arrays.copyOf(positionPrices, positionCount * 2);
+        }
+        positionRows[positionCount] = row;
+        positionAmounts[positionCount] = amount;
+        positionPrices[positionCount] = price;
+        slotsByRow.put(row, positionCount);
+        positionCount++;
+    }
+
+    /**
+     * Removes a position by moving the last position into its slot.
+     * @param slot The slot of the position to remove.
+     */
+    private void removePosition(int slot) {
+        slotsByRow.remove(positionRows[slot]);
+        int last = --positionCount;
+        if (slot != last) {
+            positionRows[slot] = positionRows[last];
+            positionAmounts[slot] = positionAmounts[last];
+            positionPrices[slot] = positionPrices[last];
+            slotsByRow.put(positionRows[slot], slot);
+        }
+    }
+}
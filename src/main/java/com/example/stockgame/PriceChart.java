@@ -0,0 +1,213 @@
+package com.example.stockgame;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Line chart of a {@link PriceSeries} drawn straight onto a canvas rather than with a node per point.
+ * <p>
+ * The x axis is split into at most one column per pixel, and each column is drawn as one vertical stroke from the
+ * minimum to the maximum of the points falling into it, joined to the previous column: min/max decimation, which
+ * keeps every spike visible. Column ranges come from the series' min/max pyramid, so a redraw costs about the
+ * chart's width whatever the number of points. When days are appended, {@link #refresh()} only draws the new
+ * columns; the chart is redrawn whole only when the new points leave the axis ranges, which are then widened with
+ * room to spare so that happens rarely.
+ */
+public class PriceChart extends Canvas {
+    // Space around the plot for the title and labels.
+    private static final double MARGIN = 16;
+    // Fraction of the value range added above and below it when the y axis is fitted.
+    private static final double Y_PADDING = 0.1;
+
+    // Title drawn above the plot.
+    private String title = "";
+    // Series drawn, if any.
+    private PriceSeries series;
+    // Number of points the x axis holds at least.
+    private final int minimumCapacity;
+    // Number of points the x axis holds, and the value range of the y axis.
+    private int capacity;
+    private double yMin;
+    private double yMax;
+    // Number of points already drawn.
+    private int drawnCount;
+
+    /**
+     * Constructs an empty chart.
+     * @param width The width of the chart in pixels.
+     * @param height The height of the chart in pixels.
+     * @param minimumCapacity The number of points the x axis holds at least, such as the length of a game.
+     */
+    public PriceChart(double width, double height, int minimumCapacity) {
+        super(width, height);
+        this.minimumCapacity = Math.max(minimumCapacity, 2);
+        redraw();
+    }
+
+    /**
+     * Shows a series, drawing it whole.
+     * @param series The series, or null for none.
+     * @param title The title of the chart.
+     */
+    public void setSeries(PriceSeries series, String title) {
+        this.series = series;
+        this.title = title;
+        redraw();
+    }
+
+    /**
+     * Draws the points appended to the series since the last draw. The chart is redrawn whole if the series was
+     * cleared or the new points do not fit the axes.
+     */
+    public void refresh() {
+        if (series == null) {
+            return;
+        }
+        int size = series.size();
+        if (size < drawnCount || size > capacity) {
+            redraw();
+            return;
+        }
+        if (size == drawnCount) {
+            return;
+        }
+        if (series.min(drawnCount, size) < yMin || series.max(drawnCount, size) > yMax) {
+            redraw();
+            return;
+        }
+        // Restart from the column of the last drawn point so the new points join it; strokes over that column
+        // only extend it, as its range now covers more points.
+        drawPoints(Math.max(drawnCount - 1, 0), size);
+        drawnCount = size;
+    }
+
+    /**
+     * Clears the chart and draws the whole series, fitting the axes to it.
+     */
+    public void redraw() {
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.clearRect(0, 0, getWidth(), getHeight());
+        graphics.setStroke(Color.LIGHTGRAY);
+        graphics.setLineWidth(1);
+        graphics.strokeRect(MARGIN - 0.5, MARGIN - 0.5, plotWidth() + 1, plotHeight() + 1);
+        graphics.setFill(Color.BLACK);
+        graphics.setFont(Font.font("Arial", 12));
+        graphics.setTextAlign(TextAlignment.LEFT);
+        graphics.setTextBaseline(VPos.BOTTOM);
+        graphics.fillText(title, MARGIN, MARGIN - 2);
+        drawnCount = 0;
+        if (series == null || series.size() == 0) {
+            return;
+        }
+        int size = series.size();
+        capacity = minimumCapacity;
+        while (capacity < size) {
+            capacity *= 2;
+        }
+        double low = series.min(0, size);
+        double high = series.max(0, size);
+        double padding = Math.max(high - low, Math.abs(high) * 0.01 + 1e-9) * Y_PADDING;
+        yMin = low - padding;
+        yMax = high + padding;
+
+        graphics.setFont(Font.font("Arial", 10));
+        graphics.setTextAlign(TextAlignment.RIGHT);
+        graphics.setTextBaseline(VPos.TOP);
+        graphics.fillText(String.format("%.2f", high), getWidth() - MARGIN - 2, MARGIN + 2);
+        graphics.setTextBaseline(VPos.BOTTOM);
+        graphics.fillText(String.format("%.2f", low), getWidth() - MARGIN - 2, MARGIN + plotHeight() - 2);
+
+        drawPoints(0, size);
+        drawnCount = size;
+    }
+
+    /**
+     * Draws the columns holding a range of points, each joined to the column before it.
+     */
+    private void drawPoints(int from, int to) {
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.setStroke(Color.STEELBLUE);
+        graphics.setLineWidth(1.5);
+        int columns = columnCount();
+        int lastColumn = columnOf(to - 1, columns);
+        double previousX = Double.NaN;
+        double previousY = Double.NaN;
+        int column = columnOf(from, columns);
+        if (column > 0) {
+            // Join the first column to the last point of the column before it.
+            int previousEnd = firstPoint(column, columns);
+            previousX = columnX(column - 1, columns);
+            previousY = y(series.get(previousEnd - 1));
+        }
+        for (; column <= lastColumn; column++) {
+            int start = firstPoint(column, columns);
+            int end = Math.min(firstPoint(column + 1, columns), to);
+            if (start >= end) {
+                continue;
+            }
+            double x = columnX(column, columns);
+            double first = y(series.get(start));
+            if (!Double.isNaN(previousX)) {
+                graphics.strokeLine(previousX, previousY, x, first);
+            }
+            if (end - start > 1) {
+                graphics.strokeLine(x, y(series.max(start, end)), x, y(series.min(start, end)));
+            }
+            previousX = x;
+            previousY = y(series.get(end - 1));
+        }
+    }
+
+    /**
+     * Returns the number of columns the x axis is split into: a column per point, at most a column per pixel.
+     */
+    private int columnCount() {
+        return (int) Math.max(1, Math.min(capacity, Math.floor(plotWidth())));
+    }
+
+    /**
+     * Returns the column a point falls into.
+     */
+    private int columnOf(int point, int columns) {
+        return (int) ((long) point * columns / capacity);
+    }
+
+    /**
+     * Returns the first point of a column.
+     */
+    private int firstPoint(int column, int columns) {
+        return (int) (((long) column * capacity + columns - 1) / columns);
+    }
+
+    /**
+     * Returns the x coordinate of a column; with a column per point, the first and last points touch the edges.
+     */
+    private double columnX(int column, int columns) {
+        return MARGIN + plotWidth() * column / Math.max(columns - 1, 1);
+    }
+
+    /**
+     * Returns the y coordinate of a value.
+     */
+    private double y(double value) {
+        return MARGIN + plotHeight() * (yMax - value) / (yMax - yMin);
+    }
+
+    /**
+     * Returns the width of the plot inside the margins.
+     */
+    private double plotWidth() {
+        return getWidth() - 2 * MARGIN;
+    }
+
+    /**
+     * Returns the height of the plot inside the margins.
+     */
+    private double plotHeight() {
+        return getHeight() - 2 * MARGIN;
+    }
+}
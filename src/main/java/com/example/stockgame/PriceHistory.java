@@ -0,0 +1,26 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+
+/**
+ * Daily price series read one day at a time, oldest first, so a history of any size is replayed with only
+ * one day of it in memory. See {@link CsvPriceHistory} and {@link JournalPriceHistory}.
+ */
+public interface PriceHistory extends AutoCloseable {
+    /**
+     * Reads the bars of the next day.
+     * @param listener Receives every bar of the day.
+     * @return false if the history has no more days; the listener was not called then.
+     * @throws IOException if the history cannot be read or is malformed.
+     */
+    boolean nextDay(BarListener listener) throws IOException;
+
+    /**
+     * Returns the date of the day last read.
+     * @return The date as written in the history, such as yyyymmdd, or 0 before the first day.
+     */
+    int getDate();
+
+    @Override
+    void close() throws IOException;
+}
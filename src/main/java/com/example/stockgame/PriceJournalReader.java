@@ -0,0 +1,165 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a journal written by {@link PriceJournalWriter} through memory-mapped segments.
+ * Any price is found by offset arithmetic, by day and symbol id, without loading the journal onto the heap;
+ * the operating system pages in only the parts that are read.
+ */
+public class PriceJournalReader implements AutoCloseable {
+    // Records per mapped segment; a segment is 1 GiB, below the 2 GiB limit of a mapping.
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_RECORDS = 1L << SEGMENT_SHIFT;
+
+    // Channel of the journal file.
+    private final FileChannel channel;
+    // Number of records per day.
+    private final int symbolCount;
+    // Packed symbol of every symbol id.
+    private final int[] symbolCodes;
+    // First day of the journal and number of complete days.
+    private final int firstDay;
+    private final int days;
+    // Mapped record segments.
+    private final MappedByteBuffer[] segments;
+
+    private PriceJournalReader(FileChannel channel, int symbolCount, int[] symbolCodes, int firstDay, int days,
+                               MappedByteBuffer[] segments) {
+        this.channel = channel;
+        this.symbolCount = symbolCount;
+        this.symbolCodes = symbolCodes;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.segments = segments;
+    }
+
+    /**
+     * Opens a journal and maps the complete days it holds.
+     *
+     * @param path The journal file.
+     * @return A reader of the journal.
+     * @throws IOException if the file cannot be read or is not a journal.
+     */
+    public static PriceJournalReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, PriceJournalWriter.HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != PriceJournalWriter.MAGIC || header.getInt(4) != PriceJournalWriter.VERSION) {
+                throw new IOException("Not a price journal: " + path);
+            }
+            int symbolCount = header.getInt(8);
+            long dataStart = PriceJournalWriter.dataStart(symbolCount);
+
+            int[] symbolCodes = new int[symbolCount];
+            channel.map(FileChannel.MapMode.READ_ONLY, PriceJournalWriter.HEADER_SIZE, 4L * symbolCount)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(symbolCodes);
+            for (int code : symbolCodes) {
+                if (code < 1 || code > SymbolCodes.MAX_CODE) {
+                    throw new IOException("Invalid symbol code " + code + " in price journal: " + path);
+                }
+            }
+
+            long dayBytes = (long) symbolCount * PriceJournalWriter.RECORD_SIZE;
+            int days = symbolCount == 0 ? 0 : (int) (Math.max(channel.size() - dataStart, 0) / dayBytes);
+            long records = (long) days * symbolCount;
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((records + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = i * SEGMENT_RECORDS;
+                long size = Math.min(SEGMENT_RECORDS, records - first) * PriceJournalWriter.RECORD_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataStart + first * PriceJournalWriter.RECORD_SIZE, size);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            int firstDay = days == 0 ? 0 : segments[0].getInt(0);
+            return new PriceJournalReader(channel, symbolCount, symbolCodes, firstDay, days, segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Getters for the journal layout.
+    public int getSymbolCount() { return symbolCount; }
+    public int getFirstDay() { return firstDay; }
+    public int getDays() { return days; }
+    public int getLastDay() { return firstDay + days - 1; }
+
+    /**
+     * Returns the packed symbol of a symbol id, as stored in the journal.
+     *
+     * @param symbolId The symbol id, which is the row of the stock in the recorded market.
+     * @return The {@link SymbolCodes} code of the stock.
+     */
+    public int getSymbolCode(int symbolId) {
+        return symbolCodes[symbolId];
+    }
+
+    /**
+     * Returns the symbol of a symbol id.
+     *
+     * @param symbolId The symbol id, which is the row of the stock in the recorded market.
+     * @return The name of the stock.
+     */
+    public String getName(int symbolId) {
+        return SymbolCodes.decode(symbolCodes[symbolId]);
+    }
+
+    /**
+     * Reads the price of a stock on a day.
+     *
+     * @param day The day, between the first and the last day of the journal.
+     * @param symbolId The symbol id.
+     * @return The recorded price.
+     */
+    public double getPrice(int day, int symbolId) {
+        if (day < firstDay || day > getLastDay() || symbolId < 0 || symbolId >= symbolCount) {
+            throw new IndexOutOfBoundsException("No record for day " + day + ", symbol " + symbolId);
+        }
+        long record = (long) (day - firstDay) * symbolCount + symbolId;
+        int offset = (int) (record & (SEGMENT_RECORDS - 1)) * PriceJournalWriter.RECORD_SIZE;
+        return segments[(int) (record >>> SEGMENT_SHIFT)].getDouble(offset + 8);
+    }
+
+    /**
+     * Reads every price of a day.
+     *
+     * @param day The day.
+     * @param prices Receives the price of each symbol id; must hold at least {@link #getSymbolCount()} values.
+     */
+    public void readDay(int day, double[] prices) {
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            prices[symbolId] = getPrice(day, symbolId);
+        }
+    }
+
+    /**
+     * Reads the price history of one stock.
+     *
+     * @param symbolId The symbol id.
+     * @param prices Receives the price of each day, starting with the first day; must hold at least {@link #getDays()} values.
+     */
+    public void readHistory(int symbolId, double[] prices) {
+        for (int day = 0; day < days; day++) {
+            prices[day] = getPrice(firstDay + day, symbolId);
+        }
+    }
+
+    /**
+     * Releases the file. The mapped segments stay valid until they are garbage collected.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.stockgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the daily prices of a market to a binary journal file.
+ * The file starts with a header holding the number of symbols and the packed symbol of every row, padded to a
+ * multiple of {@link #RECORD_SIZE}. Every day then adds one fixed-width record per row, in row order:
+ * the day (int), the row as symbol id (int) and the price (double), little-endian. Days follow each other
+ * without gaps, so {@link PriceJournalReader} finds any record by arithmetic alone.
+ * Records are gathered in a direct buffer and written to the channel in large batches.
+ */
+public class PriceJournalWriter implements AutoCloseable {
+    // Identifies a price journal file ("PJRN").
+    public static final int MAGIC = 0x504a524e;
+    // Version of the file layout.
+    public static final int VERSION = 1;
+    // Size of a record and unit of the header padding, in bytes.
+    public static final int RECORD_SIZE = 16;
+    // Size of the fixed part of the header: magic, version, symbol count and a reserved int.
+    public static final int HEADER_SIZE = 16;
+    // Records gathered before the buffer is written to the file.
+    private static final int BUFFER_RECORDS = 8_192;
+
+    // Channel of the journal file.
+    private final FileChannel channel;
+    // Number of records written per day.
+    private final int symbolCount;
+    // Records waiting to be written.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    // Last day appended, or Integer.MIN_VALUE if the journal has no day yet.
+    private int lastDay;
+
+    private PriceJournalWriter(FileChannel channel, int symbolCount, int lastDay) {
+        this.channel = channel;
+        this.symbolCount = symbolCount;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * Opens a journal for a market, creating the file or appending to an existing journal of the same market:
+     * one recording the same symbols in the same rows. A partially written day at the end of the journal is cut off.
+     * The journal of an empty market holds no record, so it is reopened with no last day.
+     *
+     * @param path The journal file.
+     * @param book The market whose prices are recorded.
+     * @return A writer positioned at the end of the journal.
+     * @throws IOException if the file cannot be opened or is not a journal of this market.
+     */
+    public static PriceJournalWriter open(Path path, MarketBook book) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int symbolCount = book.size();
+            long dataStart = dataStart(symbolCount);
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate((int) dataStart).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(symbolCount).putInt(0);
+                for (int row = 0; row < symbolCount; row++) {
+                    header.putInt(book.getSymbolCode(row));
+                }
+                header.clear();
+                writeFully(channel, header, 0);
+                channel.position(dataStart);
+                return new PriceJournalWriter(channel, symbolCount, Integer.MIN_VALUE);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != symbolCount) {
+                throw new IOException("Not a price journal of this market: " + path);
+            }
+            // Rows are only recorded as symbol ids, so a journal of another market of the same size must be
+            // told apart by the symbols in its header.
+            ByteBuffer symbols = ByteBuffer.allocate(4 * symbolCount).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, symbols, HEADER_SIZE);
+            for (int row = 0; row < symbolCount; row++) {
+                if (symbols.getInt(4 * row) != book.getSymbolCode(row)) {
+                    throw new IOException("Not a price journal of this market: " + path + " does not record "
+                            + book.getName(row) + " as symbol " + row);
+                }
+            }
+            long dayBytes = (long) symbolCount * RECORD_SIZE;
+            long days = symbolCount == 0 ? 0 : Math.max(channel.size() - dataStart, 0) / dayBytes;
+            long end = dataStart + days * dayBytes;
+            channel.truncate(end);
+            channel.position(end);
+
+            int lastDay = Integer.MIN_VALUE;
+            if (days > 0) {
+                ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, record, end - RECORD_SIZE);
+                lastDay = record.getInt(0);
+            }
+            return new PriceJournalWriter(channel, symbolCount, lastDay);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the offset of the first record in a journal.
+     *
+     * @param symbolCount The number of symbols of the journal.
+     * @return The size of the padded header in bytes.
+     */
+    public static long dataStart(int symbolCount) {
+        long headerBytes = HEADER_SIZE + 4L * symbolCount;
+        return (headerBytes + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    /**
+     * Returns the last day appended.
+     *
+     * @return The last day, or Integer.MIN_VALUE if the journal is empty.
+     */
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    /**
+     * Appends the current price of every row for a day.
+     *
+     * @param day The day the prices belong to; it must directly follow the last day appended.
+     * @param book The market, with the same number of rows as the journal.
+     * @throws IOException if the records cannot be written.
+     * @throws IllegalArgumentException if the day does not follow the last day or the market has another size.
+     */
+    public void append(int day, MarketBook book) throws IOException {
+        if (book.size() != symbolCount) {
+            throw new IllegalArgumentException("Journal holds " + symbolCount + " symbols, market has " + book.size());
+        }
+        if (lastDay != Integer.MIN_VALUE && day != lastDay + 1) {
+            throw new IllegalArgumentException("Day " + day + " does not follow day " + lastDay);
+        }
+        for (int row = 0; row < symbolCount; row++) {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            buffer.putInt(day).putInt(row).putDouble(book.getPrice(row));
+        }
+        lastDay = day;
+    }
+
+    /**
+     * Writes the buffered records and forces them to the storage device.
+     *
+     * @throws IOException if the records cannot be written.
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        channel.force(false);
+    }
+
+    /**
+     * Writes the buffered records and closes the file.
+     *
+     * @throws IOException if the records cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered records at the end of the file and empties the buffer.
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+            position += read;
+        }
+    }
+}
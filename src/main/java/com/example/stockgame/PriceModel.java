@@ -0,0 +1,33 @@
+package com.example.stockgame;
+
+/**
+ * Stochastic process moving the prices of a {@link MarketBook} from one day to the next.
+ * A model advances a whole range of rows per call, working directly on the price column and the random
+ * stream states of the book, so a tick is one tight loop per chunk whatever the model.
+ * The book calls a model for disjoint ranges from several threads at once, so models must be stateless
+ * apart from their immutable parameters and what {@link #beforeTick} prepares, and must draw randomness only
+ * from the stream of the row they update.
+ */
+@FunctionalInterface
+public interface PriceModel {
+    // Trading days per year, used to turn annualized parameters into daily steps.
+    int TRADING_DAYS_PER_YEAR = 252;
+
+    /**
+     * Moves the price of a range of rows forward by one day.
+     * @param book The book the rows belong to, for reading per-row parameters such as the price floor.
+     * @param prices The price column of the book, updated in place.
+     * @param randomStates The random stream state of each row, advanced in place.
+     * @param from The first row to update, inclusive.
+     * @param to The last row to update, exclusive.
+     */
+    void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to);
+
+    /**
+     * Called once per tick of a whole book, on the ticking thread, before any range is advanced.
+     * Models reading external data load the next day here.
+     * @param book The book about to be ticked.
+     */
+    default void beforeTick(MarketBook book) {
+    }
+}
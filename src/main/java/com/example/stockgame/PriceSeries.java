@@ -0,0 +1,120 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+
+/**
+ * Append-only series of values, one per day, such as the price history of one stock or the player's net worth.
+ * <p>
+ * Besides the values it keeps a min/max pyramid: level k holds the minimum and maximum of every complete block of
+ * 2<sup>k</sup> values. Appending extends the pyramid in amortized O(1), and the minimum and maximum of any range
+ * are found from O(log n) blocks, so a chart can reduce any number of points to one range per pixel column
+ * without touching every point.
+ */
+public class PriceSeries {
+    // Capacity of a new series.
+    private static final int INITIAL_CAPACITY = 32;
+
+    // Values in the order they were appended.
+    private double[] values = new double[INITIAL_CAPACITY];
+    // Minimum and maximum of each block of every pyramid level from 1 up; level k holds size >> k blocks.
+    private double[][] mins = new double[0][];
+    private double[][] maxs = new double[0][];
+    // Number of values.
+    private int size;
+
+    // Getters for series properties.
+    public int size() { return size; }
+    public double get(int index) { return values[index]; }
+
+    /**
+     * Appends a value, completing any pyramid block it ends.
+     * @param value The value.
+     */
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        // A block of level k ends whenever the size becomes a multiple of 2^k.
+        int level = 1;
+        while ((size & ((1 << level) - 1)) == 0) {
+            int block = (size >> level) - 1;
+            double lowMin = blockMin(level - 1, 2 * block);
+            double lowMax = blockMax(level - 1, 2 * block);
+            double highMin = blockMin(level - 1, 2 * block + 1);
+            double highMax = blockMax(level - 1, 2 * block + 1);
+            if (level > mins.length) {
+                mins = Arrays.copyOf(mins, level);
+                maxs = Arrays.copyOf(maxs, level);
+                mins[level - 1] = new double[Math.max(values.length >> level, 1)];
+                maxs[level - 1] = new double[Math.max(values.length >> level, 1)];
+            } else if (block == mins[level - 1].length) {
+                mins[level - 1] = Arrays.copyOf(mins[level - 1], block * 2);
+                maxs[level - 1] = Arrays.copyOf(maxs[level - 1], block * 2);
+            }
+            mins[level - 1][block] = Math.min(lowMin, highMin);
+            maxs[level - 1][block] = Math.max(lowMax, highMax);
+            level++;
+        }
+    }
+
+    /**
+     * Forgets every value, keeping the allocated storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the smallest value of a range.
+     * @param from The index of the first value, inclusive.
+     * @param to The index after the last value, exclusive.
+     * @return The minimum, positive infinity if the range is empty.
+     */
+    public double min(int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int level = 0; from < to; level++, from >>= 1, to >>= 1) {
+            // Blocks hanging over either end of the range are taken at this level; the rest is aligned above.
+            if ((from & 1) != 0) {
+                min = Math.min(min, blockMin(level, from++));
+            }
+            if ((to & 1) != 0) {
+                min = Math.min(min, blockMin(level, --to));
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the largest value of a range.
+     * @param from The index of the first value, inclusive.
+     * @param to The index after the last value, exclusive.
+     * @return The maximum, negative infinity if the range is empty.
+     */
+    public double max(int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int level = 0; from < to; level++, from >>= 1, to >>= 1) {
+            if ((from & 1) != 0) {
+                max = Math.max(max, blockMax(level, from++));
+            }
+            if ((to & 1) != 0) {
+                max = Math.max(max, blockMax(level, --to));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the minimum of one block of a pyramid level; level 0 is the values themselves.
+     */
+    private double blockMin(int level, int block) {
+        return level == 0 ? values[block] : mins[level - 1][block];
+    }
+
+    /**
+     * Returns the maximum of one block of a pyramid level; level 0 is the values themselves.
+     */
+    private double blockMax(int level, int block) {
+        return level == 0 ? values[block] : maxs[level - 1][block];
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.stockgame;
+
+/**
+ * Immutable copy of every price of a market on one day, as published by a {@link SharedMarket}.
+ * Its array is never written after publication, so any number of threads can read it without locking.
+ */
+public class PriceSnapshot implements PriceSource {
+    // Day the prices belong to.
+    private final int day;
+    // Price of every book row.
+    private final double[] prices;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param day The day the prices belong to.
+     * @param prices The price of every book row; the snapshot takes ownership of the array.
+     */
+    public PriceSnapshot(int day, double[] prices) {
+        this.day = day;
+        this.prices = prices;
+    }
+
+    // Getters for snapshot properties.
+    public int getDay() { return day; }
+    public int size() { return prices.length; }
+    @Override
+    public double getPrice(int row) { return prices[row]; }
+}
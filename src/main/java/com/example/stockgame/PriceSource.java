@@ -0,0 +1,14 @@
+package com.example.stockgame;
+
+/**
+ * Anything a {@link Portfolio} can read current prices from, by book row.
+ */
+@FunctionalInterface
+public interface PriceSource {
+    /**
+     * Returns the current price of a stock.
+     * @param row The book row of the stock.
+     * @return The price.
+     */
+    double getPrice(int row);
+}
@@ -0,0 +1,82 @@
+package com.example.stockgame;
+
+/**
+ * Independent random streams derived from one master seed.
+ * It is the SplitMix64 generator behind {@link java.util.SplittableRandom}, with the state of each stream
+ * kept in a caller-owned {@code long[]} so a market can hold one stream per stock without an object per stock.
+ * A stream only depends on the master seed and its index, never on the order or thread streams are advanced on.
+ */
+public final class RandomStreams {
+    // Increment of the SplitMix64 generator (the golden ratio in 64-bit fixed point).
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    // Scale turning the top 53 bits of a long into a double in [0, 1).
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private RandomStreams() {
+    }
+
+    /**
+     * Derives the initial state of one stream.
+     * @param masterSeed The seed all streams are derived from.
+     * @param stream The index of the stream.
+     * @return The initial state of the stream.
+     */
+    public static long seed(long masterSeed, long stream) {
+        return mix64(masterSeed + mix64((stream + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Advances a stream and returns its next 64 random bits.
+     * @param states The states of all streams.
+     * @param stream The index of the stream to advance.
+     * @return A random long.
+     */
+    public static long nextLong(long[] states, int stream) {
+        long state = states[stream] + GOLDEN_GAMMA;
+        states[stream] = state;
+        return mix64(state);
+    }
+
+    /**
+     * Advances a stream and returns a double uniformly distributed in [0, 1).
+     * @param states The states of all streams.
+     * @param stream The index of the stream to advance.
+     * @return A random double.
+     */
+    public static double nextDouble(long[] states, int stream) {
+        return (nextLong(states, stream) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Advances a stream and returns a random boolean.
+     * @param states The states of all streams.
+     * @param stream The index of the stream to advance.
+     * @return A random boolean.
+     */
+    public static boolean nextBoolean(long[] states, int stream) {
+        return nextLong(states, stream) < 0;
+    }
+
+    /**
+     * Advances a stream and returns a normally distributed double with mean 0 and standard deviation 1.
+     * It is one Box-Muller transform of two uniform draws, so every call advances the stream by exactly two steps.
+     * @param states The states of all streams.
+     * @param stream The index of the stream to advance.
+     * @return A random standard normal double.
+     */
+    public static double nextGaussian(long[] states, int stream) {
+        double radius = Math.sqrt(-2 * Math.log(1 - nextDouble(states, stream)));
+        return radius * Math.cos(2 * Math.PI * nextDouble(states, stream));
+    }
+
+    /**
+     * SplitMix64 finalizer, mixing all bits of the input into the output.
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
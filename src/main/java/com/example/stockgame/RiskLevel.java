@@ -0,0 +1,70 @@
+package com.example.stockgame;
+
+/**
+ * Risk levels a stock can have, together with the price parameters each level is created with.
+ * Fluctuations and the growth bias are percentages applied once per day.
+ * The market beta and idiosyncratic volatility are the level's defaults in the {@link FactorModel}.
+ */
+public enum RiskLevel {
+    // Minimum fluctuation: 1%, Maximum fluctuation: 20%, Growth bias: 1%, Price floor: 10,
+    // Market beta: 0.7, Idiosyncratic volatility: 15% a year
+    LOW("Low", 1, 20, 1, 10, 0.7, 0.15),
+    // Minimum fluctuation: 25%, Maximum fluctuation: 50%, Growth bias: 0.05%, Price floor: 0.1,
+    // Market beta: 1.0, Idiosyncratic volatility: 35% a year
+    MEDIUM("Medium", 25, 50, 0.05, 0.1, 1.0, 0.35),
+    // Minimum fluctuation: 75%, Maximum fluctuation: 150%, Growth bias: 0%, Price floor: 0,
+    // Market beta: 1.5, Idiosyncratic volatility: 80% a year
+    HIGH("High", 75, 150, 0, 0, 1.5, 0.8);
+
+    // Name shown to the player.
+    private final String label;
+    // Price parameters of stocks with this risk level.
+    private final double minFluctuation;
+    private final double maxFluctuation;
+    private final double growthBias;
+    private final double priceFloor;
+    // Factor parameters of stocks with this risk level.
+    private final double marketBeta;
+    private final double idiosyncraticVolatility;
+
+    RiskLevel(String label, double minFluctuation, double maxFluctuation, double growthBias, double priceFloor,
+              double marketBeta, double idiosyncraticVolatility) {
+        this.label = label;
+        this.minFluctuation = minFluctuation;
+        this.maxFluctuation = maxFluctuation;
+        this.growthBias = growthBias;
+        this.priceFloor = priceFloor;
+        this.marketBeta = marketBeta;
+        this.idiosyncraticVolatility = idiosyncraticVolatility;
+    }
+
+    // Getters for the risk level parameters.
+    public String getLabel() { return label; }
+    public double getMinFluctuation() { return minFluctuation; }
+    public double getMaxFluctuation() { return maxFluctuation; }
+    public double getGrowthBias() { return growthBias; }
+    public double getPriceFloor() { return priceFloor; }
+    public double getMarketBeta() { return marketBeta; }
+    public double getIdiosyncraticVolatility() { return idiosyncraticVolatility; }
+
+    /**
+     * Returns the risk level whose idiosyncratic volatility is closest to a measured volatility, on a log scale.
+     * @param annualVolatility The annual volatility of a stock.
+     * @return The closest risk level; MEDIUM if the volatility is not positive.
+     */
+    public static RiskLevel nearest(double annualVolatility) {
+        if (!(annualVolatility > 0)) {
+            return MEDIUM;
+        }
+        RiskLevel nearest = MEDIUM;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (RiskLevel level : values()) {
+            double distance = Math.abs(Math.log(annualVolatility / level.idiosyncraticVolatility));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                nearest = level;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+
+/**
+ * Streaming analytics of many value series observed together, such as the price of every stock of a
+ * {@link MarketBook} once per tick: simple and exponential moving averages, volatility and Sharpe ratio of the
+ * returns over a rolling window, drawdown from the running peak, and parametric value at risk.
+ * <p>
+ * The last {@code window} values of every series are kept in one primitive ring buffer laid out slot by slot,
+ * so adding an observation sweeps a few contiguous columns, and the window sums are adjusted in O(1) per series
+ * as the newest value enters and the oldest leaves. Every {@code window} observations the sums are recomputed
+ * from the ring, which bounds floating-point drift at an amortized O(1) cost. Queries read the sums directly and
+ * never rescan history. Memory is about {@code (window + 6) * 8} bytes per series.
+ */
+public class RollingStatistics {
+    // Standard normal quantile of the 95% one-sided confidence level.
+    public static final double Z_95 = 1.6448536269514722;
+
+    // Number of values per series in the window.
+    private final int window;
+    // Smoothing factor of the exponential moving average, 2 / (window + 1).
+    private final double alpha;
+    // Number of series.
+    private int seriesCount;
+    // Last values of every series: slot s of series i is at s * seriesCount + i.
+    private double[] ring = new double[0];
+    // Slot of the newest values, and number of values in the window.
+    private int newest = -1;
+    private int count;
+    // Observations since the sums were last recomputed.
+    private int observationsSinceResum;
+    // Per-series sums over the window: of the values, and of the returns between them and their squares.
+    private double[] valueSums = new double[0];
+    private double[] returnSums = new double[0];
+    private double[] squaredReturnSums = new double[0];
+    // Per-series exponential moving average, running peak and largest drawdown from it.
+    private double[] emas = new double[0];
+    private double[] peaks = new double[0];
+    private double[] maxDrawdowns = new double[0];
+
+    /**
+     * Constructs empty statistics.
+     * @param window The number of values the rolling statistics cover, at least 2.
+     * @throws IllegalArgumentException if the window is smaller than 2.
+     */
+    public RollingStatistics(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("The window must hold at least 2 values: " + window);
+        }
+        this.window = window;
+        this.alpha = 2.0 / (window + 1);
+    }
+
+    // Getters for the statistics' shape.
+    public int getWindow() { return window; }
+    public int getSeriesCount() { return seriesCount; }
+    public int getCount() { return count; }
+
+    /**
+     * Forgets every observation and sizes the statistics for a number of series.
+     * @param seriesCount The number of series.
+     */
+    public void reset(int seriesCount) {
+        this.seriesCount = seriesCount;
+        if ((long) window * seriesCount > ring.length) {
+            ring = new double[Math.multiplyExact(window, seriesCount)];
+        }
+        if (seriesCount > valueSums.length) {
+            valueSums = new double[seriesCount];
+            returnSums = new double[seriesCount];
+            squaredReturnSums = new double[seriesCount];
+            emas = new double[seriesCount];
+            peaks = new double[seriesCount];
+            maxDrawdowns = new double[seriesCount];
+        } else {
+            Arrays.fill(valueSums, 0, seriesCount, 0);
+            Arrays.fill(returnSums, 0, seriesCount, 0);
+            Arrays.fill(squaredReturnSums, 0, seriesCount, 0);
+            Arrays.fill(maxDrawdowns, 0, seriesCount, 0);
+        }
+        newest = -1;
+        count = 0;
+        observationsSinceResum = 0;
+    }
+
+    /**
+     * Adds the next value of every series.
+     * @param values The source of the values, read for every series index.
+     */
+    public void add(PriceSource values) {
+        int n = seriesCount;
+        int slot = newest + 1 == window ? 0 : newest + 1;
+        int slotBase = slot * n;
+        boolean full = count == window;
+        if (count == 0) {
+            for (int i = 0; i < n; i++) {
+                double value = values.getPrice(i);
+                ring[slotBase + i] = value;
+                valueSums[i] = value;
+                emas[i] = value;
+                peaks[i] = value;
+            }
+        } else {
+            int previousBase = newest * n;
+            // When the window is full, the slot being overwritten holds the oldest value and the next one the
+            // value after it, so the return between them leaves the window.
+            int nextOldestBase = (slot + 1 == window ? 0 : slot + 1) * n;
+            for (int i = 0; i < n; i++) {
+                double value = values.getPrice(i);
+                double change = simpleReturn(ring[previousBase + i], value);
+                double valueSum = valueSums[i] + value;
+                double returnSum = returnSums[i] + change;
+                double squaredReturnSum = squaredReturnSums[i] + change * change;
+                if (full) {
+                    double oldest = ring[slotBase + i];
+                    double leaving = simpleReturn(oldest, ring[nextOldestBase + i]);
+                    valueSum -= oldest;
+                    returnSum -= leaving;
+                    squaredReturnSum -= leaving * leaving;
+                }
+                ring[slotBase + i] = value;
+                valueSums[i] = valueSum;
+                returnSums[i] = returnSum;
+                squaredReturnSums[i] = squaredReturnSum;
+                emas[i] += alpha * (value - emas[i]);
+                double peak = Math.max(peaks[i], value);
+                peaks[i] = peak;
+                if (peak > 0) {
+                    maxDrawdowns[i] = Math.max(maxDrawdowns[i], 1 - value / peak);
+                }
+            }
+        }
+        newest = slot;
+        if (!full) {
+            count++;
+        }
+        if (++observationsSinceResum >= window) {
+            resum();
+        }
+    }
+
+    /**
+     * Returns the mean of the values in the window.
+     * @param series The series.
+     * @return The simple moving average, NaN before the first observation.
+     */
+    public double getSimpleMovingAverage(int series) {
+        return count == 0 ? Double.NaN : valueSums[series] / count;
+    }
+
+    /**
+     * Returns the exponential moving average, with the smoothing factor 2 / (window + 1).
+     * @param series The series.
+     * @return The average, NaN before the first observation.
+     */
+    public double getExponentialMovingAverage(int series) {
+        return count == 0 ? Double.NaN : emas[series];
+    }
+
+    /**
+     * Returns the newest value.
+     * @param series The series.
+     * @return The value, NaN before the first observation.
+     */
+    public double getLatest(int series) {
+        return count == 0 ? Double.NaN : ring[newest * seriesCount + series];
+    }
+
+    /**
+     * Returns the mean of the returns in the window, per observation.
+     * @param series The series.
+     * @return The mean return, 0 with fewer than two values.
+     */
+    public double getMeanReturn(int series) {
+        int returns = count - 1;
+        return returns < 1 ? 0 : returnSums[series] / returns;
+    }
+
+    /**
+     * Returns the sample standard deviation of the returns in the window, per observation.
+     * @param series The series.
+     * @return The standard deviation, 0 with fewer than three values.
+     */
+    public double getReturnDeviation(int series) {
+        int returns = count - 1;
+        if (returns < 2) {
+            return 0;
+        }
+        double mean = returnSums[series] / returns;
+        double variance = (squaredReturnSums[series] - mean * returnSums[series]) / (returns - 1);
+        return Math.sqrt(Math.max(variance, 0));
+    }
+
+    /**
+     * Returns the volatility of the returns in the window, annualized with {@link PriceModel#TRADING_DAYS_PER_YEAR}
+     * observations a year.
+     * @param series The series.
+     * @return The annual volatility.
+     */
+    public double getVolatility(int series) {
+        return getReturnDeviation(series) * Math.sqrt(PriceModel.TRADING_DAYS_PER_YEAR);
+    }
+
+    /**
+     * Returns the annualized Sharpe ratio of the returns in the window, with a risk-free rate of 0.
+     * @param series The series.
+     * @return The Sharpe ratio, 0 while the returns do not vary.
+     */
+    public double getSharpeRatio(int series) {
+        double deviation = getReturnDeviation(series);
+        return deviation == 0 ? 0 : getMeanReturn(series) / deviation * Math.sqrt(PriceModel.TRADING_DAYS_PER_YEAR);
+    }
+
+    /**
+     * Returns how far the newest value is below the highest value observed since the reset.
+     * @param series The series.
+     * @return The drawdown as a fraction of the peak, 0 at a new peak.
+     */
+    public double getDrawdown(int series) {
+        double peak = peaks[series];
+        return count == 0 || peak <= 0 ? 0 : 1 - getLatest(series) / peak;
+    }
+
+    /**
+     * Returns the largest drawdown observed since the reset.
+     * @param series The series.
+     * @return The drawdown as a fraction of the peak it fell from.
+     */
+    public double getMaxDrawdown(int series) {
+        return maxDrawdowns[series];
+    }
+
+    /**
+     * Returns the parametric value at risk of the next observation: the loss, as a fraction of the newest value,
+     * that the next return exceeds with the given probability if returns are normal with the window's mean and
+     * deviation.
+     * @param series The series.
+     * @param z The standard normal quantile of the confidence level, such as {@link #Z_95}.
+     * @return The loss fraction, 0 if the window expects no loss at that level.
+     */
+    public double getValueAtRisk(int series, double z) {
+        return Math.max(0, z * getReturnDeviation(series) - getMeanReturn(series));
+    }
+
+    /**
+     * Recomputes the window sums from the ring.
+     */
+    private void resum() {
+        int n = seriesCount;
+        int oldest = count == window ? (newest + 1 == window ? 0 : newest + 1) : 0;
+        for (int i = 0; i < n; i++) {
+            double valueSum = 0;
+            double returnSum = 0;
+            double squaredReturnSum = 0;
+            double previous = 0;
+            for (int k = 0; k < count; k++) {
+                int slot = oldest + k < window ? oldest + k : oldest + k - window;
+                double value = ring[slot * n + i];
+                valueSum += value;
+                if (k > 0) {
+                    double change = simpleReturn(previous, value);
+                    returnSum += change;
+                    squaredReturnSum += change * change;
+                }
+                previous = value;
+            }
+            valueSums[i] = valueSum;
+            returnSums[i] = returnSum;
+            squaredReturnSums[i] = squaredReturnSum;
+        }
+        observationsSinceResum = 0;
+    }
+
+    /**
+     * Returns the relative change from one value to the next, 0 from a value that is not positive.
+     */
+    private static double simpleReturn(double from, double to) {
+        return from > 0 ? to / from - 1 : 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.stockgame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One price universe shared by many players. The book is ticked once per day by a single thread, and the
+ * resulting prices are published as an immutable {@link PriceSnapshot} through an atomic reference.
+ * Readers only ever load that reference, so they never block the tick or each other, and every reader sees
+ * all prices of one day together, never a mix of two days.
+ * <p>
+ * The book's prices belong to the ticking thread; everyone else reads prices from {@link #getSnapshot()}.
+ * Names, symbols and other row data never change once the market is shared and can be read from any thread.
+ */
+public class SharedMarket {
+    // Market ticked by the day thread.
+    private final MarketBook book;
+    // Prices of the latest day.
+    private final AtomicReference<PriceSnapshot> snapshot;
+
+    /**
+     * Shares a book and publishes its current prices as day 1.
+     *
+     * @param book The book to share; no rows may be added afterwards.
+     */
+    public SharedMarket(MarketBook book) {
+        this.book = book;
+        this.snapshot = new AtomicReference<>(copyPrices(1));
+    }
+
+    // Getters for the shared market.
+    public MarketBook getBook() { return book; }
+    public PriceSnapshot getSnapshot() { return snapshot.get(); }
+    public int getDayNumber() { return snapshot.get().getDay(); }
+
+    /**
+     * Ticks the market and publishes the new day's prices. Only one thread may call it at a time.
+     *
+     * @return The published snapshot.
+     */
+    public PriceSnapshot advanceDay() {
+        book.updatePrices();
+        PriceSnapshot next = copyPrices(snapshot.get().getDay() + 1);
+        snapshot.set(next);
+        return next;
+    }
+
+    /**
+     * Copies the book's prices into a new snapshot.
+     */
+    private PriceSnapshot copyPrices(int day) {
+        double[] prices = new double[book.size()];
+        for (int row = 0; row < prices.length; row++) {
+            prices[row] = book.getPrice(row);
+        }
+        return new PriceSnapshot(day, prices);
+    }
+}
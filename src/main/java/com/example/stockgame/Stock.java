@@ -1,54 +1,51 @@
 package com.example.stockgame;
 
-import java.util.Random;
-
 /**
  * Abstract class representing a stock in the stock market game.
  * It defines the basic properties and behavior that all types of stocks share.
+ * The price and risk parameters live in a {@link MarketBook}; a stock is a lightweight view over one of its rows.
  */
 public abstract class Stock {
-    // Name of the stock (also can be thought of as the symbol).
-    private final String name;
-    // Current price of the stock.
-    private double price;
+    // Book holding the name, price and risk parameters of the stock.
+    private final MarketBook book;
+    // Row of the stock in the book.
+    private final int row;
     // Amount of this stock owned.
     private double amountOwned;
-    // Minimum percentage fluctuation in price.
-    private final double MIN_FLUCTUATION;
-    // Maximum percentage fluctuation in price.
-    private final double MAX_FLUCTUATION;
-    // A bias added to the fluctuation to simulate growth or decline trends.
-    private final double GROWTH_BIAS;
-    // The lowest possible price of the stock to prevent negative values.
-    private final double PRICE_FLOOR;
 
     /**
-     * Constructor to initialize a stock with its properties.
+     * Constructor to create a stock in a book of its own.
      *
      * @param symbol Symbol of the stock.
      * @param price Initial price of the stock.
      * @param amountOwned Initial amount of this stock owned.
-     * @param MIN_FLUCTUATION Minimum fluctuation percentage.
-     * @param MAX_FLUCTUATION Maximum fluctuation percentage.
-     * @param GROWTH_BIAS Growth bias to influence the stock's trend.
-     * @param PRICE_FLOOR The lowest price the stock can fall to.
+     * @param riskLevel Risk level providing the fluctuation range, growth bias and price floor.
      */
-    public Stock(String symbol, double price, double amountOwned, double MIN_FLUCTUATION, double MAX_FLUCTUATION, double GROWTH_BIAS, double PRICE_FLOOR) {
-        this.name = symbol;
-        this.price = price;
+    public Stock(String symbol, double price, double amountOwned, RiskLevel riskLevel) {
+        this.book = new MarketBook(1);
+        this.row = book.add(symbol, price, riskLevel);
         this.amountOwned = amountOwned;
-        this.MIN_FLUCTUATION = MIN_FLUCTUATION;
-        this.MAX_FLUCTUATION = MAX_FLUCTUATION;
-        this.GROWTH_BIAS = GROWTH_BIAS;
-        this.PRICE_FLOOR = PRICE_FLOOR;
+    }
+
+    /**
+     * Constructor to create a view over a row of a market book.
+     *
+     * @param book Book holding the stock.
+     * @param row Row of the stock in the book.
+     */
+    protected Stock(MarketBook book, int row) {
+        this.book = book;
+        this.row = row;
     }
 
     // Getters and setters for stock properties.
-    public String getName() { return name; }
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
+    public String getName() { return book.getName(row); }
+    public double getPrice() { return book.getPrice(row); }
+    public void setPrice(double price) { book.setPrice(row, price); }
     public double getAmountOwned() { return amountOwned; }
     public void setAmountOwned(double amountOwned) { this.amountOwned = amountOwned; }
+    public MarketBook getBook() { return book; }
+    public int getRow() { return row; }
 
     /**
      * Abstract method to get the risk level of the stock.
@@ -59,29 +56,10 @@ public abstract class Stock {
     public abstract String getRiskLevel();
 
     /**
-     * Updates the price of the stock based on its fluctuation range,
-     * growth bias, and ensures it doesn't fall below the price floor.
+     * Updates the price of the stock for a new day with the {@link PriceModel} of its book.
      */
     public void updatePrice() {
-        Random random = new Random();
-        // Calculate the range of fluctuation.
-        double fluctuationRange = MAX_FLUCTUATION - MIN_FLUCTUATION;
-        // Randomly determine the fluctuation within the range.
-        double fluctuation = MIN_FLUCTUATION + (fluctuationRange * random.nextDouble());
-        // Randomly decide if the price goes up or down.
-        boolean goesUp = random.nextBoolean();
-
-        // Apply the growth bias to the fluctuation.
-        double adjustedFluctuation = (goesUp ? 1 : -1) * fluctuation + GROWTH_BIAS;
-
-        // Calculate the new price with the adjusted fluctuation.
-        double newPrice = getPrice() * (1 + adjustedFluctuation / 100);
-
-        // Ensure the new price is not below the floor.
-        newPrice = Math.max(newPrice, PRICE_FLOOR);
-
-        // Set the new price.
-        setPrice(newPrice);
+        book.updatePrice(row);
     }
 
 }
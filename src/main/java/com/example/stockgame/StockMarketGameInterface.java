@@ -1,12 +1,17 @@
 package com.example.stockgame;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.event.Event;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -15,27 +20,37 @@ import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Main class of the stock market game, extending JavaFX Application.
- * It sets up the user interface and initializes the game logic.
+ * It sets up the user interface as a view over the {@link MarketEngine}, which holds the game logic.
  */
 public class StockMarketGameInterface extends Application {
     // Layout for the primary content of the application.
     public final BorderPane rootLayout = new BorderPane();
-    // Lists to manage all available stocks and stocks bought by the user.
-    public final List<Stock> allStocks = new ArrayList<>();
-    public final List<Stock> boughtStocks = new ArrayList<>();
-    // Day counter and financial metrics.
-    public int dayNumber = 1;
-    public double portfolioCost;
-    public double availableCash = 1000;
+    // Headless engine holding the market, the portfolio and the day counter.
+    public final MarketEngine engine = new MarketEngine();
+    // Row models shared by the market and portfolio tables.
+    public final StockTableModel tableModel = new StockTableModel(engine);
+    // Runs the day ticks off the JavaFX Application Thread.
+    public final DayTicker dayTicker = new DayTicker(engine, this::onDaysAdvanced, this::onTickFailed);
     // Flag to track if the portfolio screen is being displayed.
     public boolean isPortfolio = false;
-    public double previousPortfolioCost = 0;
+    // Screens and the nodes refreshed on them, built once on first use.
+    private VBox mainMenuLayout;
+    private VBox portfolioLayout;
+    private TableView<StockRow> marketTable;
+    private Text availableCashText;
+    private Text portfolioCostText;
+    private Text portfolioChangeText;
+    private Text dayNumberText;
+    private Text riskText;
+    // Charts of the stock selected in the market table and of the player's net worth.
+    private PriceChart stockChart;
+    private PriceChart netWorthChart;
 
     /**
      * Start method to set up the primary stage of the application.
@@ -46,6 +61,13 @@ public class StockMarketGameInterface extends Application {
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Stock Market Game");
         Scene scene = new Scene(rootLayout, 600, 600);
+        engine.setGameOverListener(result -> Platform.runLater(() -> setupGameOverScreen(result)));
+        synchronized (engine) {
+            engine.setOrderMatching(true);
+            engine.setAnalytics(true);
+        }
+        GameMetrics.register();
+        instrumentFrames(scene);
         restartGame();
         primaryStage.setScene(scene);
         primaryStage.setResizable(false);
@@ -53,13 +75,51 @@ public class StockMarketGameInterface extends Application {
         showInstructions(primaryStage);
     }
 
+    /**
+     * Times the CSS and layout pass of every frame of a scene while metrics are enabled.
+     * @param scene The scene to instrument.
+     */
+    private void instrumentFrames(Scene scene) {
+        GameMetrics metrics = GameMetrics.get();
+        long[] frameStart = new long[1];
+        scene.addPreLayoutPulseListener(() -> frameStart[0] = metrics.start());
+        scene.addPostLayoutPulseListener(() -> metrics.recordFrame(frameStart[0]));
+    }
+
+    /**
+     * Stops the background tick thread when the application exits.
+     */
+    @Override
+    public void stop() {
+        dayTicker.close();
+    }
+
     /**
      * Sets up the main menu interface displaying the current financial state, available stocks, and navigation options.
+     * The screen is built on first use and only refreshed afterwards.
      */
     public void setupMainMenu() {
+        long start = GameMetrics.get().start();
         isPortfolio = false;
+        if (mainMenuLayout == null) {
+            buildMainMenu();
+        }
+
+        double availableCash;
+        synchronized (engine) {
+            availableCash = engine.getPortfolio().getAvailableCash();
+        }
+        availableCashText.setText("Available cash: $" + String.format("%.2f", availableCash));
 
-        Text availableCashText = new Text("Available cash: $" + String.format("%.2f", availableCash));
+        rootLayout.setCenter(mainMenuLayout);
+        GameMetrics.get().recordRender(start, "main menu");
+    }
+
+    /**
+     * Builds the nodes of the main menu.
+     */
+    private void buildMainMenu() {
+        availableCashText = new Text();
         availableCashText.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 
         Button myPortfolioButton = new Button("My Portfolio");
@@ -76,70 +136,112 @@ public class StockMarketGameInterface extends Application {
         topLayout.setSpacing(100);
         topLayout.getChildren().addAll(availableCashText, nextDayButton, myPortfolioButton);
 
-        GridPane headerGrid = new GridPane();
-        headerGrid.setHgap(10);
-        ColumnConstraints col1 = new ColumnConstraints(120);
-        ColumnConstraints col2 = new ColumnConstraints(120);
-        ColumnConstraints col3 = new ColumnConstraints(100);
-        headerGrid.getColumnConstraints().addAll(col1, col2, col3);
+        marketTable = displayStockTable(false);
+        marketTable.setItems(tableModel.getMarketRows());
 
-        headerGrid.add(createHeader("Name"), 0, 0);
-        headerGrid.add(createHeader("Risk Level"), 1, 0);
-        headerGrid.add(createHeader("Price"), 2, 0);
-
-        VBox layout = new VBox(5);
-        layout.getChildren().addAll(topLayout, headerGrid, displayStockTable(allStocks));
-        layout.setPadding(new Insets(10));
+        mainMenuLayout = new VBox(5);
+        stockChart = new PriceChart(580, 150, MarketEngine.GAME_LENGTH);
+        marketTable.getSelectionModel().selectedItemProperty().addListener((observable, previous, selected) -> {
+            synchronized (engine) {
+                stockChart.setSeries(selected == null ? null : engine.getAnalytics().getStockSeries(selected.getRow()),
+                        selected == null ? "Select a stock to chart its price" : selected.getName());
+            }
+        });
+        stockChart.setSeries(null, "Select a stock to chart its price");
 
-        rootLayout.setCenter(layout);
+        mainMenuLayout.getChildren().addAll(topLayout, marketTable, stockChart);
+        mainMenuLayout.setPadding(new Insets(10));
     }
 
     /**
      * Sets up the portfolio screen showing stocks owned by the user and their total value.
+     * The screen is built on first use and only refreshed afterwards.
      */
     public void setupPortfolioScreen() {
+        long start = GameMetrics.get().start();
         isPortfolio = true;
-        updatePortfolioCost();
+        if (portfolioLayout == null) {
+            buildPortfolioScreen();
+        }
+        // Read everything shown under the engine's monitor, as the ticker changes it, and render afterwards.
+        double portfolioCost;
+        double previousPortfolioCost;
+        int dayNumber;
+        double volatility;
+        double drawdown;
+        double maxDrawdown;
+        double sharpeRatio;
+        double valueAtRisk;
+        synchronized (engine) {
+            Portfolio portfolio = engine.getPortfolio();
+            portfolioCost = portfolio.getPortfolioCost();
+            previousPortfolioCost = portfolio.getPreviousPortfolioCost();
+            dayNumber = engine.getDayNumber();
+            MarketAnalytics analytics = engine.getAnalytics();
+            RollingStatistics statistics = analytics.getPortfolioStatistics();
+            volatility = statistics.getVolatility(0);
+            drawdown = statistics.getDrawdown(0);
+            maxDrawdown = statistics.getMaxDrawdown(0);
+            sharpeRatio = statistics.getSharpeRatio(0);
+            valueAtRisk = analytics.getPortfolioValueAtRisk();
+        }
 
-        Text portfolioCostText = new Text(String.format("Portfolio cost: %.2f", portfolioCost));
-        portfolioCostText.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        portfolioCostText.setText(String.format("Portfolio cost: %.2f", portfolioCost));
 
         String portfolioIndicator = portfolioCost > previousPortfolioCost ? "↑" : "↓";
-        Text portfolioChangeText = new Text(portfolioIndicator);
+        portfolioChangeText.setText(portfolioIndicator);
         portfolioChangeText.setFill(portfolioCost > previousPortfolioCost ? Color.GREEN : Color.RED);
+
+        dayNumberText.setText(String.format("Day %s", dayNumber));
+
+        riskText.setText(String.format("Volatility: %.1f%%   Drawdown: %.1f%% (max %.1f%%)   Sharpe: %.2f   1-day VaR 95%%: %.2f",
+                volatility * 100, drawdown * 100, maxDrawdown * 100, sharpeRatio, valueAtRisk));
+
+        rootLayout.setCenter(portfolioLayout);
+        GameMetrics.get().recordRender(start, "portfolio");
+    }
+
+    /**
+     * Builds the nodes of the portfolio screen.
+     */
+    private void buildPortfolioScreen() {
+        portfolioCostText = new Text();
+        portfolioCostText.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+
+        portfolioChangeText = new Text();
         portfolioChangeText.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 
-        Text dayNumberText = new Text(String.format("Day %s", dayNumber));
+        dayNumberText = new Text();
         dayNumberText.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 
+        riskText = new Text();
+        riskText.setFont(Font.font("Arial", FontWeight.NORMAL, 13));
+
         Button mainMenuButton = new Button("Main Menu");
         mainMenuButton.setOnAction(e -> setupMainMenu());
 
+        Button sellEverythingButton = new Button("Sell Everything");
+        sellEverythingButton.setOnAction(e -> sellEverything());
+
         Region spacer = new Region();
         spacer.setMinWidth(175);
 
         HBox topLayout = new HBox(10);
         topLayout.setAlignment(Pos.CENTER);
-        topLayout.getChildren().addAll(portfolioCostText, portfolioChangeText, spacer, dayNumberText, mainMenuButton);
-
-        GridPane headerGrid = new GridPane();
-        headerGrid.setHgap(10);
-        ColumnConstraints col1 = new ColumnConstraints(120);
-        ColumnConstraints col2 = new ColumnConstraints(120);
-        ColumnConstraints col3 = new ColumnConstraints(100);
-        ColumnConstraints col4 = new ColumnConstraints(100);
-        headerGrid.getColumnConstraints().addAll(col1, col2, col3, col4);
-
-        headerGrid.add(createHeader("Name"), 0, 0);
-        headerGrid.add(createHeader("Risk Level"), 1, 0);
-        headerGrid.add(createHeader("Total Price"), 2, 0);
-        headerGrid.add(createHeader("Owned"), 3, 0);
-
-        VBox layout = new VBox(5);
-        layout.getChildren().addAll(topLayout, headerGrid, displayStockTable(boughtStocks));
-        layout.setPadding(new Insets(10));
+        topLayout.getChildren().addAll(portfolioCostText, portfolioChangeText, spacer, dayNumberText,
+                sellEverythingButton, mainMenuButton);
+
+        TableView<StockRow> portfolioTable = displayStockTable(true);
+        portfolioTable.setItems(tableModel.getPortfolioRows());
+
+        portfolioLayout = new VBox(5);
+        netWorthChart = new PriceChart(580, 150, MarketEngine.GAME_LENGTH);
+        synchronized (engine) {
+            netWorthChart.setSeries(engine.getAnalytics().getNetWorthSeries(), "Net worth");
+        }
 
-        rootLayout.setCenter(layout);
+        portfolioLayout.getChildren().addAll(topLayout, riskText, portfolioTable, netWorthChart);
+        portfolioLayout.setPadding(new Insets(10));
     }
 
     public void showInstructions(Stage primaryStage) {
@@ -181,65 +283,134 @@ public class StockMarketGameInterface extends Application {
     }
 
     /**
-     * Generates a ScrollPane containing a table of stocks, either from all available stocks or the user's portfolio.
-     * @param stocks The list of stocks to display in the table.
-     * @return A ScrollPane containing the stocks table.
+     * Creates a virtualized table of stocks, either for the market or for the user's portfolio.
+     * Only the visible rows get cells, and cells follow their row's properties, so ticks update them in place.
+     * @param isPortfolio A flag indicating if the table shows the user's portfolio (true) or the market (false).
+     * @return A TableView showing {@link StockRow} items.
      */
-    public ScrollPane displayStockTable(List<Stock> stocks) {
-        GridPane stockGrid = new GridPane();
-        stockGrid.setHgap(10);
-        stockGrid.setVgap(5);
-        stockGrid.setPadding(new Insets(10, 0, 10, 10));
-
-        ColumnConstraints col1 = new ColumnConstraints(110);
-        ColumnConstraints col2 = new ColumnConstraints(120);
-        ColumnConstraints col3 = new ColumnConstraints(100);
-        ColumnConstraints col4 = new ColumnConstraints(80);
-        stockGrid.getColumnConstraints().addAll(col1, col2, col3, col4);
-
-        int rowIndex = 0;
-        for (Stock stock : stocks) {
-            stockGrid.add(new Text(stock.getName()), 0, rowIndex);
-            stockGrid.add(new Text(stock.getRiskLevel()), 1, rowIndex);
-            if (isPortfolio) {
-                Button sellButton = new Button("Sell");
-                sellButton.setPrefSize(80, 20);
-                sellButton.setOnAction(e -> showBuySellStockWindow(stock, true));
-                stockGrid.add(new Text(String.format("$%.2f", stock.getPrice() * stock.getAmountOwned())), 2, rowIndex);
-                stockGrid.add(new Text(String.format("%.4f", stock.getAmountOwned())), 3, rowIndex);
-                stockGrid.add(sellButton, 4, rowIndex);
-            } else {
-                Button buyButton = new Button("Buy");
-                buyButton.setPrefSize(80, 20);
-                buyButton.setOnAction(e -> showBuySellStockWindow(stock, false));
-                stockGrid.add(new Text(String.format("$%.2f", stock.getPrice())), 2, rowIndex);
-                stockGrid.add(buyButton, 3, rowIndex);
-            }
-            rowIndex++;
+    public TableView<StockRow> displayStockTable(boolean isPortfolio) {
+        TableView<StockRow> stockTable = new TableView<>();
+        stockTable.setPlaceholder(new Text(isPortfolio ? "You do not own any stocks" : "No stocks available"));
+        VBox.setVgrow(stockTable, Priority.ALWAYS);
+
+        TableColumn<StockRow, String> nameColumn = createColumn("Name", 110);
+        nameColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getName()));
+        TableColumn<StockRow, String> riskColumn = createColumn("Risk Level", 120);
+        riskColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getRiskLevel()));
+        stockTable.getColumns().add(nameColumn);
+        stockTable.getColumns().add(riskColumn);
+
+        if (isPortfolio) {
+            TableColumn<StockRow, Number> totalPriceColumn = createColumn("Total Price", 120);
+            totalPriceColumn.setCellValueFactory(cell -> cell.getValue().totalPriceProperty());
+            totalPriceColumn.setCellFactory(column -> formattedCell("$%.2f"));
+            TableColumn<StockRow, Number> ownedColumn = createColumn("Owned", 100);
+            ownedColumn.setCellValueFactory(cell -> cell.getValue().amountOwnedProperty());
+            ownedColumn.setCellFactory(column -> formattedCell("%.4f"));
+            stockTable.getColumns().add(totalPriceColumn);
+            stockTable.getColumns().add(ownedColumn);
+        } else {
+            TableColumn<StockRow, Number> priceColumn = createColumn("Price", 120);
+            priceColumn.setCellValueFactory(cell -> cell.getValue().priceProperty());
+            priceColumn.setCellFactory(column -> formattedCell("$%.2f"));
+            stockTable.getColumns().add(priceColumn);
         }
-        checkGameOver();
 
-        ScrollPane scrollPane = new ScrollPane(stockGrid);
-        scrollPane.setFitToWidth(true);
+        TableColumn<StockRow, StockRow> actionColumn = createColumn("", 100);
+        actionColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue()));
+        actionColumn.setCellFactory(column -> actionCell(isPortfolio));
+        stockTable.getColumns().add(actionColumn);
+
+        return stockTable;
+    }
+
+    /**
+     * Creates an unsortable table column with a styled header.
+     * Sorting is disabled so the table never has to visit every row of a large market.
+     * @param headerTitle The text to be displayed as the header.
+     * @param width The preferred width of the column.
+     * @return A new column.
+     */
+    private <T> TableColumn<StockRow, T> createColumn(String headerTitle, double width) {
+        TableColumn<StockRow, T> column = new TableColumn<>();
+        column.setGraphic(createHeader(headerTitle));
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        return column;
+    }
+
+    /**
+     * Creates a cell showing a number with a format.
+     * @param format The format of the number.
+     * @return A new cell.
+     */
+    private TableCell<StockRow, Number> formattedCell(String format) {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                setText(empty || value == null ? null : String.format(format, value.doubleValue()));
+            }
+        };
+    }
+
+    /**
+     * Creates a cell holding the buy or sell button of its row. The button is created once per cell
+     * and reused for whichever row the cell currently shows.
+     * @param isPortfolio A flag indicating if the button sells (true) or buys (false).
+     * @return A new cell.
+     */
+    private TableCell<StockRow, StockRow> actionCell(boolean isPortfolio) {
+        Button actionButton = new Button(isPortfolio ? "Sell" : "Buy");
+        actionButton.setPrefSize(80, 20);
+        return new TableCell<>() {
+            {
+                actionButton.setOnAction(e -> showBuySellStockWindow(engine.getBook().stock(getItem().getRow()), isPortfolio));
+            }
 
-        return scrollPane;
+            @Override
+            protected void updateItem(StockRow row, boolean empty) {
+                super.updateItem(row, empty);
+                setGraphic(empty || row == null ? null : actionButton);
+            }
+        };
     }
 
     /**
-     * Initializes the list of stocks available in the game. This includes generating random stocks of different risk levels.
+     * Sells every owned position as one batch.
      */
-    public void initializeStockList() {
-        allStocks.clear();
-        Random random = new Random();
-        for (int i = 1; i <= 33; i++) {
-            allStocks.add(new LowRiskStock(generateRandomName(), random.nextDouble() * 1000, 0));
-            allStocks.add(new MidRiskStock(generateRandomName(), random.nextDouble() * 1000, 0));
-            allStocks.add(new HighRiskStock(generateRandomName(), random.nextDouble() * 1000, 0));
+    private void sellEverything() {
+        List<TradeLeg> legs = new ArrayList<>();
+        synchronized (engine) {
+            Portfolio portfolio = engine.getPortfolio();
+            for (int slot = 0; slot < portfolio.getPositionCount(); slot++) {
+                legs.add(TradeLeg.sellAll(engine.getBook().getName(portfolio.getPositionRow(slot))));
+            }
         }
+        executeBatch(legs);
+        setupPortfolioScreen();
+    }
+
+    /**
+     * Applies a batch of trades atomically, then refreshes the tables once for the whole batch.
+     * If a trade cannot be made, nothing is traded and an error window names the failing trade.
+     * @param legs The trades.
+     */
+    private void executeBatch(List<TradeLeg> legs) {
+        int failedLeg;
+        synchronized (engine) {
+            failedLeg = engine.trade(legs);
+        }
+        if (failedLeg >= 0) {
+            errorWindow("Cannot " + legs.get(failedLeg) + "; no trade was made.");
+            return;
+        }
+        tableModel.refreshPortfolio();
     }
 
     /**
      * Opens a new window for buying or selling the selected stock, allowing the user to input the amount of money to spend or receive.
+     * Orders are matched against the stock's order book; an optional limit price bounds the price of every share.
      * @param stock The stock being bought or sold.
      * @param isPortfolio A flag indicating if the stock is from the user's portfolio (true) or the market (false).
      */
@@ -250,7 +421,11 @@ public class StockMarketGameInterface extends Application {
         Text stockNameText = new Text(stock.getName());
         stockNameText.setFont(Font.font("Arial", FontWeight.BOLD, 20));
 
-        Text priceText = new Text("Price: $" + String.format("%.2f", stock.getPrice()));
+        double quote;
+        synchronized (engine) {
+            quote = engine.getQuote(stock.getName(), isPortfolio ? OrderSide.SELL : OrderSide.BUY);
+        }
+        Text priceText = new Text((isPortfolio ? "Bid" : "Ask") + ": $" + String.format("%.2f", quote));
         priceText.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
 
         TextField amountField = new TextField("Enter amount of money");
@@ -262,12 +437,10 @@ public class StockMarketGameInterface extends Application {
         amountField.textProperty().addListener((observable, oldValue, newValue) -> {
             try {
                 double enteredAmount = Double.parseDouble(newValue);
-                double numberOfShares = enteredAmount / stock.getPrice();
+                double numberOfShares = enteredAmount / quote;
                 sharesText.setText(String.format("= %.4f shares", numberOfShares));
             } catch (NumberFormatException e) {
                 sharesText.setText("Invalid input");
-            } finally {
-                checkGameOver();
             }
         });
 
@@ -279,6 +452,10 @@ public class StockMarketGameInterface extends Application {
         amountFieldAndShares.getChildren().addAll(spacer, amountField, sharesText);
         amountFieldAndShares.setAlignment(Pos.CENTER_LEFT);
 
+        TextField limitField = new TextField();
+        limitField.setPromptText("Limit price (optional)");
+        limitField.setMaxWidth(150);
+
         Button actionButton = new Button(isPortfolio ? "Sell" : "Buy");
         Button sellAllButton = new Button("Sell all");
         sellAllButton.setPrefSize(80,20);
@@ -286,47 +463,32 @@ public class StockMarketGameInterface extends Application {
         actionButton.setOnAction(e -> {
             try {
                 double totalCost = Double.parseDouble(amountField.getText());
-                double stockAmount = totalCost / stock.getPrice();
+                double limitPrice = parseLimitPrice(limitField);
                 if (isPortfolio) {
                     //Selling logic
-                    Stock ownedStock = findOwnedStockByName(stock.getName());
-
-                    if (ownedStock != null && ownedStock.getAmountOwned() >= stockAmount) {
-                        availableCash += totalCost;
-                        portfolioCost -= totalCost;
-                        double newAmount = ownedStock.getAmountOwned() - stockAmount;
-
-                        if (newAmount < 0.2) {
-                            boughtStocks.remove(ownedStock);
-                        }
-
-                        ownedStock.setAmountOwned(newAmount);
+                    boolean sold;
+                    synchronized (engine) {
+                        sold = engine.sell(stock.getName(), totalCost, limitPrice);
+                    }
+                    if (sold) {
+                        tableModel.refreshPortfolio();
                         newWindow.close();
                         setupPortfolioScreen();
                     } else {
-                        errorWindow("You do not own enough shares");
+                        errorWindow("No shares sold: none owned, or no bid at or above the limit");
                     }
                 } else {
                     // Buying logic
-                    if (availableCash >= totalCost && totalCost > 0) {
-                        availableCash -= totalCost;
-                        Stock ownedStock = findOwnedStockByName(stock.getName());
-                        if (ownedStock == null) {
-                            ownedStock = switch (stock.getRiskLevel()) {
-                                case "Low" -> new LowRiskStock(stock.getName(), stock.getPrice(), stockAmount);
-                                case "Medium" -> new MidRiskStock(stock.getName(), stock.getPrice(), stockAmount);
-                                case "High" -> new HighRiskStock(stock.getName(), stock.getPrice(), stockAmount);
-                                default -> throw new IllegalStateException("Unexpected value: " + stock.getRiskLevel());
-                            };
-                            boughtStocks.add(ownedStock);
-                        } else {
-                            double newAmount = ownedStock.getAmountOwned() + stockAmount;
-                            ownedStock.setAmountOwned(newAmount);
-                        }
+                    boolean bought;
+                    synchronized (engine) {
+                        bought = engine.buy(stock.getName(), totalCost, limitPrice);
+                    }
+                    if (bought) {
+                        tableModel.refreshPortfolio();
                         newWindow.close();
                         setupMainMenu();
                     } else {
-                        errorWindow("Not enough cash to buy.");
+                        errorWindow("Not enough cash, or no ask at or below the limit.");
                     }
                 }
             } catch (NumberFormatException ex) {
@@ -335,15 +497,17 @@ public class StockMarketGameInterface extends Application {
         });
 
         sellAllButton.setOnAction(e -> {
-            double totalCost = stock.getAmountOwned() * stock.getPrice();
-            Stock ownedStock = findOwnedStockByName(stock.getName());
-
-            availableCash += totalCost;
-            portfolioCost -= totalCost;
-
-            boughtStocks.remove(ownedStock);
-            newWindow.close();
-            setupPortfolioScreen();
+            try {
+                double limitPrice = parseLimitPrice(limitField);
+                synchronized (engine) {
+                    engine.sellAll(stock.getName(), limitPrice);
+                }
+                tableModel.refreshPortfolio();
+                newWindow.close();
+                setupPortfolioScreen();
+            } catch (NumberFormatException ex) {
+                errorWindow("Invalid input");
+            }
         });
 
         HBox buttonsLayout = new HBox();
@@ -358,15 +522,26 @@ public class StockMarketGameInterface extends Application {
         buttonsLayout.setSpacing(60);
 
         VBox layout = new VBox(10);
-        layout.getChildren().addAll(stockNameText, priceText, amountFieldAndShares, buttonsLayout);
+        layout.getChildren().addAll(stockNameText, priceText, amountFieldAndShares, limitField, buttonsLayout);
         layout.setAlignment(Pos.CENTER);
-        layout.setSpacing(60);
+        layout.setSpacing(40);
 
-        Scene scene = new Scene(layout, 400, 300);
+        Scene scene = new Scene(layout, 400, 360);
         newWindow.setScene(scene);
         newWindow.showAndWait();
     }
 
+    /**
+     * Reads the optional limit price of an order.
+     * @param limitField The field holding the limit price.
+     * @return The limit price, or 0 for a market order if the field is blank.
+     * @throws NumberFormatException if the field holds no number.
+     */
+    private static double parseLimitPrice(TextField limitField) {
+        String text = limitField.getText().trim();
+        return text.isEmpty() ? 0 : Double.parseDouble(text);
+    }
+
     /**
      * Displays an error window with a specified error message.
      * @param error The error message to display.
@@ -394,75 +569,57 @@ public class StockMarketGameInterface extends Application {
     }
 
     /**
-     * Finds a stock owned by the user by its name.
-     * @param stockName The name of the stock to find.
-     * @return The found stock, or null if not found.
+     * Queues a new day on the background ticker.
+     * The screen is refreshed by {@link #onDaysAdvanced()} once the ticker has processed the day, and the
+     * game over screen is opened by the engine's game-over event when the day ends the game.
      */
-    public Stock findOwnedStockByName(String stockName) {
-        return boughtStocks.stream()
-                .filter(stock -> stock.getName().equals(stockName))
-                .findFirst()
-                .orElse(null);
-    }
-
-    /**
-     * Updates the total cost of the user's portfolio.
-     */
-    public void updatePortfolioCost() {
-        portfolioCost = boughtStocks.stream()
-                .mapToDouble(stock -> stock.getPrice() * stock.getAmountOwned())
-                .sum();
+    public void updateAllStocks() {
+        dayTicker.requestNextDay();
     }
 
     /**
-     * Updates all stocks for a new day and checks if the game is over.
+     * Refreshes the displayed rows in place and the current screen after the ticker has processed one or more days.
+     * Runs on the JavaFX Application Thread; every read of the engine holds its monitor, as more days may be
+     * ticking in the meantime.
      */
-    public void updateAllStocks() {
-        previousPortfolioCost = portfolioCost;
-
-        allStocks.forEach(Stock::updatePrice);
-        boughtStocks.forEach(stock ->
-                allStocks.stream()
-                        .filter(availableStock -> stock.getName().equals(availableStock.getName()))
-                        .findFirst()
-                        .ifPresent(availableStock -> stock.setPrice(availableStock.getPrice())));
-
-        checkGameOver();
-        dayNumber++;
-        updatePortfolioCost();
-        setupMainMenu();
+    public void onDaysAdvanced() {
+        tableModel.refresh();
+        refreshCharts();
+        if (isPortfolio) {
+            setupPortfolioScreen();
+        } else {
+            setupMainMenu();
+        }
     }
 
     /**
-     * Generates a random name for a stock.
-     * @return A string representing a random stock name.
+     * Tells the player that a day could not be processed. Runs on the JavaFX Application Thread.
+     * @param failure The exception thrown by the tick.
      */
-    public static String generateRandomName() {
-        Random random = new Random();
-        int length = random.nextInt(5) + 1;
-        StringBuilder sb = new StringBuilder(length);
-
-        for (int i = 0; i < length; i++) {
-            char letter = (char) ('A' + random.nextInt(26));
-            sb.append(letter);
-        }
-
-        return sb.toString();
+    private void onTickFailed(RuntimeException failure) {
+        errorWindow("The next day could not be processed: " + failure.getMessage());
     }
 
     /**
-     * Checks if the game should end based on the day number or other criteria.
+     * Draws the days the charts have not shown yet. The engine is locked while the series are read, as the
+     * ticker appends to them.
      */
-    public void checkGameOver() {
-        if (dayNumber == 20) {
-            setupGameOverScreen();
+    private void refreshCharts() {
+        synchronized (engine) {
+            if (stockChart != null) {
+                stockChart.refresh();
+            }
+            if (netWorthChart != null) {
+                netWorthChart.refresh();
+            }
         }
     }
 
     /**
-     * Sets up and displays the game over screen, offering options to restart or exit the game.
+     * Sets up and displays the game over screen with the settled result, offering options to restart or exit the game.
+     * @param result The outcome of the game.
      */
-    public void setupGameOverScreen() {
+    public void setupGameOverScreen(GameResult result) {
         Stage popupStage = new Stage();
         popupStage.initModality(Modality.APPLICATION_MODAL);
         popupStage.setTitle("Game Over");
@@ -475,6 +632,9 @@ public class StockMarketGameInterface extends Application {
         Text gameOverText = new Text("Game Over");
         gameOverText.setFont(Font.font("Arial", FontWeight.BOLD, 24));
 
+        Text resultText = new Text(String.format("Final cash: $%.2f%nScore: %d", result.getFinalCash(), result.getScore()));
+        resultText.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
+
         Button restartButton = new Button("Restart");
         restartButton.setOnAction(e -> {
             popupStage.close();
@@ -484,7 +644,7 @@ public class StockMarketGameInterface extends Application {
         Button exitButton = new Button("Exit");
         exitButton.setOnAction(e -> System.exit(0));
 
-        layout.getChildren().addAll(gameOverText, restartButton, exitButton);
+        layout.getChildren().addAll(gameOverText, resultText, restartButton, exitButton);
 
         Scene scene = new Scene(layout);
         popupStage.setScene(scene);
@@ -498,11 +658,21 @@ public class StockMarketGameInterface extends Application {
      * Resets the game to its initial state, clearing all user progress and reinitializing the stock list.
      */
     public void restartGame() {
-        availableCash = 1000;
-        boughtStocks.clear();
-        previousPortfolioCost = 0;
-        dayNumber = 1;
-        initializeStockList();
+        synchronized (engine) {
+            // Days the player asked for in the previous game must not move the new one.
+            dayTicker.clearPendingDays();
+            engine.restart();
+        }
+        tableModel.reload();
+        if (marketTable != null) {
+            marketTable.setItems(tableModel.getMarketRows());
+            stockChart.setSeries(null, "Select a stock to chart its price");
+        }
+        if (netWorthChart != null) {
+            synchronized (engine) {
+                netWorthChart.redraw();
+            }
+        }
         setupMainMenu();
     }
 
@@ -0,0 +1,83 @@
+package com.example.stockgame;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+
+/**
+ * Observable model of one row of the stock tables.
+ * Rows are only created for stocks that have been displayed, and a day tick updates their
+ * properties in place so the table cells showing them refresh without rebuilding any node.
+ * <p>
+ * The values are read from the engine in {@link #capture} while the caller holds the engine's monitor, and
+ * shown by {@link #publish} after it is released, so property listeners never run under the lock.
+ */
+public class StockRow {
+    // Book row of the stock.
+    private final int row;
+    // Name and risk level never change for a row.
+    private final String name;
+    private final String riskLevel;
+    // Values shown in the tables.
+    private final DoubleProperty price = new SimpleDoubleProperty();
+    private final DoubleProperty amountOwned = new SimpleDoubleProperty();
+    private final DoubleProperty totalPrice = new SimpleDoubleProperty();
+    // Values captured from the engine and not published yet.
+    private double capturedPrice;
+    private double capturedAmount;
+
+    /**
+     * Constructs the model of a book row and fills in its current values.
+     * The caller must hold the engine's monitor.
+     *
+     * @param book The book holding the stock.
+     * @param portfolio The portfolio the owned amount is read from.
+     * @param row The book row of the stock.
+     */
+    public StockRow(MarketBook book, Portfolio portfolio, int row) {
+        this.row = row;
+        this.name = book.getName(row);
+        this.riskLevel = book.getRiskLevel(row).getLabel();
+        refresh(book, portfolio);
+    }
+
+    // Getters for row properties.
+    public int getRow() { return row; }
+    public String getName() { return name; }
+    public String getRiskLevel() { return riskLevel; }
+    public DoubleProperty priceProperty() { return price; }
+    public DoubleProperty amountOwnedProperty() { return amountOwned; }
+    public DoubleProperty totalPriceProperty() { return totalPrice; }
+
+    /**
+     * Copies the current price and owned amount of the stock into the properties.
+     * The caller must hold the engine's monitor.
+     *
+     * @param book The book holding the stock.
+     * @param portfolio The portfolio the owned amount is read from.
+     */
+    public void refresh(MarketBook book, Portfolio portfolio) {
+        capture(book, portfolio);
+        publish();
+    }
+
+    /**
+     * Reads the current price and owned amount of the stock without showing them yet.
+     * The caller must hold the engine's monitor.
+     *
+     * @param book The book holding the stock.
+     * @param portfolio The portfolio the owned amount is read from.
+     */
+    public void capture(MarketBook book, Portfolio portfolio) {
+        capturedPrice = book.getPrice(row);
+        capturedAmount = portfolio.getAmountOwned(row);
+    }
+
+    /**
+     * Shows the values read by the last {@link #capture} in the properties. Runs on the JavaFX Application Thread.
+     */
+    public void publish() {
+        price.set(capturedPrice);
+        amountOwned.set(capturedAmount);
+        totalPrice.set(capturedPrice * capturedAmount);
+    }
+}
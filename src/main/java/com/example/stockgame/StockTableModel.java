@@ -0,0 +1,132 @@
+package com.example.stockgame;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row models behind the market and portfolio tables.
+ * The market list is a lazy view of the book: a {@link StockRow} is only created when a table asks for it,
+ * which a virtualized table only does for the rows it shows. After a tick, only the rows created so far are
+ * refreshed, so the cost of a refresh does not grow with the size of the market.
+ * <p>
+ * The engine is ticked on another thread, so every read of the book and the portfolio holds the engine's monitor;
+ * the captured values are published to the rows after it is released.
+ */
+public class StockTableModel {
+    // Engine whose market and portfolio are shown.
+    private final MarketEngine engine;
+    // Row model of each book row, created on first access.
+    private StockRow[] rowModels = new StockRow[0];
+    // Row models created so far, refreshed after every tick.
+    private final List<StockRow> materialisedRows = new ArrayList<>();
+    // Items of the market table.
+    private MarketRows marketRows = new MarketRows(0);
+    // Items of the portfolio table, one per position.
+    private final ObservableList<StockRow> portfolioRows = FXCollections.observableArrayList();
+
+    /**
+     * Constructs the model of an engine's market and portfolio.
+     *
+     * @param engine The engine to show.
+     */
+    public StockTableModel(MarketEngine engine) {
+        this.engine = engine;
+    }
+
+    // Getters for the table items.
+    public ObservableList<StockRow> getMarketRows() { return marketRows; }
+    public ObservableList<StockRow> getPortfolioRows() { return portfolioRows; }
+
+    /**
+     * Drops every row model after the market has been regenerated.
+     * The market list is replaced, so tables have to be given the new {@link #getMarketRows()}.
+     */
+    public void reload() {
+        int size;
+        synchronized (engine) {
+            size = engine.getBook().size();
+        }
+        rowModels = new StockRow[size];
+        materialisedRows.clear();
+        marketRows = new MarketRows(size);
+        refreshPortfolio();
+    }
+
+    /**
+     * Updates the created row models in place after a tick.
+     */
+    public void refresh() {
+        synchronized (engine) {
+            MarketBook book = engine.getBook();
+            Portfolio portfolio = engine.getPortfolio();
+            for (StockRow row : materialisedRows) {
+                row.capture(book, portfolio);
+            }
+        }
+        for (StockRow row : materialisedRows) {
+            row.publish();
+        }
+    }
+
+    /**
+     * Rebuilds the portfolio items after a trade and refreshes the owned amounts.
+     */
+    public void refreshPortfolio() {
+        List<StockRow> rows;
+        synchronized (engine) {
+            Portfolio portfolio = engine.getPortfolio();
+            rows = new ArrayList<>(portfolio.getPositionCount());
+            for (int slot = 0; slot < portfolio.getPositionCount(); slot++) {
+                rows.add(rowModel(portfolio.getPositionRow(slot)));
+            }
+        }
+        portfolioRows.setAll(rows);
+        refresh();
+    }
+
+    /**
+     * Returns the model of a book row, creating it on first access.
+     *
+     * @param row The book row.
+     * @return The row model.
+     */
+    public StockRow rowModel(int row) {
+        StockRow model = rowModels[row];
+        if (model == null) {
+            synchronized (engine) {
+                model = new StockRow(engine.getBook(), engine.getPortfolio(), row);
+            }
+            rowModels[row] = model;
+            materialisedRows.add(model);
+        }
+        return model;
+    }
+
+    /**
+     * Read-only list of every book row, creating row models on access.
+     */
+    private class MarketRows extends ObservableListBase<StockRow> {
+        private final int size;
+
+        private MarketRows(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public StockRow get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return rowModel(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.stockgame;
+
+import java.nio.ByteBuffer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Packs stock symbols of one to five letters A-Z into ints.
+ * Symbols are numbered length first, then alphabetically ("A" is 1, "Z" is 26, "AA" is 27, ..., "ZZZZZ" is
+ * {@link #MAX_CODE}), so every symbol has exactly one code, all codes fit in 24 bits, and comparing or hashing
+ * symbols is an int operation. Strings are only created when a symbol has to be displayed.
+ */
+public final class SymbolCodes {
+    // Longest symbol that can be packed.
+    public static final int MAX_LENGTH = 5;
+    // Code of the first symbol of each length; index MAX_LENGTH + 1 is one past the last code.
+    private static final int[] FIRST_CODE = {0, 1, 27, 703, 18_279, 475_255, 12_356_631};
+    // Largest code, the one of "ZZZZZ".
+    public static final int MAX_CODE = FIRST_CODE[MAX_LENGTH + 1] - 1;
+    // Code that no symbol has.
+    public static final int NONE = 0;
+
+    private SymbolCodes() {
+    }
+
+    /**
+     * Packs a symbol into its code.
+     * @param symbol A symbol of one to five letters A-Z.
+     * @return The code of the symbol, or {@link #NONE} if the symbol cannot be packed.
+     */
+    public static int encode(String symbol) {
+        int length = symbol.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return NONE;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            int letter = symbol.charAt(i) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return NONE;
+            }
+            value = value * 26 + letter;
+        }
+        return FIRST_CODE[length] + value;
+    }
+
+    /**
+     * Packs a symbol read from a buffer into its code, without creating a string.
+     * @param bytes The buffer holding the symbol as ASCII.
+     * @param from The absolute index of the first letter, inclusive.
+     * @param to The absolute index of the last letter, exclusive.
+     * @return The code of the symbol, or {@link #NONE} if the symbol cannot be packed.
+     */
+    public static int encode(ByteBuffer bytes, int from, int to) {
+        int length = to - from;
+        if (length <= 0 || length > MAX_LENGTH) {
+            return NONE;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int letter = bytes.get(i) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return NONE;
+            }
+            value = value * 26 + letter;
+        }
+        return FIRST_CODE[length] + value;
+    }
+
+    /**
+     * Unpacks a code into its symbol.
+     * @param code A code between 1 and {@link #MAX_CODE}.
+     * @return The symbol with that code.
+     */
+    public static String decode(int code) {
+        int length = length(code);
+        char[] letters = new char[length];
+        int value = code - FIRST_CODE[length];
+        for (int i = length - 1; i >= 0; i--) {
+            letters[i] = (char) ('A' + value % 26);
+            value /= 26;
+        }
+        return new String(letters);
+    }
+
+    /**
+     * Returns the number of letters of the symbol with a code.
+     * @param code A code between 1 and {@link #MAX_CODE}.
+     * @return The length of the symbol.
+     */
+    public static int length(int code) {
+        if (code < 1 || code > MAX_CODE) {
+            throw new IllegalArgumentException("Invalid symbol code: " + code);
+        }
+        int length = 1;
+        while (code >= FIRST_CODE[length + 1]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the code of the first symbol with a given length.
+     * @param length A length between one and five.
+     * @return The code of the first symbol, "A", "AA" and so on.
+     */
+    public static int firstCode(int length) {
+        return FIRST_CODE[length];
+    }
+
+    /**
+     * Returns the number of symbols with a given length.
+     * @param length A length between one and five.
+     * @return 26 to the power of the length.
+     */
+    public static int count(int length) {
+        return FIRST_CODE[length + 1] - FIRST_CODE[length];
+    }
+
+    /**
+     * Draws the code of a random symbol: a length between one and five letters, then uniformly random letters.
+     * @param random The source of randomness.
+     * @return A random code.
+     */
+    public static int random(RandomGenerator random) {
+        int length = random.nextInt(MAX_LENGTH) + 1;
+        return FIRST_CODE[length] + random.nextInt(count(length));
+    }
+}
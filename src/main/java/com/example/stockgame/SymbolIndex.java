@@ -0,0 +1,172 @@
+package com.example.stockgame;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Index from stock symbols to their rows in a {@link MarketBook}.
+ * Symbols are interned as packed {@link SymbolCodes} in an open-addressing table, so every symbol is unique
+ * and looking up a stock costs O(1) without hashing strings. The market and every portfolio share it.
+ */
+public class SymbolIndex {
+    // Random draws tried within a length before falling back to the next free code.
+    private static final int RANDOM_ATTEMPTS = 4;
+    // Below this many symbols, clearing resets single words instead of the whole bitmap.
+    private static final int SPARSE_CLEAR_LIMIT = 4_096;
+    // Number of symbols from which the bitmap is kept; smaller indexes answer from the table alone.
+    private static final int BITMAP_THRESHOLD = 4_096;
+
+    // Row of the stock with each symbol code.
+    private final IntIntMap rows = new IntIntMap(128);
+    // Bitmap of the codes in use, for fast searches of free codes once the index is large; grows up to the
+    // highest code used, which is up to 1.5 MB, so small indexes such as a single game's do without it.
+    private long[] usedWords;
+    // Number of codes in use for each symbol length.
+    private final int[] usedPerLength = new int[SymbolCodes.MAX_LENGTH + 1];
+
+    /**
+     * Registers the row of a symbol code.
+     * @param code The code of the symbol.
+     * @param row The row of the stock.
+     * @throws IllegalArgumentException if the code is invalid or already registered.
+     */
+    public void register(int code, int row) {
+        int length = SymbolCodes.length(code);
+        if (isUsed(code)) {
+            throw new IllegalArgumentException("Duplicate symbol: " + SymbolCodes.decode(code));
+        }
+        usedPerLength[length]++;
+        rows.put(code, row);
+        if (usedWords != null) {
+            markUsed(code);
+        } else if (rows.size() >= BITMAP_THRESHOLD) {
+            usedWords = new long[0];
+            rows.forEachKey(this::markUsed);
+        }
+    }
+
+    /**
+     * Sets the bit of a code in the bitmap, growing it as needed.
+     * @param code The code in use.
+     */
+    private void markUsed(int code) {
+        int word = code >>> 6;
+        if (word >= usedWords.length) {
+            usedWords = Arrays.copyOf(usedWords, Math.max(word + 1, usedWords.length * 2));
+        }
+        usedWords[word] |= 1L << code;
+    }
+
+    /**
+     * Looks up the row of a symbol.
+     * @param symbol The symbol of the stock.
+     * @return The row of the stock, or -1 if the symbol is unknown.
+     */
+    public int rowOf(String symbol) {
+        int code = SymbolCodes.encode(symbol);
+        return code == SymbolCodes.NONE ? -1 : rows.get(code);
+    }
+
+    /**
+     * Looks up the row of a symbol code.
+     * @param code The code of the symbol.
+     * @return The row of the stock, or -1 if the symbol is unknown.
+     */
+    public int rowOf(int code) {
+        return rows.get(code);
+    }
+
+    /**
+     * Returns the number of registered symbols.
+     * @return The size of the index.
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Picks a random symbol code that is not registered yet.
+     * Like {@link SymbolCodes#random}, a length is drawn first, skipping lengths whose symbols are all in use,
+     * then letters. After a few colliding draws the next free code of that length is taken, so allocation
+     * stays fast even when most short symbols are in use.
+     * @param random The source of randomness.
+     * @return An unused symbol code.
+     * @throws IllegalStateException if every symbol is in use.
+     */
+    public int allocate(RandomGenerator random) {
+        if (rows.size() >= SymbolCodes.MAX_CODE) {
+            throw new IllegalStateException("Every symbol is in use");
+        }
+        int length;
+        do {
+            length = random.nextInt(SymbolCodes.MAX_LENGTH) + 1;
+        } while (usedPerLength[length] == SymbolCodes.count(length));
+
+        int first = SymbolCodes.firstCode(length);
+        int count = SymbolCodes.count(length);
+        int code = first + random.nextInt(count);
+        for (int attempt = 1; attempt < RANDOM_ATTEMPTS && isUsed(code); attempt++) {
+            code = first + random.nextInt(count);
+        }
+        if (isUsed(code)) {
+            code = nextFreeCode(code);
+            if (code >= first + count) {
+                code = nextFreeCode(first);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Removes every symbol.
+     */
+    public void clear() {
+        if (usedWords != null && rows.size() < SPARSE_CLEAR_LIMIT) {
+            rows.forEachKey(code -> usedWords[code >>> 6] = 0);
+        } else if (usedWords != null) {
+            Arrays.fill(usedWords, 0);
+        }
+        rows.clear();
+        Arrays.fill(usedPerLength, 0);
+    }
+
+    /**
+     * Checks if a code is in use.
+     * @param code The code to check.
+     * @return true if a stock has the code.
+     */
+    private boolean isUsed(int code) {
+        if (usedWords == null) {
+            return rows.get(code) != IntIntMap.MISSING;
+        }
+        int word = code >>> 6;
+        return word < usedWords.length && (usedWords[word] & (1L << code)) != 0;
+    }
+
+    /**
+     * Finds the first code at or after a given one that is not in use.
+     * @param from The code to start from.
+     * @return The first free code.
+     */
+    private int nextFreeCode(int from) {
+        if (usedWords == null) {
+            int code = from;
+            while (isUsed(code)) {
+                code++;
+            }
+            return code;
+        }
+        int word = from >>> 6;
+        if (word >= usedWords.length) {
+            return from;
+        }
+        long free = ~usedWords[word] & (-1L << from);
+        while (free == 0) {
+            if (++word == usedWords.length) {
+                return word << 6;
+            }
+            free = ~usedWords[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(free);
+    }
+}
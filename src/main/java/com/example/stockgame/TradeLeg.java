@@ -0,0 +1,67 @@
+package com.example.stockgame;
+
+/**
+ * One trade of a batch applied with {@link Portfolio#applyBatch}.
+ */
+public class TradeLeg {
+    /**
+     * What a leg does.
+     */
+    public enum Action {
+        BUY,
+        SELL,
+        SELL_ALL
+    }
+
+    // Trade made by the leg.
+    private final Action action;
+    // Name of the stock traded.
+    private final String symbol;
+    // Money spent or received; unused when selling everything.
+    private final double cash;
+
+    private TradeLeg(Action action, String symbol, double cash) {
+        this.action = action;
+        this.symbol = symbol;
+        this.cash = cash;
+    }
+
+    /**
+     * Creates a leg buying a stock.
+     * @param symbol The name of the stock.
+     * @param cash The amount of money to spend.
+     * @return The leg.
+     */
+    public static TradeLeg buy(String symbol, double cash) {
+        return new TradeLeg(Action.BUY, symbol, cash);
+    }
+
+    /**
+     * Creates a leg selling part of a position.
+     * @param symbol The name of the stock.
+     * @param cash The amount of money to receive.
+     * @return The leg.
+     */
+    public static TradeLeg sell(String symbol, double cash) {
+        return new TradeLeg(Action.SELL, symbol, cash);
+    }
+
+    /**
+     * Creates a leg selling a whole position.
+     * @param symbol The name of the stock.
+     * @return The leg.
+     */
+    public static TradeLeg sellAll(String symbol) {
+        return new TradeLeg(Action.SELL_ALL, symbol, 0);
+    }
+
+    // Getters for leg properties.
+    public Action getAction() { return action; }
+    public String getSymbol() { return symbol; }
+    public double getCash() { return cash; }
+
+    @Override
+    public String toString() {
+        return action == Action.SELL_ALL ? action + " " + symbol : String.format("%s %s $%.2f", action, symbol, cash);
+    }
+}
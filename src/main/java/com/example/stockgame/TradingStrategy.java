@@ -0,0 +1,36 @@
+package com.example.stockgame;
+
+/**
+ * Strategy playing the stock market game without a user interface.
+ * It is called once per trading day, before the market moves to the next day, and trades
+ * through the engine's buy and sell methods or directly on its {@link Portfolio}.
+ */
+@FunctionalInterface
+public interface TradingStrategy {
+
+    /**
+     * Looks at the market and places the trades for the current day.
+     *
+     * @param engine The engine of the game being played; prices are in {@link MarketEngine#getBook()}.
+     */
+    void onDay(MarketEngine engine);
+
+    /**
+     * Returns a strategy that spreads all starting cash evenly over every stock on the first day and then holds.
+     *
+     * @return A buy-and-hold strategy.
+     */
+    static TradingStrategy buyAndHold() {
+        return engine -> {
+            if (engine.getDayNumber() != 1) {
+                return;
+            }
+            MarketBook book = engine.getBook();
+            Portfolio portfolio = engine.getPortfolio();
+            double cashPerStock = portfolio.getAvailableCash() / book.size();
+            for (int row = 0; row < book.size(); row++) {
+                portfolio.buy(row, cashPerStock);
+            }
+        };
+    }
+}
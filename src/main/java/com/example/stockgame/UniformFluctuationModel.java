@@ -0,0 +1,25 @@
+package com.example.stockgame;
+
+/**
+ * The original price model of the game: every day a stock moves by a percentage drawn uniformly between
+ * its minimum and maximum fluctuation, up or down with equal odds, plus its growth bias, and never falls
+ * below its price floor. All parameters come from the columns of the book, set from the stock's {@link RiskLevel}.
+ */
+public class UniformFluctuationModel implements PriceModel {
+    // Shared instance; the model has no state.
+    public static final UniformFluctuationModel INSTANCE = new UniformFluctuationModel();
+
+    @Override
+    public void advance(MarketBook book, double[] prices, long[] randomStates, int from, int to) {
+        for (int row = from; row < to; row++) {
+            // Randomly determine the fluctuation within the range.
+            double minFluctuation = book.getMinFluctuation(row);
+            double fluctuation = minFluctuation + (book.getMaxFluctuation(row) - minFluctuation) * RandomStreams.nextDouble(randomStates, row);
+            // Randomly decide if the price goes up or down and apply the growth bias.
+            boolean goesUp = RandomStreams.nextBoolean(randomStates, row);
+            double adjustedFluctuation = (goesUp ? fluctuation : -fluctuation) + book.getGrowthBias(row);
+            // Calculate the new price and ensure it is not below the floor.
+            prices[row] = Math.max(prices[row] * (1 + adjustedFluctuation / 100), book.getPriceFloor(row));
+        }
+    }
+}
@@ -1,6 +1,9 @@
 module com.example.stockgame {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.jfr;
 
 
     opens com.example.stockgame to javafx.fxml;
@@ -0,0 +1,166 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvPriceHistoryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsThreeAndSixColumnLinesDayByDay() throws IOException {
+        Path path = write("date,symbol,open,high,low,close,volume\n"
+                + "2024-01-02,ACME,10,12,9,11,500\n"
+                + "2024-01-02,ZZ,5.5\n"
+                + "2024-01-03,ACME,11,11.5,10.5,10.75\n");
+
+        try (CsvPriceHistory history = new CsvPriceHistory(path)) {
+            List<double[]> bars = new ArrayList<>();
+            assertTrue(history.nextDay(collect(bars)));
+            assertEquals(20240102, history.getDate());
+            assertEquals(2, bars.size());
+            assertBar(bars.get(0), "ACME", 10, 12, 9, 11);
+            assertBar(bars.get(1), "ZZ", 5.5, 5.5, 5.5, 5.5);
+
+            bars.clear();
+            assertTrue(history.nextDay(collect(bars)));
+            assertEquals(20240103, history.getDate());
+            assertEquals(1, bars.size());
+            assertBar(bars.get(0), "ACME", 11, 11.5, 10.5, 10.75);
+
+            assertFalse(history.nextDay(collect(bars)));
+        }
+    }
+
+    @Test
+    void skipsAHeaderAfterBlankLines() throws IOException {
+        Path path = write("\r\n\ndate,symbol,close\r\n20240102,ACME,10\r\n\r\n20240103,ACME,11\r\n");
+
+        List<double[]> bars = readAll(path);
+
+        assertEquals(2, bars.size());
+        assertBar(bars.get(0), "ACME", 10, 10, 10, 10);
+        assertBar(bars.get(1), "ACME", 11, 11, 11, 11);
+    }
+
+    @Test
+    void rejectsAHeaderAfterTheFirstBar() throws IOException {
+        Path path = write("20240102,ACME,10\ndate,symbol,close\n");
+
+        assertThrows(IOException.class, () -> readAll(path));
+    }
+
+    @Test
+    void readsCrlfLinesAndALastLineWithoutNewline() throws IOException {
+        Path path = write("20240102,ACME,10,11,9,10.5\r\n20240103,ACME,10.25");
+
+        List<double[]> bars = readAll(path);
+
+        assertEquals(2, bars.size());
+        assertBar(bars.get(0), "ACME", 10, 11, 9, 10.5);
+        assertBar(bars.get(1), "ACME", 10.25, 10.25, 10.25, 10.25);
+    }
+
+    @Test
+    void parsesNumbersLikeDoubleParseDouble() throws IOException {
+        String[] numbers = {
+                "1.25e3", "1.25E-2", "+7", "-0.5", "125e+1", "0.1", "3.14159265358979",
+                // Mantissas beyond 2^53 / 10, which take the slow path.
+                "123456789012345678", "9007199254740993.5", "0.12345678901234567", "1e23", "1.5e-30"
+        };
+        StringBuilder csv = new StringBuilder();
+        for (String number : numbers) {
+            csv.append("20240102,ACME,").append(number).append('\n');
+        }
+
+        List<double[]> bars = readAll(write(csv.toString()));
+
+        assertEquals(numbers.length, bars.size());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(Double.parseDouble(numbers[i]), bars.get(i)[4], numbers[i]);
+        }
+    }
+
+    @Test
+    void rejectsMalformedLines() throws IOException {
+        assertThrows(IOException.class, () -> readAll(write("20240102,ACME,1,2\n")));
+        assertThrows(IOException.class, () -> readAll(write("20240102,ACME,1x\n")));
+        assertThrows(IOException.class, () -> readAll(write("20240102,ACME,1e\n")));
+        assertThrows(IOException.class, () -> readAll(write("20240102,ACME,1\n-,ACME,1\n")));
+    }
+
+    @Test
+    void skipsBarsOfUnpackableSymbols() throws IOException {
+        List<double[]> bars = readAll(write("20240102,BRK.B,10\n20240102,ACME,11\n"));
+
+        assertEquals(1, bars.size());
+        assertBar(bars.get(0), "ACME", 11, 11, 11, 11);
+    }
+
+    @Test
+    void readsALineSpanningABufferRefill() throws IOException {
+        String line = "20240102,ACME,12.5\n";
+        String last = "20240103,ZZ,1.5,2.5,0.5,2.25\n";
+        // Size the header so the last line starts 8 bytes before the end of the first buffer fill.
+        int count = (CsvPriceHistory.BUFFER_SIZE - 8 - 10) / line.length();
+        int headerLength = CsvPriceHistory.BUFFER_SIZE - 8 - count * line.length();
+        String csv = "date" + " ".repeat(headerLength - 5) + "\n" + line.repeat(count) + last;
+
+        List<double[]> bars = readAll(write(csv));
+
+        assertEquals(count + 1, bars.size());
+        assertBar(bars.get(count - 1), "ACME", 12.5, 12.5, 12.5, 12.5);
+        assertBar(bars.get(count), "ZZ", 1.5, 2.5, 0.5, 2.25);
+    }
+
+    @Test
+    void rejectsALineLongerThanTheBuffer() throws IOException {
+        Path path = write("20240102,ACME,1" + "0".repeat(CsvPriceHistory.BUFFER_SIZE) + "\n");
+
+        IOException e = assertThrows(IOException.class, () -> readAll(path));
+        assertTrue(e.getMessage().contains("longer than"), e.getMessage());
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = Files.createTempFile(directory, "prices", ".csv");
+        Files.writeString(path, content, StandardCharsets.US_ASCII);
+        return path;
+    }
+
+    /**
+     * Reads every bar of a file as {code, open, high, low, close}.
+     */
+    private static List<double[]> readAll(Path path) throws IOException {
+        List<double[]> bars = new ArrayList<>();
+        try (CsvPriceHistory history = new CsvPriceHistory(path)) {
+            while (history.nextDay(collect(bars))) {
+                // Every bar is collected by the listener.
+            }
+        }
+        return bars;
+    }
+
+    private static BarListener collect(List<double[]> bars) {
+        return (code, open, high, low, close) -> bars.add(new double[] {code, open, high, low, close});
+    }
+
+    private static void assertBar(double[] bar, String symbol, double open, double high, double low, double close) {
+        assertEquals(SymbolCodes.encode(symbol), (int) bar[0]);
+        assertEquals(open, bar[1]);
+        assertEquals(high, bar[2]);
+        assertEquals(low, bar[3]);
+        assertEquals(close, bar[4]);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeTest {
+    private SharedMarket market;
+    private Exchange exchange;
+    private int row;
+
+    @BeforeEach
+    void setUp() {
+        MarketBook book = new MarketBook();
+        row = book.add("AAA", 100, RiskLevel.LOW);
+        market = new SharedMarket(book);
+        exchange = new Exchange(book);
+    }
+
+    @Test
+    void quotesALadderAroundThePublishedPrice() {
+        assertEquals(Money.ofDollars(100 * (1 + Exchange.HALF_SPREAD)), bestPrice(OrderSide.SELL));
+        assertEquals(Money.ofDollars(100 * (1 - Exchange.HALF_SPREAD)), bestPrice(OrderSide.BUY));
+    }
+
+    @Test
+    void buysAtTheBestAsk() {
+        Portfolio portfolio = portfolio(1_000);
+        long ask = bestPrice(OrderSide.SELL);
+
+        long bought = exchange.buy(portfolio, 1, row, 500, Exchange.NO_LIMIT, day(), prices());
+
+        assertEquals(Money.sharesBought(Money.ofDollars(500), ask), bought);
+        assertEquals(bought, portfolio.getMicroSharesOwned(row));
+        assertEquals(Money.ofDollars(1_000) - Money.value(bought, ask), portfolio.getAvailableCashMicros());
+    }
+
+    @Test
+    void walksTheAsksOfALargeBuy() {
+        Portfolio portfolio = portfolio(100_000);
+        long firstAsk = bestPrice(OrderSide.SELL);
+
+        exchange.buy(portfolio, 1, row, 2.5 * Exchange.LEVEL_VALUE, Exchange.NO_LIMIT, day(), prices());
+
+        long spent = Money.ofDollars(100_000) - portfolio.getAvailableCashMicros();
+        assertTrue(spent <= Money.ofDollars(2.5 * Exchange.LEVEL_VALUE));
+        assertTrue(spent > Money.ofDollars(2.5 * Exchange.LEVEL_VALUE - 1));
+        // Two levels are gone, the third is partly taken.
+        assertEquals(Money.ofDollars(100 * (1 + Exchange.HALF_SPREAD + 2 * Exchange.LEVEL_STEP)),
+                bestPrice(OrderSide.SELL));
+        assertTrue(portfolio.getMicroSharesOwned(row) < Money.sharesBought(spent, firstAsk));
+    }
+
+    @Test
+    void capsABuyAtTheAvailableCash() {
+        Portfolio portfolio = portfolio(300);
+
+        long bought = exchange.buy(portfolio, 1, row, 5_000, Exchange.NO_LIMIT, day(), prices());
+
+        assertTrue(bought > 0);
+        assertTrue(portfolio.getAvailableCashMicros() >= 0);
+        assertTrue(portfolio.getAvailableCashMicros() < bestPrice(OrderSide.SELL));
+    }
+
+    @Test
+    void capsASellAtTheSharesOwned() {
+        Portfolio portfolio = portfolio(1_000);
+        long bought = exchange.buy(portfolio, 1, row, 1_000, Exchange.NO_LIMIT, day(), prices());
+        long bid = bestPrice(OrderSide.BUY);
+
+        long sold = exchange.sell(portfolio, 1, row, 5_000, Exchange.NO_LIMIT, day(), prices());
+
+        assertEquals(bought, sold);
+        assertEquals(0, portfolio.getMicroSharesOwned(row));
+        assertEquals(0, portfolio.getPositionCount());
+        assertTrue(portfolio.getAvailableCashMicros() >= Money.value(sold, bid));
+    }
+
+    @Test
+    void sellsNothingWithoutShares() {
+        assertEquals(0, exchange.sell(portfolio(1_000), 1, row, 100, Exchange.NO_LIMIT, day(), prices()));
+    }
+
+    @Test
+    void sharesLiquidityBetweenPlayersUntilTheNextDay() {
+        long firstAsk = bestPrice(OrderSide.SELL);
+        exchange.buy(portfolio(100_000), 1, row, Exchange.LEVEL_VALUE, Exchange.NO_LIMIT, day(), prices());
+
+        Portfolio second = portfolio(1_000);
+        long bought = exchange.buy(second, 2, row, 1_000, Exchange.NO_LIMIT, day(), prices());
+        assertTrue(Money.ofDollars(1_000) - second.getAvailableCashMicros() > Money.value(bought, firstAsk));
+
+        market.advanceDay();
+        long requoted = Money.ofDollars(market.getSnapshot().getPrice(row) * (1 + Exchange.HALF_SPREAD));
+        assertEquals(requoted, bestPrice(OrderSide.SELL));
+    }
+
+    @Test
+    void stopsALimitBuyAtItsLimit() {
+        Portfolio portfolio = portfolio(100_000);
+        long limit = Money.ofDollars(100 * (1 + Exchange.HALF_SPREAD + Exchange.LEVEL_STEP));
+
+        exchange.buy(portfolio, 1, row, 5 * Exchange.LEVEL_VALUE, limit, day(), prices());
+
+        // Only the two levels at or below the limit are taken.
+        assertEquals(Money.ofDollars(100 * (1 + Exchange.HALF_SPREAD + 2 * Exchange.LEVEL_STEP)),
+                bestPrice(OrderSide.SELL));
+        long spent = Money.ofDollars(100_000) - portfolio.getAvailableCashMicros();
+        assertTrue(spent < Money.ofDollars(2 * Exchange.LEVEL_VALUE + 100));
+    }
+
+    @Test
+    void leavesALimitSellAboveTheBestBidUnfilled() {
+        Portfolio portfolio = portfolio(1_000);
+        long bought = exchange.buy(portfolio, 1, row, 1_000, Exchange.NO_LIMIT, day(), prices());
+
+        assertEquals(0, exchange.sellAll(portfolio, 1, row, Money.ofDollars(101), day(), prices()));
+        assertEquals(bought, exchange.sellAll(portfolio, 1, row, Exchange.NO_LIMIT, day(), prices()));
+        assertEquals(0, portfolio.getPositionCount());
+    }
+
+    @Test
+    void tradesNothingOnADayOlderThanTheQuotes() {
+        PriceSnapshot yesterday = market.getSnapshot();
+        PriceSnapshot today = market.advanceDay();
+        bestPrice(OrderSide.SELL);
+
+        Portfolio portfolio = new Portfolio(market.getBook(), yesterday, 1_000);
+        assertEquals(0, exchange.buy(portfolio, 1, row, 500, Exchange.NO_LIMIT, yesterday.getDay(), yesterday));
+        assertEquals(OrderBook.NO_PRICE, exchange.getBestPrice(row, OrderSide.SELL, yesterday.getDay(), yesterday));
+        assertEquals(Money.ofDollars(today.getPrice(row) * (1 + Exchange.HALF_SPREAD)), bestPrice(OrderSide.SELL));
+    }
+
+    @Test
+    void quotesTheCallersPricesRatherThanTheLatestOnes() {
+        PriceSnapshot pinned = market.getSnapshot();
+        market.getBook().setPrice(row, 200);
+
+        assertEquals(Money.ofDollars(100 * (1 + Exchange.HALF_SPREAD)),
+                exchange.getBestPrice(row, OrderSide.SELL, pinned.getDay(), pinned));
+    }
+
+    @Test
+    void matchesTheOrdersOfAnEngine() {
+        MarketEngine engine = new MarketEngine();
+        engine.restart(4);
+        engine.setOrderMatching(true);
+        String symbol = engine.getBook().getName(0);
+        double price = engine.getBook().getPrice(0);
+
+        assertEquals(Money.toDollars(Money.ofDollars(price * (1 + Exchange.HALF_SPREAD))),
+                engine.getQuote(symbol, OrderSide.BUY));
+        assertFalse(engine.buy(symbol, 100, price));
+        assertTrue(engine.buy(symbol, 100));
+        assertTrue(engine.getPortfolio().getAmountOwned(0) < 100 / price);
+
+        engine.restart(4);
+        assertEquals(0, engine.getPortfolio().getPositionCount());
+        assertEquals(Money.toDollars(Money.ofDollars(price * (1 + Exchange.HALF_SPREAD))),
+                engine.getQuote(symbol, OrderSide.BUY));
+    }
+
+    private long bestPrice(OrderSide side) {
+        return exchange.getBestPrice(row, side, day(), prices());
+    }
+
+    private int day() {
+        return market.getSnapshot().getDay();
+    }
+
+    private PriceSource prices() {
+        return market.getSnapshot();
+    }
+
+    private Portfolio portfolio(double cash) {
+        return new Portfolio(market.getBook(), market.getSnapshot(), cash);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FactorModelTest {
+    private static final int SIZE = 200;
+
+    @Test
+    void updatesSingleStocksWithTheShocksOfTheTick() {
+        MarketBook ticked = book(new FactorModel(4, 0.07, 0.18, 0.12), 3);
+        MarketBook single = book(new FactorModel(4, 0.07, 0.18, 0.12), 3);
+
+        ticked.updatePrices();
+        for (int row = SIZE - 1; row >= 0; row--) {
+            single.updatePrice(row);
+        }
+
+        assertArrayEquals(prices(ticked), prices(single));
+    }
+
+    @Test
+    void redrawsTheShocksWhenTheBookStartsOverWithAnotherSeed() {
+        FactorModel model = new FactorModel(4, 0.07, 0.18, 0.12);
+        MarketBook reused = book(model, 3);
+        reused.updatePrice(0);
+        // Same tick, new seed: the shocks cached for the old seed must not be reused.
+        fill(reused, 8);
+        MarketBook fresh = book(new FactorModel(4, 0.07, 0.18, 0.12), 8);
+
+        for (int row = 0; row < SIZE; row++) {
+            reused.updatePrice(row);
+        }
+        fresh.updatePrices();
+
+        assertArrayEquals(prices(fresh), prices(reused));
+    }
+
+    @Test
+    void rejectsASectorBeyondTheModelBeforeAnyPriceMoves() {
+        MarketBook book = book(new FactorModel(4, 0.07, 0.18, 0.12), 3);
+        book.setFactorExposure(SIZE - 1, 4, 1, 1);
+        double[] before = prices(book);
+
+        assertThrows(IllegalStateException.class, book::updatePrices);
+        assertArrayEquals(before, prices(book));
+        assertEquals(0, book.getTicks());
+        assertThrows(IllegalStateException.class, () -> book.updatePrice(SIZE - 1));
+    }
+
+    @Test
+    void movesTheEngineWithTheSectorsItAssigns() {
+        MarketEngine engine = new MarketEngine();
+        engine.restart(6);
+
+        FactorModel model = assertInstanceOf(FactorModel.class, engine.getBook().getPriceModel());
+        assertEquals(MarketEngine.SECTOR_COUNT, model.getSectorCount());
+        engine.advanceDay();
+    }
+
+    private static MarketBook book(FactorModel model, long seed) {
+        MarketBook book = new MarketBook(SIZE, seed);
+        fill(book, seed);
+        book.setPriceModel(model);
+        return book;
+    }
+
+    private static void fill(MarketBook book, long seed) {
+        book.clear(seed);
+        for (int i = 0; i < SIZE; i++) {
+            int row = book.add(SymbolCodes.firstCode(3) + i, 20 + i, RiskLevel.values()[i % 3]);
+            book.setFactorExposure(row, i % 4, 0.5 + i % 5 * 0.25, 1);
+        }
+    }
+
+    private static double[] prices(MarketBook book) {
+        double[] prices = new double[book.size()];
+        for (int row = 0; row < prices.length; row++) {
+            prices[row] = book.getPrice(row);
+        }
+        return prices;
+    }
+}
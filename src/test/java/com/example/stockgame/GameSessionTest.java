@@ -0,0 +1,45 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSessionTest {
+    @Test
+    void completesTheResultWithTheFinalNetWorth() throws Exception {
+        try (GameSessionHost host = new GameSessionHost()) {
+            GameSession session = host.open(3);
+            session.quit().get(10, TimeUnit.SECONDS);
+
+            assertEquals(MarketEngine.STARTING_CASH, session.getResult().get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void failsTheResultWhenTheLoopFails() throws Exception {
+        IllegalStateException failure = new IllegalStateException("metrics are down");
+        try (GameSessionHost host = new GameSessionHost() {
+            @Override
+            void commandCompleted(long latencyNanos) {
+                throw failure;
+            }
+        }) {
+            GameSession session = host.open(3);
+            session.nextDay();
+
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> session.getResult().get(10, TimeUnit.SECONDS));
+            assertEquals(failure, e.getCause());
+            assertTrue(session.isFinished());
+            ExecutionException rejected = assertThrows(ExecutionException.class,
+                    () -> session.nextDay().get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, rejected.getCause());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSnapshotTest {
+    // Size of the snapshot header and of the portfolio section's header.
+    private static final int HEADER_SIZE = 16;
+    private static final int PORTFOLIO_HEADER_SIZE = 32;
+
+    @Test
+    void restoresTheSameGame() {
+        MarketEngine original = tradedGame();
+        ByteBuffer buffer = snapshot(original);
+
+        MarketEngine restored = new MarketEngine();
+        GameSnapshot.read(buffer.flip(), restored);
+
+        assertEquals(original.getDayNumber(), restored.getDayNumber());
+        assertEquals(original.getBook().size(), restored.getBook().size());
+        assertEquals(original.getPortfolio().getNetWorthMicros(), restored.getPortfolio().getNetWorthMicros());
+        original.advanceDay();
+        restored.advanceDay();
+        assertEquals(original.getBook().getPrice(0), restored.getBook().getPrice(0));
+    }
+
+    @Test
+    void clearsTheMarketWhenThePortfolioIsRejected() {
+        MarketEngine original = tradedGame();
+        ByteBuffer buffer = snapshot(original);
+        // Point the only position at a row outside the book.
+        int rowOffset = HEADER_SIZE + (int) original.getBook().snapshotSize() + PORTFOLIO_HEADER_SIZE
+                + 2 * Long.BYTES;
+        buffer.putInt(rowOffset, -1);
+
+        MarketEngine restored = tradedGame();
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.read(buffer.flip(), restored));
+
+        assertEquals(0, restored.getBook().size());
+        assertEquals(0, restored.getPortfolio().getPositionCount());
+        assertEquals(-1, restored.getBook().getSymbols().rowOf(original.getBook().getSymbolCode(0)));
+    }
+
+    @Test
+    void clearsTheMarketWhenThePortfolioIsTruncated() {
+        MarketEngine original = tradedGame();
+        ByteBuffer buffer = snapshot(original);
+        buffer.flip().limit(HEADER_SIZE + (int) original.getBook().snapshotSize() + 8);
+
+        MarketEngine restored = tradedGame();
+        assertThrows(BufferUnderflowException.class, () -> GameSnapshot.read(buffer, restored));
+
+        assertEquals(0, restored.getBook().size());
+        assertEquals(0, restored.getPortfolio().getPositionCount());
+    }
+
+    @Test
+    void returnsFromAReplayToTheRandomPriceModel() throws IOException {
+        MarketEngine original = tradedGame();
+        ByteBuffer buffer = snapshot(original);
+        MarketEngine restored = new MarketEngine();
+        PriceModel randomModel = restored.getBook().getPriceModel();
+        restored.restartReplay(new PriceHistory() {
+            @Override
+            public boolean nextDay(BarListener listener) {
+                listener.onBar(SymbolCodes.encode("ACME"), 10, 10, 10, 10);
+                return true;
+            }
+
+            @Override
+            public int getDate() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        GameSnapshot.read(buffer.flip(), restored);
+
+        assertSame(randomModel, restored.getBook().getPriceModel());
+        original.advanceDay();
+        restored.advanceDay();
+        assertEquals(original.getBook().getPrice(0), restored.getBook().getPrice(0));
+    }
+
+    /**
+     * Creates a game a few days in, holding one position.
+     */
+    private static MarketEngine tradedGame() {
+        MarketEngine engine = new MarketEngine();
+        engine.restart(12);
+        assertTrue(engine.getPortfolio().buy(0, 100));
+        engine.advanceDay();
+        return engine;
+    }
+
+    /**
+     * Writes the snapshot of a game to a new buffer, left positioned at its end.
+     */
+    private static ByteBuffer snapshot(MarketEngine engine) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) GameSnapshot.size(engine)).order(ByteOrder.LITTLE_ENDIAN);
+        GameSnapshot.write(engine, buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntIntMapTest {
+    // Table capacity of a map expecting 64 keys, which holds up to 64 keys before growing.
+    private static final int CAPACITY = 128;
+
+    @Test
+    void putsGetsAndReplaces() {
+        IntIntMap map = new IntIntMap(4);
+        map.put(7, 70);
+        map.put(0, 1);
+
+        assertEquals(70, map.get(7));
+        assertEquals(1, map.get(0));
+        assertEquals(IntIntMap.MISSING, map.get(8));
+
+        map.put(7, 71);
+        assertEquals(71, map.get(7));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void rejectsNegativeKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new IntIntMap(4).put(-1, 0));
+    }
+
+    @Test
+    void probesPastCollidingKeys() {
+        IntIntMap map = new IntIntMap(64);
+        int[] keys = keysInSlot(0, 20);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.get(keys[i]));
+        }
+        assertEquals(IntIntMap.MISSING, map.get(keysInSlot(0, 21)[20]));
+    }
+
+    @Test
+    void keepsCollidingKeysReachableAfterRemoval() {
+        IntIntMap map = new IntIntMap(64);
+        int[] keys = keysInSlot(0, 10);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+
+        assertEquals(3, map.remove(keys[3]));
+        assertEquals(0, map.remove(keys[0]));
+        assertEquals(IntIntMap.MISSING, map.remove(keys[0]));
+
+        assertEquals(8, map.size());
+        assertEquals(IntIntMap.MISSING, map.get(keys[3]));
+        for (int i = 1; i < keys.length; i++) {
+            if (i != 3) {
+                assertEquals(i, map.get(keys[i]));
+            }
+        }
+    }
+
+    @Test
+    void shiftsBackEntriesThatWrapAroundTheTable() {
+        IntIntMap map = new IntIntMap(64);
+        // Keys of the last slot spill over into the first slots, where keys of slot 0 then land after them.
+        int[] lastSlot = keysInSlot(CAPACITY - 1, 4);
+        int[] firstSlot = keysInSlot(0, 4);
+        for (int i = 0; i < 4; i++) {
+            map.put(lastSlot[i], i);
+        }
+        for (int i = 0; i < 4; i++) {
+            map.put(firstSlot[i], 10 + i);
+        }
+
+        map.remove(lastSlot[0]);
+        map.remove(lastSlot[2]);
+
+        assertEquals(1, map.get(lastSlot[1]));
+        assertEquals(3, map.get(lastSlot[3]));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(10 + i, map.get(firstSlot[i]));
+        }
+    }
+
+    @Test
+    void growsBeyondTheExpectedSize() {
+        IntIntMap map = new IntIntMap(1);
+        for (int key = 0; key < 100_000; key++) {
+            map.put(key * 7, key);
+        }
+
+        assertEquals(100_000, map.size());
+        for (int key = 0; key < 100_000; key++) {
+            assertEquals(key, map.get(key * 7));
+            assertEquals(IntIntMap.MISSING, map.get(key * 7 + 1));
+        }
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomOperations() {
+        SplittableRandom random = new SplittableRandom(4);
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                case 1 -> {
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed == null ? IntIntMap.MISSING : removed, map.remove(key));
+                }
+                default -> assertEquals(expected.getOrDefault(key, IntIntMap.MISSING), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = 0; key < 2_000; key++) {
+            assertEquals(expected.getOrDefault(key, IntIntMap.MISSING), map.get(key));
+        }
+    }
+
+    @Test
+    void visitsEveryKeyAndClears() {
+        IntIntMap map = new IntIntMap(4);
+        for (int key = 0; key < 50; key++) {
+            map.put(key, key);
+        }
+        Set<Integer> visited = new HashSet<>();
+        map.forEachKey(visited::add);
+        assertEquals(50, visited.size());
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertEquals(IntIntMap.MISSING, map.get(10));
+        map.put(10, 1);
+        assertEquals(1, map.get(10));
+    }
+
+    /**
+     * Finds keys whose home slot is the given one in a table of {@link #CAPACITY} slots, using the map's hash.
+     */
+    private static int[] keysInSlot(int slot, int count) {
+        int[] keys = new int[count];
+        int found = 0;
+        for (int key = 0; found < count; key++) {
+            int h = key * 0x9e3779b9;
+            if (((h ^ (h >>> 16)) & (CAPACITY - 1)) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
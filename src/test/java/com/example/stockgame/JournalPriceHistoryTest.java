@@ -0,0 +1,66 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalPriceHistoryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheRecordedSymbolsAndPrices() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketBook book = new MarketBook();
+        book.add("ACME", 10, RiskLevel.LOW);
+        book.add("Z", 20, RiskLevel.HIGH);
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            writer.append(1, book);
+            book.setPrice(0, 11);
+            writer.append(2, book);
+        }
+
+        List<double[]> bars = new ArrayList<>();
+        try (JournalPriceHistory history = new JournalPriceHistory(path)) {
+            assertTrue(history.nextDay((code, open, high, low, close) -> bars.add(new double[] {code, close})));
+            assertTrue(history.nextDay((code, open, high, low, close) -> bars.add(new double[] {code, close})));
+            assertFalse(history.nextDay((code, open, high, low, close) -> bars.add(new double[] {code, close})));
+        }
+
+        assertEquals(4, bars.size());
+        assertEquals(SymbolCodes.encode("ACME"), (int) bars.get(0)[0]);
+        assertEquals(SymbolCodes.encode("Z"), (int) bars.get(1)[0]);
+        assertEquals(10, bars.get(0)[1]);
+        assertEquals(11, bars.get(2)[1]);
+        assertEquals(20, bars.get(3)[1]);
+    }
+
+    @Test
+    void rejectsAJournalWithAnInvalidSymbolCode() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketBook book = new MarketBook();
+        book.add("ACME", 10, RiskLevel.LOW);
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            writer.append(1, book);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer code = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(SymbolCodes.MAX_CODE + 1);
+            channel.write(code.flip(), PriceJournalWriter.HEADER_SIZE);
+        }
+
+        assertThrows(IOException.class, () -> new JournalPriceHistory(path));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MarketBookTest {
+    // Large enough for the parallel path, with a last chunk that is not full.
+    private static final int SIZE = 2 * MarketBook.PARALLEL_THRESHOLD + MarketBook.CHUNK_SIZE / 3;
+    private static final long SEED = 17;
+
+    @Test
+    void ticksALargeBookLikeOneThread() throws Exception {
+        assertSameAsOneThread(() -> UniformFluctuationModel.INSTANCE);
+        assertSameAsOneThread(() -> new GeometricBrownianMotionModel(0.07, 0.3));
+        assertSameAsOneThread(() -> new JumpDiffusionModel(0.07, 0.25, 2, -0.1, 0.15));
+        assertSameAsOneThread(() -> new MeanReversionModel(4, 0.3));
+        assertSameAsOneThread(() -> new FactorModel(MarketEngine.SECTOR_COUNT, 0.07, 0.18, 0.12));
+    }
+
+    @Test
+    void ticksALargeBookLikeItsRangesInAnyOrder() {
+        MarketBook parallel = book(new FactorModel(MarketEngine.SECTOR_COUNT, 0.07, 0.18, 0.12));
+        MarketBook ranges = book(new FactorModel(MarketEngine.SECTOR_COUNT, 0.07, 0.18, 0.12));
+
+        parallel.updatePrices();
+        for (int to = SIZE; to > 0; to -= 1_000) {
+            ranges.updatePrices(Math.max(to - 1_000, 0), to);
+        }
+
+        assertArrayEquals(prices(ranges), prices(parallel));
+    }
+
+    /**
+     * Ticks one book on the common pool and another on a pool of one thread, and compares every price bit for bit.
+     */
+    private static void assertSameAsOneThread(Supplier<PriceModel> model) throws ExecutionException, InterruptedException {
+        MarketBook parallel = book(model.get());
+        MarketBook sequential = book(model.get());
+        ForkJoinPool oneThread = new ForkJoinPool(1);
+        try {
+            for (int tick = 0; tick < 3; tick++) {
+                parallel.updatePrices();
+                oneThread.submit((Runnable) sequential::updatePrices).get();
+            }
+        } finally {
+            oneThread.shutdown();
+        }
+
+        assertEquals(3, parallel.getTicks());
+        assertEquals(3, sequential.getTicks());
+        assertArrayEquals(prices(sequential), prices(parallel), parallel.getPriceModel().getClass().getSimpleName());
+    }
+
+    private static MarketBook book(PriceModel model) {
+        MarketBook book = new MarketBook(SIZE, SEED);
+        RiskLevel[] riskLevels = RiskLevel.values();
+        for (int i = 0; i < SIZE; i++) {
+            book.add(SymbolCodes.firstCode(4) + i, 10 + i % 500, riskLevels[i % riskLevels.length]);
+        }
+        MarketEngine.assignFactorExposures(book, SEED);
+        book.setPriceModel(model);
+        return book;
+    }
+
+    private static double[] prices(MarketBook book) {
+        double[] prices = new double[book.size()];
+        for (int row = 0; row < prices.length; row++) {
+            prices[row] = book.getPrice(row);
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+    // 2^64 - 1 is 3 times this, so 3 * this / 2 is Long.MAX_VALUE with a remainder of 1.
+    private static final long THIRD_OF_2_64 = 6_148_914_691_236_517_205L;
+
+    @Test
+    void convertsDollarsAndShares() {
+        assertEquals(150_000_000L, Money.ofDollars(1.5));
+        assertEquals(-1_000_000L, Money.ofDollars(-0.01));
+        assertEquals(1_000_000L, Money.ofShares(1));
+        assertEquals(1.5, Money.toDollars(150_000_000L));
+        assertEquals(0.25, Money.toShares(250_000L));
+    }
+
+    @Test
+    void rejectsDollarsOutOfRange() {
+        assertThrows(ArithmeticException.class, () -> Money.ofDollars(1e11));
+        assertThrows(ArithmeticException.class, () -> Money.ofDollars(-1e11));
+        assertThrows(ArithmeticException.class, () -> Money.ofDollars(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> Money.ofDollars(Double.POSITIVE_INFINITY));
+        assertThrows(ArithmeticException.class, () -> Money.ofShares(1e13));
+        assertEquals(90_000_000_000L * Money.CASH_SCALE, Money.ofDollars(9e10));
+    }
+
+    @Test
+    void roundsValuesToTheNearestMicroCent() {
+        assertEquals(Money.ofDollars(250), Money.value(Money.ofShares(2.5), Money.ofDollars(100)));
+        // One micro-share at 0.5 micro-cents a share is worth half a micro-cent, rounded up.
+        assertEquals(1, Money.value(1, 500_000));
+        assertEquals(0, Money.value(1, 499_999));
+        assertEquals(0, Money.value(0, Money.ofDollars(100)));
+    }
+
+    @Test
+    void roundsSharesInFavourOfTheMarket() {
+        long price = Money.ofDollars(3);
+        long bought = Money.sharesBought(Money.ofDollars(10), price);
+        long sold = Money.sharesSold(Money.ofDollars(10), price);
+
+        assertEquals(3_333_333, bought);
+        assertEquals(3_333_334, sold);
+        assertEquals(Money.ofShares(2), Money.sharesBought(Money.ofDollars(6), price));
+        assertEquals(Money.ofShares(2), Money.sharesSold(Money.ofDollars(6), price));
+    }
+
+    @Test
+    void dividesProductsWiderThanALong() {
+        // (2^63 - 1) * 2 / 4 is 2^62 - 1/2.
+        assertEquals((1L << 62) - 1, Money.multiplyDivide(Long.MAX_VALUE, 2, 4, RoundingMode.FLOOR));
+        assertEquals(1L << 62, Money.multiplyDivide(Long.MAX_VALUE, 2, 4, RoundingMode.CEILING));
+        assertEquals(1L << 62, Money.multiplyDivide(Long.MAX_VALUE, 2, 4, RoundingMode.HALF_UP));
+        assertEquals(Long.MAX_VALUE, Money.multiplyDivide(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+                RoundingMode.FLOOR));
+        assertEquals(Long.MAX_VALUE - 1, Money.multiplyDivide(Long.MAX_VALUE - 1, Long.MAX_VALUE, Long.MAX_VALUE,
+                RoundingMode.CEILING));
+    }
+
+    @Test
+    void matchesBigIntegerArithmetic() {
+        SplittableRandom random = new SplittableRandom(20);
+        BigInteger maxLong = BigInteger.valueOf(Long.MAX_VALUE);
+        for (int i = 0; i < 100_000; i++) {
+            long a = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+            long b = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+            long divisor = Math.max(1, random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63));
+            BigInteger[] division = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                    .divideAndRemainder(BigInteger.valueOf(divisor));
+            BigInteger floor = division[0];
+            BigInteger ceiling = division[1].signum() == 0 ? floor : floor.add(BigInteger.ONE);
+            BigInteger halfUp = division[1].shiftLeft(1).compareTo(BigInteger.valueOf(divisor)) >= 0
+                    ? floor.add(BigInteger.ONE) : floor;
+            assertMultiplyDivide(floor, maxLong, a, b, divisor, RoundingMode.FLOOR);
+            assertMultiplyDivide(ceiling, maxLong, a, b, divisor, RoundingMode.CEILING);
+            assertMultiplyDivide(halfUp, maxLong, a, b, divisor, RoundingMode.HALF_UP);
+        }
+    }
+
+    @Test
+    void throwsWhenTheQuotientDoesNotFit() {
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(Long.MAX_VALUE, 2, 1, RoundingMode.FLOOR));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(Long.MAX_VALUE, 3, 2, RoundingMode.FLOOR));
+        assertThrows(ArithmeticException.class,
+                () -> Money.multiplyDivide(Long.MAX_VALUE, Long.MAX_VALUE, 1L << 62, RoundingMode.FLOOR));
+    }
+
+    @Test
+    void throwsWhenRoundingUpPassesTheRange() {
+        assertEquals(Long.MAX_VALUE, Money.multiplyDivide(3, THIRD_OF_2_64, 2, RoundingMode.FLOOR));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(3, THIRD_OF_2_64, 2, RoundingMode.CEILING));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(3, THIRD_OF_2_64, 2, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void rejectsInvalidOperands() {
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(-1, 1, 1, RoundingMode.FLOOR));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(1, -1, 1, RoundingMode.FLOOR));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(1, 1, 0, RoundingMode.FLOOR));
+        assertThrows(IllegalArgumentException.class, () -> Money.multiplyDivide(1, 1, 2, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void boundsGrowthBetweenTheTradeAndPriceLimits() {
+        long minPrice = Money.ofDollars(Money.MIN_TRADE_PRICE);
+        long maxPrice = Money.ofDollars(Money.MAX_PRICE);
+
+        // $100 bought at the lowest price is worth $10 billion at the highest, still in range.
+        long shares = Money.sharesBought(Money.ofDollars(100), minPrice);
+        assertEquals(Money.ofDollars(1e10), Money.value(shares, maxPrice));
+
+        // Ten times as much passes the range of a long, which throws instead of wrapping.
+        long moreShares = Money.sharesBought(Money.ofDollars(1_000), minPrice);
+        assertThrows(ArithmeticException.class, () -> Money.value(moreShares, maxPrice));
+    }
+
+    private static void assertMultiplyDivide(BigInteger expected, BigInteger maxLong, long a, long b, long divisor,
+                                             RoundingMode rounding) {
+        if (expected.compareTo(maxLong) > 0) {
+            assertThrows(ArithmeticException.class, () -> Money.multiplyDivide(a, b, divisor, rounding));
+        } else {
+            assertEquals(expected.longValueExact(), Money.multiplyDivide(a, b, divisor, rounding),
+                    () -> a + " * " + b + " / " + divisor + " " + rounding);
+        }
+    }
+}
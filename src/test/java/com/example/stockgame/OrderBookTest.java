@@ -0,0 +1,199 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderBookTest {
+    private final List<long[]> fills = new ArrayList<>();
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() {
+        fills.clear();
+        book = new OrderBook(7, (symbol, makerOrderId, makerOwner, takerOwner, takerSide, price, quantity) ->
+                fills.add(new long[] {makerOrderId, makerOwner, takerOwner, price, quantity}));
+    }
+
+    @Test
+    void restsLimitOrdersThatDoNotCross() {
+        book.limit(OrderSide.BUY, 99, 10, 1);
+        book.limit(OrderSide.SELL, 101, 5, 2);
+
+        assertEquals(99, book.getBestBid());
+        assertEquals(101, book.getBestAsk());
+        assertEquals(2, book.getRestingOrderCount());
+        assertTrue(fills.isEmpty());
+    }
+
+    @Test
+    void matchesBestPriceFirstThenOldestOrder() {
+        long first = book.limit(OrderSide.SELL, 101, 5, 1);
+        long second = book.limit(OrderSide.SELL, 101, 5, 2);
+        long better = book.limit(OrderSide.SELL, 100, 5, 3);
+
+        assertEquals(12, book.market(OrderSide.BUY, 12, 9));
+
+        assertEquals(3, fills.size());
+        assertFill(fills.get(0), better, 3, 100, 5);
+        assertFill(fills.get(1), first, 1, 101, 5);
+        assertFill(fills.get(2), second, 2, 101, 2);
+        assertEquals(3, book.getRemaining(second));
+        assertEquals(101, book.getBestAsk());
+        assertEquals(12, book.getVolume());
+    }
+
+    @Test
+    void tradesAtTheRestingPrice() {
+        book.limit(OrderSide.BUY, 100, 4, 1);
+
+        assertEquals(OrderBook.NO_ORDER, book.limit(OrderSide.SELL, 90, 4, 2));
+
+        assertEquals(1, fills.size());
+        assertEquals(100, fills.get(0)[3]);
+        assertEquals(OrderBook.NO_PRICE, book.getBestBid());
+    }
+
+    @Test
+    void restsTheUnfilledPartOfALimitOrder() {
+        book.limit(OrderSide.SELL, 100, 3, 1);
+
+        long id = book.limit(OrderSide.BUY, 100, 10, 2);
+
+        assertNotEquals(OrderBook.NO_ORDER, id);
+        assertEquals(7, book.getRemaining(id));
+        assertEquals(100, book.getBestBid());
+        assertEquals(OrderBook.NO_PRICE, book.getBestAsk());
+        assertEquals(7, book.getQuantityAt(OrderSide.BUY, 100));
+    }
+
+    @Test
+    void doesNotTradeThroughTheLimit() {
+        book.limit(OrderSide.SELL, 105, 3, 1);
+
+        long id = book.limit(OrderSide.BUY, 104, 3, 2);
+
+        assertTrue(fills.isEmpty());
+        assertEquals(3, book.getRemaining(id));
+    }
+
+    @Test
+    void dropsTheUnfilledPartOfAMarketOrder() {
+        book.limit(OrderSide.BUY, 100, 3, 1);
+
+        assertEquals(3, book.market(OrderSide.SELL, 10, 2));
+        assertEquals(0, book.getRestingOrderCount());
+        assertEquals(0, book.getLevelCount(OrderSide.SELL));
+    }
+
+    @Test
+    void cancelsThePartOfAPartiallyFilledOrder() {
+        long id = book.limit(OrderSide.SELL, 100, 10, 1);
+        book.market(OrderSide.BUY, 4, 2);
+
+        assertEquals(6, book.getRemaining(id));
+        assertTrue(book.cancel(id));
+
+        assertEquals(0, book.getRemaining(id));
+        assertEquals(0, book.getQuantityAt(OrderSide.SELL, 100));
+        assertEquals(0, book.getLevelCount(OrderSide.SELL));
+        assertEquals(0, book.getRestingOrderCount());
+        assertFalse(book.cancel(id));
+    }
+
+    @Test
+    void cancelKeepsTheRestOfTheQueueInOrder() {
+        long first = book.limit(OrderSide.BUY, 100, 1, 1);
+        long middle = book.limit(OrderSide.BUY, 100, 1, 2);
+        long last = book.limit(OrderSide.BUY, 100, 1, 3);
+
+        assertTrue(book.cancel(middle));
+        book.market(OrderSide.SELL, 2, 4);
+
+        assertEquals(2, fills.size());
+        assertEquals(first, fills.get(0)[0]);
+        assertEquals(last, fills.get(1)[0]);
+    }
+
+    @Test
+    void rejectsStaleIdsAfterTheSlotIsReused() {
+        long filled = book.limit(OrderSide.SELL, 100, 1, 1);
+        book.market(OrderSide.BUY, 1, 2);
+        long cancelled = book.limit(OrderSide.SELL, 100, 1, 1);
+        assertTrue(book.cancel(cancelled));
+
+        long reused = book.limit(OrderSide.SELL, 100, 1, 3);
+
+        assertEquals((int) filled, (int) reused);
+        assertNotEquals(filled, reused);
+        assertEquals(0, book.getRemaining(filled));
+        assertFalse(book.cancel(filled));
+        assertFalse(book.cancel(cancelled));
+        assertEquals(1, book.getRemaining(reused));
+    }
+
+    @Test
+    void rejectsIdsThatWereNeverIssued() {
+        assertFalse(book.cancel(-5));
+        assertFalse(book.cancel(Integer.MAX_VALUE));
+        assertEquals(0, book.getRemaining(1L << 40));
+    }
+
+    @Test
+    void growsThePoolAndTheLevelsBeyondTheirInitialCapacity() {
+        int orders = 5_000;
+        long[] ids = new long[orders];
+        for (int i = 0; i < orders; i++) {
+            ids[i] = book.limit(OrderSide.BUY, 1 + i % 500, 2, i);
+        }
+
+        assertEquals(orders, book.getRestingOrderCount());
+        assertEquals(500, book.getLevelCount(OrderSide.BUY));
+        assertEquals(500, book.getBestBid());
+        for (int i = 0; i < orders; i++) {
+            assertEquals(2, book.getRemaining(ids[i]));
+        }
+
+        assertEquals(2L * orders, book.market(OrderSide.SELL, 2L * orders, -1));
+        assertEquals(0, book.getRestingOrderCount());
+        assertEquals(orders, fills.size());
+        // Levels are taken best first: every price from 500 down to 1.
+        assertEquals(500, fills.get(0)[3]);
+        assertEquals(1, fills.get(orders - 1)[3]);
+    }
+
+    @Test
+    void clearRemovesEveryOrder() {
+        long id = book.limit(OrderSide.BUY, 100, 1, 1);
+        book.limit(OrderSide.SELL, 101, 1, 1);
+
+        book.clear();
+
+        assertEquals(0, book.getRestingOrderCount());
+        assertEquals(OrderBook.NO_PRICE, book.getBestBid());
+        assertEquals(OrderBook.NO_PRICE, book.getBestAsk());
+        assertFalse(book.cancel(id));
+    }
+
+    @Test
+    void rejectsInvalidOrders() {
+        assertThrows(IllegalArgumentException.class, () -> book.limit(OrderSide.BUY, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> book.limit(OrderSide.BUY, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> book.market(OrderSide.SELL, -1, 1));
+    }
+
+    private static void assertFill(long[] fill, long makerOrderId, long makerOwner, long price, long quantity) {
+        assertEquals(makerOrderId, fill[0]);
+        assertEquals(makerOwner, fill[1]);
+        assertEquals(price, fill[3]);
+        assertEquals(quantity, fill[4]);
+    }
+}
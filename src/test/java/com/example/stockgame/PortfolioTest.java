@@ -0,0 +1,79 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioTest {
+    private MarketBook book;
+    private Portfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        book = new MarketBook();
+        book.add("AAA", 100, RiskLevel.LOW);
+        book.add("BBB", 50, RiskLevel.MEDIUM);
+        book.add("CCC", 20, RiskLevel.HIGH);
+        portfolio = new Portfolio(book, 1_000);
+        assertTrue(portfolio.buy(0, 300));
+        assertTrue(portfolio.buy(1, 200));
+    }
+
+    @Test
+    void leavesEverythingUnchangedWhenALaterBuyLacksCash() {
+        long[] before = state();
+
+        int failedLeg = portfolio.applyBatch(List.of(
+                TradeLeg.sell("AAA", 100), TradeLeg.buy("CCC", 400), TradeLeg.sellAll("BBB"), TradeLeg.buy("CCC", 900)));
+
+        assertEquals(3, failedLeg);
+        assertArrayEquals(before, state());
+    }
+
+    @Test
+    void leavesEverythingUnchangedWhenALaterSellLacksShares() {
+        long[] before = state();
+
+        int failedLeg = portfolio.applyBatch(List.of(
+                TradeLeg.buy("CCC", 100), TradeLeg.sell("AAA", 250), TradeLeg.sell("AAA", 100)));
+
+        assertEquals(2, failedLeg);
+        assertArrayEquals(before, state());
+    }
+
+    @Test
+    void leavesEverythingUnchangedWhenALaterLegSellsAStockNotOwned() {
+        long[] before = state();
+
+        int failedLeg = portfolio.applyBatch(List.of(TradeLeg.sellAll("AAA"), TradeLeg.sellAll("AAA")));
+
+        assertEquals(1, failedLeg);
+        assertArrayEquals(before, state());
+    }
+
+    @Test
+    void fundsBuysWithTheSellsBeforeThem() {
+        int failedLeg = portfolio.applyBatch(List.of(TradeLeg.sellAll("AAA"), TradeLeg.buy("CCC", 700)));
+
+        assertEquals(-1, failedLeg);
+        assertEquals(0, portfolio.getMicroSharesOwned(0));
+        assertEquals(Money.ofShares(35), portfolio.getMicroSharesOwned(2));
+        assertEquals(Money.ofDollars(100), portfolio.getAvailableCashMicros());
+        assertEquals(Money.ofDollars(1_000), portfolio.getNetWorthMicros());
+    }
+
+    /**
+     * Captures the cash, the valuation and the shares of every stock.
+     */
+    private long[] state() {
+        return new long[] {
+                portfolio.getAvailableCashMicros(), portfolio.getPortfolioCostMicros(), portfolio.getPositionCount(),
+                portfolio.getMicroSharesOwned(0), portfolio.getMicroSharesOwned(1), portfolio.getMicroSharesOwned(2)
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceJournalWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsToAJournalOfTheSameMarket() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketBook book = book("AAA", "BBB");
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            writer.append(1, book);
+            writer.append(2, book);
+        }
+
+        book.setPrice(1, 42);
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            assertEquals(2, writer.getLastDay());
+            writer.append(3, book);
+        }
+
+        try (PriceJournalReader reader = PriceJournalReader.open(path)) {
+            assertEquals(1, reader.getFirstDay());
+            assertEquals(3, reader.getLastDay());
+            assertEquals(42, reader.getPrice(3, 1));
+            assertEquals("BBB", reader.getName(1));
+        }
+    }
+
+    @Test
+    void cutsOffAPartiallyWrittenDay() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketBook book = book("AAA", "BBB");
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            writer.append(1, book);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(PriceJournalWriter.RECORD_SIZE));
+        }
+
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            assertEquals(1, writer.getLastDay());
+        }
+        assertEquals(PriceJournalWriter.dataStart(2) + 2 * PriceJournalWriter.RECORD_SIZE, Files.size(path));
+    }
+
+    @Test
+    void rejectsAJournalOfAnotherMarketOfTheSameSize() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketBook book = book("AAA", "BBB");
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            writer.append(1, book);
+        }
+        long size = Files.size(path);
+
+        assertThrows(IOException.class, () -> PriceJournalWriter.open(path, book("AAA", "CCC")));
+        assertThrows(IOException.class, () -> PriceJournalWriter.open(path, book("BBB", "AAA")));
+        assertThrows(IOException.class, () -> PriceJournalWriter.open(path, book("AAA")));
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test
+    void reopensTheJournalOfAnEmptyMarket() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketBook book = book();
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            writer.append(1, book);
+        }
+
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, book)) {
+            assertEquals(Integer.MIN_VALUE, writer.getLastDay());
+        }
+    }
+
+    @Test
+    void leavesTheEngineUnrecordedWhenTheJournalSkipsDays() throws IOException {
+        Path path = directory.resolve("prices.pjrn");
+        MarketEngine engine = new MarketEngine();
+        engine.restart(9);
+        try (PriceJournalWriter writer = PriceJournalWriter.open(path, engine.getBook())) {
+            writer.append(5, engine.getBook());
+
+            assertThrows(IllegalArgumentException.class, () -> engine.setPriceJournal(writer));
+            engine.advanceDay();
+            assertEquals(5, writer.getLastDay());
+        }
+    }
+
+    private static MarketBook book(String... symbols) {
+        MarketBook book = new MarketBook();
+        for (String symbol : symbols) {
+            book.add(symbol, 10, RiskLevel.LOW);
+        }
+        return book;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PriceModelTest {
+    private static final int ROWS = 200_000;
+    private static final double PRICE = 100;
+    private static final double DT = 1.0 / PriceModel.TRADING_DAYS_PER_YEAR;
+
+    @Test
+    void drawsGeometricBrownianMotionLogReturns() {
+        double drift = 0.07;
+        double volatility = 0.3;
+        double[] logReturns = logReturns(book(new GeometricBrownianMotionModel(drift, volatility), 1), 1);
+
+        assertMoments(logReturns, (drift - volatility * volatility / 2) * DT, volatility * volatility * DT, 0.03);
+    }
+
+    @Test
+    void drawsJumpDiffusionLogReturns() {
+        double drift = 0.07;
+        double volatility = 0.25;
+        double intensity = 25;
+        double jumpMean = -0.05;
+        double jumpVolatility = 0.1;
+        double[] logReturns = logReturns(book(
+                new JumpDiffusionModel(drift, volatility, intensity, jumpMean, jumpVolatility), 2), 1);
+
+        // The drift is compensated for the mean jump; the jumps add a compound Poisson term to the log return.
+        double meanJump = Math.exp(jumpMean + jumpVolatility * jumpVolatility / 2) - 1;
+        double mean = (drift - volatility * volatility / 2 - intensity * meanJump) * DT + intensity * DT * jumpMean;
+        double variance = volatility * volatility * DT
+                + intensity * DT * (jumpVolatility * jumpVolatility + jumpMean * jumpMean);
+        assertMoments(logReturns, mean, variance, 0.05);
+    }
+
+    @Test
+    void revertsTowardsTheListingPrice() {
+        double speed = 4;
+        double volatility = 0.3;
+        int days = 20;
+        double start = 0.5;
+        MarketBook book = book(new MeanReversionModel(speed, volatility), 3);
+        for (int row = 0; row < ROWS; row++) {
+            book.setPrice(row, PRICE * Math.exp(start));
+        }
+        double[] logReturns = logReturns(book, days);
+
+        // The log distance to the listing price is an Ornstein-Uhlenbeck process started at the initial distance.
+        double retained = Math.exp(-speed * DT);
+        double mean = start * Math.pow(retained, days) - start;
+        double variance = volatility * volatility / (2 * speed) * (1 - Math.pow(retained, 2 * days));
+        assertMoments(logReturns, mean, variance, 0.03);
+    }
+
+    @Test
+    void repeatsTheSamePricesForTheSameSeed() {
+        assertDeterministic(() -> new GeometricBrownianMotionModel(0.07, 0.3));
+        assertDeterministic(() -> new JumpDiffusionModel(0.07, 0.25, 25, -0.05, 0.1));
+        assertDeterministic(() -> new MeanReversionModel(4, 0.3));
+    }
+
+    /**
+     * Ticks books of the same and of another seed and compares their prices.
+     */
+    private static void assertDeterministic(Supplier<PriceModel> model) {
+        MarketBook first = book(model.get(), 5);
+        MarketBook second = book(model.get(), 5);
+        MarketBook other = book(model.get(), 6);
+        for (int tick = 0; tick < 5; tick++) {
+            first.updatePrices();
+            second.updatePrices();
+            other.updatePrices();
+        }
+
+        assertArrayEquals(prices(first), prices(second));
+        assertFalse(Arrays.equals(prices(first), prices(other)));
+    }
+
+    /**
+     * Checks the sample mean of values against its expectation within five standard errors, and the sample
+     * variance within a relative tolerance.
+     */
+    private static void assertMoments(double[] values, double mean, double variance, double varianceTolerance) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        double sampleMean = sum / values.length;
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - sampleMean) * (value - sampleMean);
+        }
+        double sampleVariance = squares / (values.length - 1);
+
+        assertEquals(mean, sampleMean, 5 * Math.sqrt(variance / values.length));
+        assertEquals(variance, sampleVariance, variance * varianceTolerance);
+    }
+
+    /**
+     * Ticks a book for a number of days and returns the log return of every row over them.
+     */
+    private static double[] logReturns(MarketBook book, int days) {
+        double[] before = prices(book);
+        for (int day = 0; day < days; day++) {
+            book.updatePrices();
+        }
+        double[] logReturns = new double[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            logReturns[row] = Math.log(book.getPrice(row) / before[row]);
+        }
+        return logReturns;
+    }
+
+    /**
+     * Creates a book of identical stocks with no price floor, moved by a model.
+     */
+    private static MarketBook book(PriceModel model, long seed) {
+        MarketBook book = new MarketBook(ROWS, seed);
+        for (int i = 0; i < ROWS; i++) {
+            book.add(SymbolCodes.firstCode(4) + i, PRICE, RiskLevel.MEDIUM, 0, 0, 0, 0);
+        }
+        book.setPriceModel(model);
+        return book;
+    }
+
+    private static double[] prices(MarketBook book) {
+        double[] prices = new double[book.size()];
+        for (int row = 0; row < prices.length; row++) {
+            prices[row] = book.getPrice(row);
+        }
+        return prices;
+    }
+}
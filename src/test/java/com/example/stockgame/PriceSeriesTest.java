@@ -0,0 +1,73 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceSeriesTest {
+    @Test
+    void findsTheSameRangesAsAScanWhileGrowing() {
+        PriceSeries series = new PriceSeries();
+        SplittableRandom random = new SplittableRandom(1);
+        // Every size up to here, so ranges start and end on both sides of every block boundary of 5 levels.
+        for (int size = 1; size <= 70; size++) {
+            series.add(random.nextDouble(-100, 100));
+            assertEveryRange(series);
+        }
+    }
+
+    @Test
+    void findsTheSameRangesAsAScanInALongSeries() {
+        PriceSeries series = new PriceSeries();
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 300; i++) {
+            series.add(random.nextDouble(-100, 100));
+        }
+
+        assertEveryRange(series);
+    }
+
+    @Test
+    void forgetsTheBlocksOfClearedValues() {
+        PriceSeries series = new PriceSeries();
+        for (int i = 0; i < 64; i++) {
+            series.add(1_000 + i);
+        }
+
+        series.clear();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 40; i++) {
+            series.add(random.nextDouble(-100, 100));
+        }
+
+        assertEveryRange(series);
+    }
+
+    @Test
+    void returnsInfinitiesForAnEmptyRange() {
+        PriceSeries series = new PriceSeries();
+        series.add(5);
+
+        assertEquals(Double.POSITIVE_INFINITY, series.min(1, 1));
+        assertEquals(Double.NEGATIVE_INFINITY, series.max(0, 0));
+    }
+
+    /**
+     * Compares the minimum and maximum of every non-empty range with a scan of its values.
+     */
+    private static void assertEveryRange(PriceSeries series) {
+        int size = series.size();
+        for (int from = 0; from < size; from++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int to = from + 1; to <= size; to++) {
+                min = Math.min(min, series.get(to - 1));
+                max = Math.max(max, series.get(to - 1));
+                assertEquals(min, series.min(from, to), "min of " + from + ".." + to + " in " + size);
+                assertEquals(max, series.max(from, to), "max of " + from + ".." + to + " in " + size);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingStatisticsTest {
+    private static final int WINDOW = 5;
+    private static final int SERIES = 3;
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    void matchesANaiveRecomputationAcrossWindowRollovers() {
+        RollingStatistics statistics = new RollingStatistics(WINDOW);
+        statistics.reset(SERIES);
+        // Enough observations for several rollovers of the ring and of the periodic re-summation.
+        double[][] history = randomWalks(7 * WINDOW + 3, 2);
+
+        for (int day = 0; day < history.length; day++) {
+            double[] values = history[day];
+            statistics.add(series -> values[series]);
+            for (int series = 0; series < SERIES; series++) {
+                assertMatches(statistics, history, day, series);
+            }
+        }
+    }
+
+    @Test
+    void startsOverAfterAReset() {
+        RollingStatistics statistics = new RollingStatistics(WINDOW);
+        statistics.reset(SERIES);
+        for (double[] values : randomWalks(3 * WINDOW, 3)) {
+            statistics.add(series -> values[series]);
+        }
+
+        statistics.reset(SERIES);
+        double[][] history = randomWalks(2 * WINDOW + 1, 4);
+        for (int day = 0; day < history.length; day++) {
+            double[] values = history[day];
+            statistics.add(series -> values[series]);
+            for (int series = 0; series < SERIES; series++) {
+                assertMatches(statistics, history, day, series);
+            }
+        }
+    }
+
+    /**
+     * Compares the statistics after an observation with the same statistics computed from scratch.
+     */
+    private static void assertMatches(RollingStatistics statistics, double[][] history, int day, int series) {
+        int first = Math.max(0, day - WINDOW + 1);
+        int count = day - first + 1;
+        assertEquals(count, statistics.getCount());
+
+        double sum = 0;
+        for (int i = first; i <= day; i++) {
+            sum += history[i][series];
+        }
+        assertEquals(sum / count, statistics.getSimpleMovingAverage(series), TOLERANCE * Math.abs(sum));
+
+        int returns = count - 1;
+        double returnSum = 0;
+        for (int i = first + 1; i <= day; i++) {
+            returnSum += history[i][series] / history[i - 1][series] - 1;
+        }
+        double mean = returns < 1 ? 0 : returnSum / returns;
+        assertEquals(mean, statistics.getMeanReturn(series), TOLERANCE);
+        double squaredDeviations = 0;
+        for (int i = first + 1; i <= day; i++) {
+            double deviation = history[i][series] / history[i - 1][series] - 1 - mean;
+            squaredDeviations += deviation * deviation;
+        }
+        double deviation = returns < 2 ? 0 : Math.sqrt(squaredDeviations / (returns - 1));
+        assertEquals(deviation, statistics.getReturnDeviation(series), TOLERANCE);
+
+        double ema = history[0][series];
+        double peak = history[0][series];
+        double maxDrawdown = 0;
+        for (int i = 1; i <= day; i++) {
+            double value = history[i][series];
+            ema += 2.0 / (WINDOW + 1) * (value - ema);
+            peak = Math.max(peak, value);
+            maxDrawdown = Math.max(maxDrawdown, 1 - value / peak);
+        }
+        assertEquals(ema, statistics.getExponentialMovingAverage(series), TOLERANCE * Math.abs(ema));
+        assertEquals(1 - history[day][series] / peak, statistics.getDrawdown(series), TOLERANCE);
+        assertEquals(maxDrawdown, statistics.getMaxDrawdown(series), TOLERANCE);
+        assertEquals(history[day][series], statistics.getLatest(series));
+    }
+
+    /**
+     * Generates positive random walks of every series, one row per day.
+     */
+    private static double[][] randomWalks(int days, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] history = new double[days][SERIES];
+        for (int series = 0; series < SERIES; series++) {
+            double value = 10 + 90 * random.nextDouble();
+            for (int day = 0; day < days; day++) {
+                value *= 1 + 0.1 * (random.nextDouble() - 0.5);
+                history[day][series] = value;
+            }
+        }
+        return history;
+    }
+}
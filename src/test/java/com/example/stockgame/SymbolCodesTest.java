@@ -0,0 +1,89 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymbolCodesTest {
+    @Test
+    void numbersSymbolsLengthFirstThenAlphabetically() {
+        assertEquals(1, SymbolCodes.encode("A"));
+        assertEquals(26, SymbolCodes.encode("Z"));
+        assertEquals(27, SymbolCodes.encode("AA"));
+        assertEquals(28, SymbolCodes.encode("AB"));
+        assertEquals(702, SymbolCodes.encode("ZZ"));
+        assertEquals(703, SymbolCodes.encode("AAA"));
+        assertEquals(SymbolCodes.MAX_CODE, SymbolCodes.encode("ZZZZZ"));
+    }
+
+    @Test
+    void fitsEveryCodeIn24Bits() {
+        assertEquals(26 + 26 * 26 + 26 * 26 * 26 + 26 * 26 * 26 * 26 + 26 * 26 * 26 * 26 * 26, SymbolCodes.MAX_CODE);
+        assertTrue(SymbolCodes.MAX_CODE < 1 << 24);
+    }
+
+    @Test
+    void decodesEveryCodeBackToItsSymbol() {
+        for (int code = 1; code <= SymbolCodes.MAX_CODE; code++) {
+            String symbol = SymbolCodes.decode(code);
+            assertEquals(SymbolCodes.length(code), symbol.length());
+            if (SymbolCodes.encode(symbol) != code) {
+                assertEquals(code, SymbolCodes.encode(symbol), symbol);
+            }
+        }
+    }
+
+    @Test
+    void rejectsSymbolsThatCannotBePacked() {
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode(""));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode("ABCDEF"));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode("abc"));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode("A1"));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode("A["));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode("@"));
+    }
+
+    @Test
+    void rejectsCodesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> SymbolCodes.decode(SymbolCodes.NONE));
+        assertThrows(IllegalArgumentException.class, () -> SymbolCodes.decode(-1));
+        assertThrows(IllegalArgumentException.class, () -> SymbolCodes.decode(SymbolCodes.MAX_CODE + 1));
+    }
+
+    @Test
+    void encodesBytesLikeStrings() {
+        ByteBuffer bytes = ByteBuffer.wrap("xACMEZZZZZ1".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(SymbolCodes.encode("ACME"), SymbolCodes.encode(bytes, 1, 5));
+        assertEquals(SymbolCodes.MAX_CODE, SymbolCodes.encode(bytes, 5, 10));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode(bytes, 0, 2));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode(bytes, 1, 7));
+        assertEquals(SymbolCodes.NONE, SymbolCodes.encode(bytes, 3, 3));
+    }
+
+    @Test
+    void countsSymbolsOfEachLength() {
+        int total = 0;
+        for (int length = 1; length <= SymbolCodes.MAX_LENGTH; length++) {
+            assertEquals((int) Math.pow(26, length), SymbolCodes.count(length));
+            assertEquals("A".repeat(length), SymbolCodes.decode(SymbolCodes.firstCode(length)));
+            total += SymbolCodes.count(length);
+        }
+        assertEquals(SymbolCodes.MAX_CODE, total);
+    }
+
+    @Test
+    void drawsValidRandomCodes() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 10_000; i++) {
+            int code = SymbolCodes.random(random);
+            assertTrue(code >= 1 && code <= SymbolCodes.MAX_CODE);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.stockgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymbolIndexTest {
+    @Test
+    void looksUpRowsBySymbolAndCode() {
+        SymbolIndex index = new SymbolIndex();
+        index.register(SymbolCodes.encode("ACME"), 0);
+        index.register(SymbolCodes.encode("Z"), 1);
+
+        assertEquals(0, index.rowOf("ACME"));
+        assertEquals(1, index.rowOf(SymbolCodes.encode("Z")));
+        assertEquals(-1, index.rowOf("ACMF"));
+        assertEquals(-1, index.rowOf("acme"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rejectsDuplicateAndInvalidCodes() {
+        SymbolIndex index = new SymbolIndex();
+        index.register(SymbolCodes.encode("ACME"), 0);
+
+        assertThrows(IllegalArgumentException.class, () -> index.register(SymbolCodes.encode("ACME"), 1));
+        assertThrows(IllegalArgumentException.class, () -> index.register(SymbolCodes.NONE, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.register(SymbolCodes.MAX_CODE + 1, 1));
+        assertEquals(0, index.rowOf("ACME"));
+    }
+
+    @Test
+    void allocatesUniqueCodesPastTheBitmapThreshold() {
+        SymbolIndex index = new SymbolIndex();
+        SplittableRandom random = new SplittableRandom(5);
+        boolean[] used = new boolean[SymbolCodes.MAX_CODE + 1];
+        for (int row = 0; row < 20_000; row++) {
+            int code = index.allocate(random);
+            assertTrue(code >= 1 && code <= SymbolCodes.MAX_CODE);
+            assertTrue(!used[code], () -> "Allocated twice: " + SymbolCodes.decode(code));
+            used[code] = true;
+            index.register(code, row);
+        }
+        assertEquals(20_000, index.size());
+    }
+
+    @Test
+    void skipsLengthsWhoseSymbolsAreAllInUse() {
+        SymbolIndex index = new SymbolIndex();
+        for (int code = SymbolCodes.firstCode(1); code < SymbolCodes.firstCode(3); code++) {
+            index.register(code, code);
+        }
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(SymbolCodes.length(index.allocate(random)) >= 3);
+        }
+    }
+
+    @Test
+    void fallsBackToTheNextFreeCodeOfACrowdedLength() {
+        SymbolIndex index = new SymbolIndex();
+        int first = SymbolCodes.firstCode(3);
+        int count = SymbolCodes.count(3);
+        // Every three-letter symbol but one, plus every shorter one, so random draws keep colliding.
+        int free = first + count / 2;
+        for (int code = 1; code < first + count; code++) {
+            if (code != free) {
+                index.register(code, code);
+            }
+        }
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 200; i++) {
+            int code = index.allocate(random);
+            if (SymbolCodes.length(code) == 3) {
+                assertEquals(free, code);
+            }
+        }
+    }
+
+    @Test
+    void forgetsEverySymbolWhenCleared() {
+        SymbolIndex index = new SymbolIndex();
+        for (int code = 1; code <= 5_000; code++) {
+            index.register(code, code);
+        }
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertEquals(-1, index.rowOf(1));
+        index.register(1, 7);
+        assertEquals(7, index.rowOf(1));
+    }
+}